@@ -0,0 +1,55 @@
+package dev.rafaellopes.chatbotfaq;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a piped block of lines through the byte-console path; one operation = all lines.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsoleLineReaderBenchmark {
+
+    @Param({"1000"})
+    public int lines;
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append(i % 2 == 0 ? "o que é automação com chatbot?\r\n" : "quanto custa\n");
+        }
+        input = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void readLine(Blackhole blackhole) throws IOException {
+        try (ConsoleLineReader reader = new ConsoleLineReader(new ByteArrayInputStream(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                blackhole.consume(line);
+            }
+        }
+    }
+}
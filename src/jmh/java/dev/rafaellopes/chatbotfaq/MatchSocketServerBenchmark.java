@@ -0,0 +1,104 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentLoader;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the Unix domain socket server over the shipped knowledge base: one connection per
+ * benchmark thread, either one request per round trip or {@value #PIPELINED} requests per write.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MatchSocketServerBenchmark {
+
+    static final int PIPELINED = 64;
+
+    private static final List<String> MESSAGES = List.of(
+            "o que é chatbot?", "quanto custa", "quais as limitações", "bom dia", "preciso de ajuda com o preço");
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+
+        Path dir;
+        MatchSocketServer server;
+
+        @Setup
+        public void setUp() throws IOException {
+            ObjectMapper objectMapper = new ObjectMapper();
+            Path kb = Path.of("data", "intents.json");
+            IntentLoader loader = new IntentLoader(objectMapper);
+            List<Intent> intents = loader.load(kb);
+            dir = Files.createTempDirectory("chatbotfaq-socket");
+            server = new MatchSocketServer(dir.resolve("faq.sock"), objectMapper,
+                    new KnowledgeBaseReloader(kb, loader, intents), new IntentMatcher(), "fallback");
+            server.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            server.close();
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+
+        MatchSocketClient client;
+        List<String> batch;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ServerState serverState) throws IOException {
+            client = new MatchSocketClient(serverState.server.path());
+            batch = new ArrayList<>(PIPELINED);
+            for (int i = 0; i < PIPELINED; i++) {
+                batch.add(MESSAGES.get(i % MESSAGES.size()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public String roundTrip(ClientState state) throws IOException {
+        return state.client.match(MESSAGES.get(state.next++ % MESSAGES.size()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINED)
+    public List<String> pipelined(ClientState state) throws IOException {
+        return state.client.matchAll(state.batch);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntentLoaderBenchmark {
+
+    @Param({"shipped", "1000", "10000", "100000"})
+    public String kb;
+
+    private final IntentLoader loader = new IntentLoader(new ObjectMapper());
+    private Path path;
+    private boolean temporary;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("shipped".equals(kb)) {
+            path = KnowledgeBaseState.SHIPPED_KB;
+            return;
+        }
+        List<Intent> intents = SyntheticKnowledgeBase.generate(Integer.parseInt(kb), 42);
+        path = SyntheticKnowledgeBase.writeJson(intents, Files.createTempFile("intents-" + kb + "-", ".json"));
+        temporary = true;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public List<Intent> load() {
+        return loader.load(path);
+    }
+
+    @Benchmark
+    public IntentIndex loadIndex() {
+        return loader.loadIndex(path);
+    }
+}
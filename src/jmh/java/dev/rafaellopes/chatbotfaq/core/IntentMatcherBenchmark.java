@@ -0,0 +1,77 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IntentMatcherBenchmark {
+
+    private final IntentMatcher matcher = new IntentMatcher();
+    private final CachingIntentMatcher cachingMatcher = new CachingIntentMatcher(4096);
+    private final IntentMatcher instrumentedMatcher = new IntentMatcher(new MatchStats(MatchStats.DEFAULT_SAMPLE_EVERY));
+    private final IntentMatcher fuzzyMatcher = new IntentMatcher(null, null, FuzzyMatching.withMaxDistance(2));
+    private final IntentMatcher bm25Matcher = new IntentMatcher(null, null, null, ScoringEngine.BM25);
+    private int next;
+
+    @Benchmark
+    public Optional<Intent> findBestIntent(KnowledgeBaseState state) {
+        String query = state.queries[next++ & (state.queries.length - 1)];
+        return matcher.findBestIntent(query, state.index);
+    }
+
+    /**
+     * Same as {@link #findBestIntent} with the production instrumentation on (overhead check).
+     */
+    @Benchmark
+    public Optional<Intent> findBestIntentInstrumented(KnowledgeBaseState state) {
+        String query = state.queries[next++ & (state.queries.length - 1)];
+        return instrumentedMatcher.findBestIntent(query, state.index);
+    }
+
+    /**
+     * Repeated traffic: after the first pass over the queries every lookup is a cache hit.
+     */
+    @Benchmark
+    public Optional<Intent> findBestIntentCached(KnowledgeBaseState state) {
+        String query = state.queries[next++ & (state.queries.length - 1)];
+        return cachingMatcher.findBestIntent(query, state.index);
+    }
+
+    /**
+     * Typo tolerance on: every unknown query token of 4+ chars is looked up in the delete index.
+     */
+    @Benchmark
+    public Optional<Intent> findBestIntentFuzzy(KnowledgeBaseState state) {
+        String query = state.queries[next++ & (state.queries.length - 1)];
+        return fuzzyMatcher.findBestIntent(query, state.index);
+    }
+
+    /**
+     * BM25 scoring over the same hits (weights are computed on the first call of the trial).
+     */
+    @Benchmark
+    public Optional<Intent> findBestIntentBm25(KnowledgeBaseState state) {
+        String query = state.queries[next++ & (state.queries.length - 1)];
+        return bm25Matcher.findBestIntent(query, state.index);
+    }
+
+    @Benchmark
+    public IntentIndex buildIndex(KnowledgeBaseState state) {
+        return IntentIndex.build(state.intents);
+    }
+}
@@ -0,0 +1,38 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Knowledge base shared by the matcher benchmarks: the shipped data/intents.json
+ * ("shipped", run from the project root) or a synthetic KB with that many intents.
+ */
+@State(Scope.Benchmark)
+public class KnowledgeBaseState {
+
+    static final Path SHIPPED_KB = Path.of("data", "intents.json");
+
+    @Param({"shipped", "1000", "10000", "100000"})
+    public String kb;
+
+    List<Intent> intents;
+    IntentIndex index;
+    String[] queries;
+
+    @Setup
+    public void setUp() {
+        if ("shipped".equals(kb)) {
+            intents = new IntentLoader(new ObjectMapper()).load(SHIPPED_KB);
+        } else {
+            intents = SyntheticKnowledgeBase.generate(Integer.parseInt(kb), 42);
+        }
+        index = IntentIndex.build(intents);
+        queries = SyntheticKnowledgeBase.queries(intents, 1024, 7).toArray(new String[0]);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential vs sharded owner sums of a query whose keyword is shared by many intents, to place
+ * {@link ParallelScan#DEFAULT_THRESHOLD_OWNERS}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelScanBenchmark {
+
+    @Param({"100000"})
+    public int intents;
+
+    @Param({"1024", "4096", "16384", "65536"})
+    public int sharedOwners;
+
+    private IntentIndex index;
+    private String message;
+
+    private final IntentMatcher sequential = new IntentMatcher();
+    // Threshold 2: always shard, to measure the fork cost at every size.
+    private final IntentMatcher parallel = new IntentMatcher(null, new ParallelScan(new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors())), 2));
+
+    @Setup
+    public void setUp() {
+        List<Intent> kb = new ArrayList<>(SyntheticKnowledgeBase.generate(intents, 42));
+        // Spread the shared keyword evenly, as a generic word would be.
+        int step = Math.max(1, intents / sharedOwners);
+        for (int i = 0; i < intents && i / step < sharedOwners; i += step) {
+            Intent intent = kb.get(i);
+            List<String> keywords = new ArrayList<>(intent.getKeywords());
+            keywords.add("compartilhada");
+            kb.set(i, new Intent(intent.getIntent(), keywords, intent.getResponse(), intent.getPriority()));
+        }
+        index = IntentIndex.build(kb);
+        message = SyntheticKnowledgeBase.queries(kb, 1, 7).get(0) + " compartilhada";
+    }
+
+    @Benchmark
+    public Optional<ScoredIntent> sequential() {
+        return sequential.findBestMatch(message, index);
+    }
+
+    @Benchmark
+    public Optional<ScoredIntent> parallel() {
+        return parallel.findBestMatch(message, index);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TextNormalizerBenchmark {
+
+    @Param({
+            "quanto custa um chatbot",
+            "O que é Automação com CHATBOT?",
+            "Olá!   Quais são as limitações   de um robô de atendimento?"
+    })
+    public String message;
+
+    private final TokenBuffer tokens = new TokenBuffer();
+
+    @Benchmark
+    public String normalize() {
+        return TextNormalizer.normalize(message);
+    }
+
+    @Benchmark
+    public int tokenize() {
+        tokens.clear();
+        TextNormalizer.tokenize(message, tokens);
+        return tokens.count();
+    }
+}
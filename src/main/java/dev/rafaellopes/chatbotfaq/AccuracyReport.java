@@ -0,0 +1,132 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Compares scoring engines on a labelled query file, side by side.
+ * <p>
+ * Input: JSONL, one {@code {"message":"...","intent":"name"|null}} per line; a null or
+ * missing intent means the fallback is the expected answer. Blank lines are skipped.
+ */
+final class AccuracyReport {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+    private static final int MAX_DISAGREEMENTS = 20;
+
+    private AccuracyReport() {
+    }
+
+    /**
+     * @param message user question
+     * @param intent expected intent name, null when the fallback is expected
+     */
+    record LabelledQuery(String message, String intent) {
+    }
+
+    /**
+     * @param label engine name shown in the report
+     * @param answers intent answered for each query, null = fallback
+     */
+    record EngineResult(String label, List<String> answers) {
+    }
+
+    static List<LabelledQuery> read(Path input, ObjectMapper objectMapper) throws IOException {
+        List<LabelledQuery> queries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                JsonNode entry;
+                try {
+                    entry = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    throw new IllegalStateException("invalid labelled query: " + input + " (line " + lineNumber + ")", e);
+                }
+                JsonNode message = entry == null ? null : entry.get("message");
+                if (message == null || !message.isTextual()) {
+                    throw new IllegalStateException("invalid labelled query: " + input + " (line " + lineNumber
+                            + "): field 'message' (string) is required");
+                }
+                JsonNode intent = entry.get("intent");
+                queries.add(new LabelledQuery(message.asText(),
+                        intent == null || intent.isNull() ? null : intent.asText()));
+            }
+        }
+        return queries;
+    }
+
+    static EngineResult run(String label, List<LabelledQuery> queries, IntentIndex index, IntentMatcher matcher) {
+        List<String> answers = new ArrayList<>(queries.size());
+        for (LabelledQuery query : queries) {
+            answers.add(App.findBestIntentSafe(query.message(), index, matcher).map(Intent::getIntent).orElse(null));
+        }
+        return new EngineResult(label, answers);
+    }
+
+    static String format(List<LabelledQuery> queries, List<EngineResult> results) {
+        StringBuilder out = new StringBuilder(String.format(PT_BR, "Acurácia em %d perguntas rotuladas:%n", queries.size()));
+        out.append(String.format(PT_BR, "  %-12s %8s %9s %13s%n", "motor", "acertos", "acurácia", "sem resposta"));
+        for (EngineResult result : results) {
+            int correct = 0;
+            int fallbacks = 0;
+            for (int i = 0; i < queries.size(); i++) {
+                String answer = result.answers().get(i);
+                if (Objects.equals(answer, queries.get(i).intent())) {
+                    correct++;
+                }
+                if (answer == null) {
+                    fallbacks++;
+                }
+            }
+            out.append(String.format(PT_BR, "  %-12s %8d %8.1f%% %13d%n", result.label(), correct,
+                    queries.isEmpty() ? 0.0 : correct * 100.0 / queries.size(), fallbacks));
+        }
+
+        List<Integer> disagreements = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            for (EngineResult result : results) {
+                if (!Objects.equals(result.answers().get(i), results.get(0).answers().get(i))) {
+                    disagreements.add(i);
+                    break;
+                }
+            }
+        }
+        if (disagreements.isEmpty()) {
+            return out.toString();
+        }
+
+        out.append(String.format(PT_BR, "Divergências entre motores: %d%n", disagreements.size()));
+        for (int i : disagreements.subList(0, Math.min(MAX_DISAGREEMENTS, disagreements.size()))) {
+            LabelledQuery query = queries.get(i);
+            out.append("  \"").append(query.message()).append("\" esperado=").append(nameOrFallback(query.intent()));
+            for (EngineResult result : results) {
+                out.append(' ').append(result.label()).append('=').append(nameOrFallback(result.answers().get(i)));
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    private static String nameOrFallback(String intent) {
+        return intent == null ? "(fallback)" : intent;
+    }
+}
@@ -1,16 +1,35 @@
 package dev.rafaellopes.chatbotfaq;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.CachingIntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.FuzzyMatching;
 import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
 import dev.rafaellopes.chatbotfaq.core.IntentLoader;
 import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseSnapshotFile;
+import dev.rafaellopes.chatbotfaq.core.MatchStats;
+import dev.rafaellopes.chatbotfaq.core.ParallelScan;
+import dev.rafaellopes.chatbotfaq.core.ScoringEngine;
+import dev.rafaellopes.chatbotfaq.core.SessionStore;
+import dev.rafaellopes.chatbotfaq.core.SyntheticKnowledgeBase;
+import dev.rafaellopes.chatbotfaq.core.TenantRegistry;
+import dev.rafaellopes.chatbotfaq.core.TokenInterner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * CLI entrypoint for the ChatbotFAQ chatbot.
@@ -19,11 +38,18 @@ import java.util.Optional;
 @SuppressWarnings({"java:S106"}) // CLI uses System.out/System.err by design
 public class App {
 
+    // --startup-trace: the first logger runs the whole logging setup.
+    private static final long APP_INIT_NANOS = System.nanoTime();
+
     private static final Logger log = LoggerFactory.getLogger(App.class);
 
+    private static final long LOGGING_READY_NANOS = System.nanoTime();
+
     private static final Path CURRENT_DIR = Path.of("").toAbsolutePath();
 
-    private static final String FALLBACK_MESSAGE =
+    private static final String STATS_FILE = "chatbotfaq-stats.json";
+
+    static final String FALLBACK_MESSAGE =
             "Não tenho uma resposta para isso. :( \nDigite: /ajuda, para ver exemplos de perguntas ou tente reformular a sua pergunta.";
 
     private static final String HELP_MESSAGE = """
@@ -37,24 +63,92 @@ public class App {
             Comandos disponíveis:
             - /ajuda: mostra esta mensagem
             - /reiniciar: reinicia a conversa
+            - /stats: mostra estatísticas de uso e latência
             - /sair: encerra o chatbot
             """;
 
+    static final String RESTART_COMMAND = "/reiniciar";
+
+    static final String RESTART_MESSAGE = "Conversa reiniciada.";
+
+    // The console serves a single user.
+    private static final String CONSOLE_SESSION = "console";
+
+    private static final String TRACE_PROBE = "o que é chatbot?";
+
+    private static final int CDS_MEASURED_RUNS = 5;
+
     public static void main(String[] args) {
+        StartupTrace trace = hasFlag(args, "--startup-trace")
+                ? StartupTrace.begin(APP_INIT_NANOS, LOGGING_READY_NANOS)
+                : StartupTrace.disabled();
         log.info("Starting ChatbotFAQ");
 
         ObjectMapper objectMapper = new ObjectMapper();
         IntentLoader loader = new IntentLoader(objectMapper);
-        IntentMatcher matcher = new IntentMatcher();
+        trace.mark("Jackson (ObjectMapper)");
 
-        Path kbPath = resolveKbPath(args);
-        log.info("Knowledge base path: {}", kbPath.toAbsolutePath());
+        int compileAt = indexOf(args, "--compile-kb");
+        if (compileAt >= 0) {
+            compileKnowledgeBase(args, compileAt, loader);
+            return;
+        }
+
+        int optimizeAt = indexOf(args, "--optimize-kb");
+        if (optimizeAt >= 0) {
+            optimizeKnowledgeBase(args, optimizeAt, loader, objectMapper);
+            return;
+        }
 
-        List<Intent> intents;
+        if (hasFlag(args, "--loadtest")) {
+            runLoadTest(args, loader);
+            return;
+        }
+
+        int dumpCdsAt = indexOf(args, "--dump-cds");
+        if (dumpCdsAt >= 0) {
+            dumpCds(args, dumpCdsAt);
+            return;
+        }
+
+        // Humans type slowly: time every console query; sample under batch/server load.
+        boolean interactive = optionValue(args, "--batch") == null && optionValue(args, "--serve") == null
+                && optionValue(args, "--socket") == null;
+        MatchStats stats = new MatchStats(interactive ? 1 : MatchStats.DEFAULT_SAMPLE_EVERY);
+        FuzzyMatching fuzzy = createFuzzy(args);
+        ScoringEngine engine = parseEngine(optionValue(args, "--engine"));
+        String cacheEntries = optionValue(args, "--cache");
+        String parallelThreshold = optionValue(args, "--parallel-threshold");
+        IntentMatcher matcher = createMatcher(cacheEntries, parallelThreshold, fuzzy, engine, stats);
+        String statsOut = optionValue(args, "--stats-out");
+        if (statsOut != null || hasFlag(args, "--stats")) {
+            exportStatsOnExit(matcher, objectMapper, statsOut);
+        }
+        TranscriptWriter transcript = startTranscript(args, objectMapper);
+
+        // One matcher per tenant: a response cache must only ever see one knowledge base.
+        Supplier<IntentMatcher> tenantMatchers =
+                () -> createMatcher(cacheEntries, parallelThreshold, fuzzy, engine, stats);
+        String kbDir = optionValue(args, "--kb-dir");
+        String tenantOption = optionValue(args, "--tenant");
+        if (kbDir != null && optionValue(args, "--socket") != null) {
+            // A socket frame is only the question text: there is no field to pick a tenant with.
+            System.err.println("--socket atende uma base só e não pode ser usado com --kb-dir; use --serve.");
+            System.exit(2);
+            return;
+        }
+
+        TenantRegistry tenants;
         try {
-            intents = loader.load(kbPath);
+            tenants = kbDir != null
+                    ? loadTenants(Path.of(kbDir), tenantOption, loader, matcher, tenantMatchers)
+                    : loadSingleTenant(resolveKbPath(args), tenantOption, loader, matcher);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Base desconhecida: " + tenantOption);
+            System.exit(2);
+            return;
         } catch (Exception e) {
-            log.error("Failed to load knowledge base: {}", kbPath.toAbsolutePath(), e);
+            log.error("Failed to load knowledge base: {}", kbDir != null ? kbDir : resolveKbPath(args), e);
 
             System.out.println("\n⚠️  Desculpe, estou com dificuldades técnicas no momento.");
             System.out.println("Não consegui carregar a base de conhecimento (intents.json).");
@@ -62,29 +156,90 @@ public class App {
             System.exit(1);
             return;
         }
+        trace.mark("base de conhecimento");
+
+        long prepareStart = System.nanoTime();
+        for (TenantRegistry.Tenant tenant : tenants.tenants()) {
+            // Also before every reload or edit is published, not on the first query after it.
+            tenant.knowledgeBase().prepareWith(tenant.matcher()::prepare);
+        }
+        log.info("Matcher ready: engine={}, fuzzy={}, tenants={}, durationMs={}",
+                matcher.engine(), matcher.fuzzy() != null, tenants.size(), (System.nanoTime() - prepareStart) / 1_000_000);
+        trace.mark("preparo do matcher");
+        if (kbDir != null) {
+            System.out.print(StatsReport.formatTenants(tenants));
+        }
+
+        TenantRegistry.Tenant tenant = tenants.defaultTenant();
+        boolean servesHttpOnly = optionValue(args, "--serve") != null && optionValue(args, "--socket") == null;
+        if (tenant == null && !servesHttpOnly) {
+            System.err.println("Várias bases carregadas: escolha uma com --tenant <id> (" + tenantIds(tenants) + ").");
+            System.exit(2);
+            return;
+        }
+        if (trace.enabled() && tenant != null) {
+            findBestIntentSafe(TRACE_PROBE, tenant.knowledgeBase().index(), tenant.matcher());
+            trace.mark("primeira pergunta");
+        }
 
-        log.info("Knowledge base loaded: intents={}", intents.size());
+        String accuracyInput = optionValue(args, "--accuracy");
+        if (accuracyInput != null) {
+            runAccuracyReport(Path.of(accuracyInput), objectMapper, tenant.knowledgeBase().index(), fuzzy);
+            return;
+        }
 
-        if (intents.isEmpty()) {
+        if (tenant != null && tenant.knowledgeBase().index().size() == 0) {
             log.warn("Knowledge base loaded but contains no intents!");
             System.out.println("\n⚠️  Aviso: A base de conhecimento está vazia.");
             System.out.println("Verifique se o arquivo data/intents.json contém perguntas configuradas.\n");
         }
 
+        String batchInput = optionValue(args, "--batch");
+        if (batchInput != null) {
+            runBatch(Path.of(batchInput), optionValue(args, "--out"), tenant.knowledgeBase().index(), tenant.matcher());
+            return;
+        }
+
+        if (!hasFlag(args, "--no-watch")) {
+            for (TenantRegistry.Tenant watched : tenants.tenants()) {
+                startWatching(watched.knowledgeBase());
+            }
+        }
+
+        String socketPath = optionValue(args, "--socket");
+        if (socketPath != null) {
+            runSocketServer(socketPath, objectMapper, tenant, transcript);
+        }
+
+        String servePort = optionValue(args, "--serve");
+        if (servePort != null) {
+            runHttpServer(servePort, objectMapper, tenants, transcript);
+            printTrace(trace, "servidor pronto");
+            return;
+        }
+        if (socketPath != null) {
+            printTrace(trace, "servidor pronto");
+            return;
+        }
+
+        printTrace(trace, "até o prompt");
         printWelcome();
 
         // Prefer native console when available (best Unicode behavior on Windows).
         var console = System.console();
         if (console != null) {
-            runWithNativeConsole(console, intents, matcher);
+            runWithNativeConsole(console, tenant, transcript, new SessionStore());
             return;
         }
 
         // Fallback for IDE terminals (System.console() is usually null).
-        runWithByteConsole(intents, matcher);
+        runWithByteConsole(tenant, transcript, new SessionStore());
     }
 
-    private static void runWithNativeConsole(java.io.Console console, List<Intent> intents, IntentMatcher matcher) {
+    private static void runWithNativeConsole(java.io.Console console, TenantRegistry.Tenant tenant,
+                                             TranscriptWriter transcript, SessionStore sessions) {
+        KnowledgeBaseReloader knowledgeBase = tenant.knowledgeBase();
+        IntentMatcher matcher = tenant.matcher();
         boolean running = true;
 
         while (running) {
@@ -111,13 +266,19 @@ public class App {
                     log.debug("Command received: /ajuda");
                     System.out.println(HELP_MESSAGE);
                 }
-                case "/reiniciar" -> {
+                case RESTART_COMMAND -> {
                     log.debug("Command received: /reiniciar");
-                    System.out.println("Conversa reiniciada.\n");
+                    sessions.clear(CONSOLE_SESSION);
+                    System.out.println(RESTART_MESSAGE + "\n");
                     printWelcome();
                 }
+                case "/stats" -> {
+                    log.debug("Command received: /stats");
+                    System.out.println(StatsReport.format(matcher));
+                }
                 default -> {
-                    Optional<Intent> bestIntent = findBestIntentSafe(trimmed, intents, matcher);
+                    Optional<Intent> bestIntent = findBestIntentSafe(trimmed, knowledgeBase.index(), matcher);
+                    sessions.recordTurn(CONSOLE_SESSION, bestIntent);
 
                     if (bestIntent.isPresent()) {
                         log.info("Selected intent: {}", bestIntent.get().getIntent());
@@ -127,12 +288,18 @@ public class App {
 
                     String response = bestIntent.map(Intent::getResponse).orElse(FALLBACK_MESSAGE);
                     System.out.println(response + "\n");
+                    if (transcript != null) {
+                        transcript.record(TranscriptWriter.CONSOLE, tenant.id(), trimmed, bestIntent, response);
+                    }
                 }
             }
         }
     }
 
-    private static void runWithByteConsole(List<Intent> intents, IntentMatcher matcher) {
+    private static void runWithByteConsole(TenantRegistry.Tenant tenant, TranscriptWriter transcript,
+                                           SessionStore sessions) {
+        KnowledgeBaseReloader knowledgeBase = tenant.knowledgeBase();
+        IntentMatcher matcher = tenant.matcher();
         try (ConsoleLineReader reader = new ConsoleLineReader(System.in)) {
             boolean running = true;
 
@@ -163,13 +330,19 @@ public class App {
                         log.debug("Command received: /ajuda");
                         System.out.println(HELP_MESSAGE);
                     }
-                    case "/reiniciar" -> {
+                    case RESTART_COMMAND -> {
                         log.debug("Command received: /reiniciar");
-                        System.out.println("Conversa reiniciada.\n");
+                        sessions.clear(CONSOLE_SESSION);
+                        System.out.println(RESTART_MESSAGE + "\n");
                         printWelcome();
                     }
+                    case "/stats" -> {
+                        log.debug("Command received: /stats");
+                        System.out.println(StatsReport.format(matcher));
+                    }
                     default -> {
-                        Optional<Intent> bestIntent = findBestIntentSafe(trimmed, intents, matcher);
+                        Optional<Intent> bestIntent = findBestIntentSafe(trimmed, knowledgeBase.index(), matcher);
+                        sessions.recordTurn(CONSOLE_SESSION, bestIntent);
 
                         if (bestIntent.isPresent()) {
                             log.info("Selected intent: {}", bestIntent.get().getIntent());
@@ -179,6 +352,9 @@ public class App {
 
                         String response = bestIntent.map(Intent::getResponse).orElse(FALLBACK_MESSAGE);
                         System.out.println(response + "\n");
+                        if (transcript != null) {
+                            transcript.record(TranscriptWriter.CONSOLE, tenant.id(), trimmed, bestIntent, response);
+                        }
                     }
                 }
             }
@@ -187,6 +363,332 @@ public class App {
         }
     }
 
+    private static void runBatch(Path input, String out, IntentIndex index, IntentMatcher matcher) {
+        if (out == null) {
+            System.err.println("Uso: --batch <arquivo-de-perguntas> --out <arquivo-de-saida.jsonl>");
+            System.exit(2);
+            return;
+        }
+
+        BatchRunner runner = new BatchRunner(index, matcher, Runtime.getRuntime().availableProcessors());
+        try {
+            BatchRunner.Summary summary = runner.run(input, Path.of(out));
+            System.out.println("Lote concluído: " + summary.lines() + " perguntas, "
+                    + summary.fallbacks() + " sem resposta (fallback).");
+        } catch (Exception e) {
+            log.error("Batch failed: input={}, out={}", input.toAbsolutePath(), out, e);
+            System.err.println("Falha ao processar o lote: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void runAccuracyReport(Path input, ObjectMapper objectMapper, IntentIndex index,
+                                          FuzzyMatching fuzzy) {
+        try {
+            List<AccuracyReport.LabelledQuery> queries = AccuracyReport.read(input, objectMapper);
+            List<AccuracyReport.EngineResult> results = new ArrayList<>();
+            for (ScoringEngine engine : ScoringEngine.values()) {
+                IntentMatcher matcher = new IntentMatcher(null, null, fuzzy, engine);
+                results.add(AccuracyReport.run(engine.name().toLowerCase(Locale.ROOT), queries, index, matcher));
+            }
+            System.out.print(AccuracyReport.format(queries, results));
+        } catch (Exception e) {
+            log.error("Accuracy report failed: input={}", input.toAbsolutePath(), e);
+            System.err.println("Falha ao gerar o relatório de acurácia: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sizes hardware: matches a seeded synthetic knowledge base, shaped like the configured one
+     * ({@code --kb}, data/intents.json by default), from several threads for a fixed time.
+     */
+    private static void runLoadTest(String[] args, IntentLoader loader) {
+        LoadTest.Config config;
+        try {
+            SyntheticKnowledgeBase.Shape shape = SyntheticKnowledgeBase.Shape.DEFAULT;
+            Path model = resolveKbPath(args);
+            if (Files.isRegularFile(model) && !KnowledgeBaseSnapshotFile.isSnapshot(model)) {
+                shape = SyntheticKnowledgeBase.Shape.of(loader.load(model));
+            }
+            String keywords = optionValue(args, "--keywords");
+            if (keywords != null) {
+                shape = shape.withKeywords(Integer.parseInt(keywords));
+            }
+
+            config = new LoadTest.Config(
+                    intOption(args, "--intents", 1000),
+                    shape,
+                    intOption(args, "--queries", 10_000),
+                    Double.parseDouble(optionValueOrDefault(args, "--hit-ratio", "0.5")),
+                    intOption(args, "--threads", Runtime.getRuntime().availableProcessors()),
+                    intOption(args, "--warmup", 2),
+                    intOption(args, "--duration", 10),
+                    Long.parseLong(optionValueOrDefault(args, "--seed", "42")));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Parâmetro de teste de carga inválido: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        FuzzyMatching fuzzy = createFuzzy(args);
+        ScoringEngine engine = parseEngine(optionValue(args, "--engine"));
+        IntentMatcher matcher = createMatcher(optionValue(args, "--cache"), optionValue(args, "--parallel-threshold"),
+                fuzzy, engine, null);
+
+        List<Intent> intents = SyntheticKnowledgeBase.generate(config.intents(), config.shape(), config.seed());
+        IntentIndex index = IntentIndex.build(intents);
+        List<String> trace = LoadTest.trace(config, intents);
+        matcher.prepare(index);
+
+        String label = engine.name().toLowerCase(Locale.ROOT)
+                + (fuzzy != null ? ", fuzzy" : "")
+                + (matcher instanceof CachingIntentMatcher ? ", cache" : "");
+        System.out.println("Executando teste de carga por " + (config.warmupSeconds() + config.durationSeconds())
+                + " s...");
+        try {
+            LoadTest.Result result = LoadTest.run(config, index, trace, matcher);
+            System.out.print(LoadTest.format(config, result, label));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes an AppCDS archive from a training run of the JAR, then compares the time to the
+     * first prompt with and without it. Other arguments ({@code --kb}, ...) go to every run.
+     */
+    private static void dumpCds(String[] args, int dumpCdsAt) {
+        if (dumpCdsAt + 1 >= args.length) {
+            System.err.println("Uso: --dump-cds <arquivo.jsa>");
+            System.exit(2);
+            return;
+        }
+        Path jar = getJarFile();
+        if (jar == null) {
+            System.err.println("O --dump-cds precisa ser executado a partir do JAR (java -jar ...).");
+            System.exit(2);
+            return;
+        }
+
+        Path archive = Path.of(args[dumpCdsAt + 1].trim());
+        List<String> appArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i == dumpCdsAt) {
+                i++;
+            } else if (!"--startup-trace".equals(args[i])) {
+                appArgs.add(args[i]);
+            }
+        }
+        if (!appArgs.contains("--no-watch")) {
+            appArgs.add("--no-watch");
+        }
+
+        AppCds cds = new AppCds(jar, appArgs);
+        try {
+            System.out.println("Gerando o arquivo CDS com uma execução de treino...");
+            cds.dump(archive);
+            System.out.println("Medindo o tempo até o primeiro prompt (" + CDS_MEASURED_RUNS + " execuções de cada)...");
+            AppCds.Result result = cds.measure(archive, CDS_MEASURED_RUNS);
+            System.out.print(String.format(Locale.forLanguageTag("pt-BR"), """
+                    Arquivo CDS gerado: %s (%d KiB).
+                    - Sem o arquivo: %d ms até o prompt (mediana)
+                    - Com o arquivo: %d ms até o prompt (mediana)
+                    Para usar: %s
+                    """, archive, result.archiveBytes() / 1024, result.baselineNanos() / 1_000_000,
+                    result.archivedNanos() / 1_000_000, cds.launchCommand(archive)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Failed to dump CDS archive: {}", archive.toAbsolutePath(), e);
+            System.err.println("Falha ao gerar o arquivo CDS: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printTrace(StartupTrace trace, String lastPhase) {
+        if (trace.enabled()) {
+            trace.mark(lastPhase);
+            System.err.print(trace.format());
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        return Integer.parseInt(optionValueOrDefault(args, name, Integer.toString(defaultValue)));
+    }
+
+    private static String optionValueOrDefault(String[] args, String name, String defaultValue) {
+        String value = optionValue(args, name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @param value value of {@code --engine} ({@code occurrences} or {@code bm25}), absent = occurrences
+     */
+    private static ScoringEngine parseEngine(String value) {
+        if (value == null) {
+            return ScoringEngine.OCCURRENCES;
+        }
+        try {
+            return ScoringEngine.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Motor de pontuação inválido (use occurrences ou bm25): " + value);
+            System.exit(2);
+            return null;
+        }
+    }
+
+    /**
+     * @param cacheEntries value of {@code --cache}: size of the response cache, absent = no cache
+     * @param parallelThreshold value of {@code --parallel-threshold}: owner entries of the keywords
+     *                          found from which they are summed in parallel, absent = default, 0 = never
+     * @param fuzzy typo tolerance, null = exact tokens only
+     * @param engine scoring engine from {@code --engine}
+     * @param stats instrumentation shared by every query
+     */
+    private static IntentMatcher createMatcher(String cacheEntries, String parallelThreshold, FuzzyMatching fuzzy,
+                                               ScoringEngine engine, MatchStats stats) {
+        ParallelScan parallelScan;
+        try {
+            int threshold = parallelThreshold == null
+                    ? ParallelScan.DEFAULT_THRESHOLD_OWNERS
+                    : Integer.parseInt(parallelThreshold.trim());
+            parallelScan = threshold == 0 ? null : new ParallelScan(ForkJoinPool.commonPool(), threshold);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Limite de paralelismo inválido: " + parallelThreshold);
+            System.exit(2);
+            return null;
+        }
+
+        if (cacheEntries == null) {
+            return new IntentMatcher(stats, parallelScan, fuzzy, engine);
+        }
+
+        CachingIntentMatcher matcher;
+        try {
+            matcher = new CachingIntentMatcher(Integer.parseInt(cacheEntries.trim()), stats, parallelScan, fuzzy, engine);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Tamanho de cache inválido: " + cacheEntries);
+            System.exit(2);
+            return null;
+        }
+
+        log.info("Response cache enabled: maxEntries={}", matcher.maxEntries());
+        return matcher;
+    }
+
+    /**
+     * @return typo tolerance from {@code --fuzzy} (and {@code --fuzzy-distance}), or null when not enabled
+     */
+    private static FuzzyMatching createFuzzy(String[] args) {
+        String distance = optionValue(args, "--fuzzy-distance");
+        if (!hasFlag(args, "--fuzzy") && distance == null) {
+            return null;
+        }
+
+        try {
+            return FuzzyMatching.withMaxDistance(distance == null
+                    ? FuzzyMatching.DEFAULT_MAX_DISTANCE
+                    : Integer.parseInt(distance.trim()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Distância de correção inválida (use 1 ou 2): " + distance);
+            System.exit(2);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the stats export when the JVM exits (end of console, batch or server shutdown).
+     * Only on request ({@code --stats} or {@code --stats-out}): a launcher starting one process
+     * per session must not leave files in whatever directory it runs from.
+     *
+     * @param statsOut value of {@code --stats-out}, null = {@value #STATS_FILE} in the current directory
+     */
+    private static void exportStatsOnExit(IntentMatcher matcher, ObjectMapper objectMapper, String statsOut) {
+        Path target = statsOut != null ? Path.of(statsOut.trim()) : CURRENT_DIR.resolve(STATS_FILE);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                StatsReport.export(matcher, objectMapper, target);
+                log.info("Stats exported: {}", target.toAbsolutePath());
+            } catch (Exception e) {
+                log.warn("Stats export failed: {}", target.toAbsolutePath(), e);
+            }
+        }, "stats-export"));
+    }
+
+    /**
+     * @return the transcript writer for {@code --transcript <dir>}, null when not requested
+     */
+    private static TranscriptWriter startTranscript(String[] args, ObjectMapper objectMapper) {
+        String directory = optionValue(args, "--transcript");
+        if (directory == null) {
+            return null;
+        }
+
+        TranscriptWriter transcript;
+        try {
+            transcript = new TranscriptWriter(Path.of(directory), objectMapper, TranscriptWriter.DEFAULT_CAPACITY,
+                    intOption(args, "--transcript-max-mb", 64) * 1024L * 1024L,
+                    Duration.ofMinutes(intOption(args, "--transcript-rotate-min", 60)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Parâmetro de transcrição inválido: " + e.getMessage());
+            System.exit(2);
+            return null;
+        }
+        try {
+            transcript.start();
+        } catch (Exception e) {
+            // Not fatal: the chatbot answers without a transcript.
+            log.warn("Transcript disabled: {}", e.getMessage());
+            System.err.println("Não foi possível gravar a transcrição em " + directory + ": " + e.getMessage());
+            return null;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(transcript::close, "transcript-flush"));
+        return transcript;
+    }
+
+    private static void startWatching(KnowledgeBaseReloader knowledgeBase) {
+        try {
+            knowledgeBase.startWatching();
+        } catch (Exception e) {
+            // Not fatal: the chatbot keeps answering with the loaded knowledge base.
+            log.warn("Knowledge base hot reload disabled: {}", e.getMessage());
+        }
+    }
+
+    private static void runHttpServer(String portValue, ObjectMapper objectMapper, TenantRegistry tenants,
+                                      TranscriptWriter transcript) {
+        try {
+            MatchHttpServer server = new MatchHttpServer(Integer.parseInt(portValue), objectMapper, tenants,
+                    FALLBACK_MESSAGE, transcript);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "http-server-shutdown"));
+            server.start();
+            System.out.println("Servidor HTTP ouvindo na porta " + server.port() + " (POST " + MatchHttpServer.MATCH_PATH + ").");
+        } catch (NumberFormatException e) {
+            System.err.println("Porta inválida: " + portValue);
+            System.exit(2);
+        } catch (Exception e) {
+            log.error("Failed to start HTTP server on port {}", portValue, e);
+            System.err.println("Não foi possível iniciar o servidor HTTP: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void runSocketServer(String socketPath, ObjectMapper objectMapper, TenantRegistry.Tenant tenant,
+                                        TranscriptWriter transcript) {
+        try {
+            MatchSocketServer server = new MatchSocketServer(Path.of(socketPath), objectMapper, tenant.knowledgeBase(),
+                    tenant.matcher(), FALLBACK_MESSAGE, tenant.id(), transcript);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "socket-server-shutdown"));
+            server.start();
+            System.out.println("Servidor de socket local ouvindo em " + server.path() + ".");
+        } catch (Exception e) {
+            log.error("Failed to start socket server on {}", socketPath, e);
+            System.err.println("Não foi possível iniciar o servidor de socket: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     private static void printWelcome() {
         System.out.println("Bem-vindo(a) ao ChatbotFAQ!");
         System.out.println("A nossa empresa trabalha com Serviços de Automação com chatbot.\n");
@@ -207,52 +709,245 @@ public class App {
         }
     }
 
-    private static Optional<Intent> findBestIntentSafe(String userMessage, List<Intent> intents, IntentMatcher matcher) {
+    static Optional<Intent> findBestIntentSafe(String userMessage, IntentIndex index, IntentMatcher matcher) {
         if (userMessage == null || userMessage.isBlank()) {
             return Optional.empty();
         }
-        if (intents == null || intents.isEmpty()) {
+        if (index == null || index.size() == 0) {
             return Optional.empty();
         }
         try {
-            return matcher.findBestIntent(userMessage, intents);
+            return matcher.findBestIntent(userMessage, index);
         } catch (Exception e) {
             log.warn("Intent matching failed, using fallback: {}", e.getClass().getSimpleName());
             return Optional.empty();
         }
     }
 
+    private static TenantRegistry loadSingleTenant(Path kbPath, String tenantOption, IntentLoader loader,
+                                                   IntentMatcher matcher) {
+        log.info("Knowledge base path: {}", kbPath.toAbsolutePath());
+        // Snapshots are shared read-only by every request in server modes.
+        KnowledgeBaseReloader knowledgeBase = openKnowledgeBase(kbPath, loader, null);
+        log.info("Knowledge base loaded: intents={}", knowledgeBase.index().size());
+        return new TenantRegistry(List.of(new TenantRegistry.Tenant(tenantId(kbPath), knowledgeBase, matcher)),
+                null, tenantOption);
+    }
+
+    /**
+     * Loads every {@code *.json} knowledge base of {@code dir} (or its compiled snapshot, when fresh)
+     * as a tenant named after the file, all built with one shared token pool.
+     *
+     * @param defaultMatcher matcher of the default tenant (the first one when none is chosen)
+     */
+    private static TenantRegistry loadTenants(Path dir, String tenantOption, IntentLoader loader,
+                                              IntentMatcher defaultMatcher, Supplier<IntentMatcher> matchers) {
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(dir)) {
+            files = entries.filter(p -> p.getFileName().toString().endsWith(".json") && Files.isRegularFile(p))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to list knowledge base directory: " + dir.toAbsolutePath(), e);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("no knowledge base (*.json) in: " + dir.toAbsolutePath());
+        }
+
+        String defaultId = tenantOption != null ? tenantOption : tenantId(files.get(0));
+        TokenInterner shared = new TokenInterner();
+        List<TenantRegistry.Tenant> tenants = new ArrayList<>(files.size());
+        for (Path json : files) {
+            String id = tenantId(json);
+            KnowledgeBaseReloader knowledgeBase = openKnowledgeBase(json, loader, shared);
+            log.info("Tenant loaded: id={}, intents={}, path={}", id, knowledgeBase.index().size(),
+                    json.toAbsolutePath());
+
+            IntentMatcher matcher = id.equals(defaultId) ? defaultMatcher : matchers.get();
+            tenants.add(new TenantRegistry.Tenant(id, knowledgeBase, matcher));
+        }
+        return new TenantRegistry(tenants, shared, tenantOption);
+    }
+
+    /**
+     * @return tenant id of a knowledge base file: its name without extension (intents.json -> intents)
+     */
+    private static String tenantId(Path kbPath) {
+        String name = kbPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String tenantIds(TenantRegistry tenants) {
+        List<String> ids = new ArrayList<>();
+        for (TenantRegistry.Tenant tenant : tenants.tenants()) {
+            ids.add(tenant.id());
+        }
+        return String.join(", ", ids);
+    }
+
     private static Path resolveKbPath(String[] args) {
+        String kbOption = optionValue(args, "--kb");
+        if (kbOption != null) {
+            return Path.of(kbOption);
+        }
+
+        Path cwdPath = CURRENT_DIR.resolve("data").resolve("intents.json");
+        if (Files.exists(cwdPath)) {
+            return cwdPath;
+        }
+
+        Path jarDir = getJarDir();
+        return jarDir.resolve("data").resolve("intents.json");
+    }
+
+    /**
+     * @return trimmed value following {@code name} in args, or null when absent/blank
+     */
+    static String optionValue(String[] args, String name) {
         if (args != null) {
             for (int i = 0; i < args.length; i++) {
-                if ("--kb".equals(args[i]) && i + 1 < args.length) {
+                if (name.equals(args[i]) && i + 1 < args.length) {
                     String value = args[i + 1];
                     if (value != null && !value.isBlank()) {
-                        return Path.of(value.trim());
+                        return value.trim();
                     }
                 }
             }
         }
+        return null;
+    }
 
-        Path cwdPath = CURRENT_DIR.resolve("data").resolve("intents.json");
-        if (Files.exists(cwdPath)) {
-            return cwdPath;
+    static boolean hasFlag(String[] args, String name) {
+        return indexOf(args, name) >= 0;
+    }
+
+    private static void compileKnowledgeBase(String[] args, int compileAt, IntentLoader loader) {
+        if (compileAt + 2 >= args.length) {
+            System.err.println("Uso: --compile-kb <intents.json> <saida" + KnowledgeBaseSnapshotFile.EXTENSION + ">");
+            System.exit(2);
+            return;
         }
 
-        Path jarDir = getJarDir();
-        return jarDir.resolve("data").resolve("intents.json");
+        Path input = Path.of(args[compileAt + 1].trim());
+        Path output = Path.of(args[compileAt + 2].trim());
+        try {
+            long start = System.nanoTime();
+            IntentIndex index = KnowledgeBaseReloader.loadIndex(input, loader);
+            KnowledgeBaseSnapshotFile.write(index, output);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Snapshot gerado: " + output + " (" + index.size() + " intents, "
+                    + Files.size(output) + " bytes, " + millis + " ms).");
+        } catch (Exception e) {
+            log.error("Failed to compile knowledge base: {} -> {}", input.toAbsolutePath(), output.toAbsolutePath(), e);
+            System.err.println("Falha ao gerar o snapshot: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes a copy of a JSON knowledge base without redundant keyword variants, plus a report
+     * next to it. {@code --queries <labelled.jsonl>} adds queries to the regression check.
+     */
+    private static void optimizeKnowledgeBase(String[] args, int optimizeAt, IntentLoader loader,
+                                              ObjectMapper objectMapper) {
+        if (optimizeAt + 2 >= args.length) {
+            System.err.println("Uso: --optimize-kb <intents.json> <saida.json> [--queries <perguntas.jsonl>]");
+            System.exit(2);
+            return;
+        }
+
+        Path input = Path.of(args[optimizeAt + 1].trim());
+        Path output = Path.of(args[optimizeAt + 2].trim());
+        String queries = optionValue(args, "--queries");
+        try {
+            List<String> extraQueries = new ArrayList<>();
+            if (queries != null) {
+                for (AccuracyReport.LabelledQuery query : AccuracyReport.read(Path.of(queries), objectMapper)) {
+                    extraQueries.add(query.message());
+                }
+            }
+            KnowledgeBaseOptimizer.Result result = KnowledgeBaseOptimizer.optimize(loader.load(input), extraQueries);
+            String report = KnowledgeBaseOptimizer.format(result);
+
+            KnowledgeBaseOptimizer.writeJson(result.intents(), output, objectMapper);
+            Path reportPath = KnowledgeBaseOptimizer.reportPathFor(output);
+            Files.writeString(reportPath, report);
+            System.out.print(report);
+            System.out.println("\nBase otimizada: " + output + " (relatório: " + reportPath + ").");
+        } catch (Exception e) {
+            log.error("Failed to optimize knowledge base: {} -> {}", input.toAbsolutePath(), output.toAbsolutePath(), e);
+            System.err.println("Falha ao otimizar a base: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads {@code source} for the first time, from its fresh compiled snapshot when there is one,
+     * while reloads keep watching and parsing {@code source} itself: edits to the JSON are picked up
+     * even when the process started from the snapshot.
+     *
+     * @param shared token pool of the tenants (null = none)
+     */
+    static KnowledgeBaseReloader openKnowledgeBase(Path source, IntentLoader loader, TokenInterner shared) {
+        Path initial = preferSnapshot(source);
+        if (!initial.equals(source)) {
+            log.info("Initial load from compiled snapshot: {}", initial.toAbsolutePath());
+        }
+        IntentIndex index = KnowledgeBaseReloader.loadIndex(initial, loader, shared);
+        return new KnowledgeBaseReloader(source, loader, index, shared);
+    }
+
+    /**
+     * Uses the compiled snapshot next to a JSON knowledge base (intents.json -> intents.kbsnap)
+     * when present and at least as recent as the JSON.
+     */
+    private static Path preferSnapshot(Path kbPath) {
+        if (KnowledgeBaseSnapshotFile.isSnapshot(kbPath) || !Files.isRegularFile(kbPath)) {
+            return kbPath;
+        }
+
+        Path snapshot = KnowledgeBaseSnapshotFile.siblingOf(kbPath);
+        try {
+            if (!Files.isRegularFile(snapshot)) {
+                return kbPath;
+            }
+            if (Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(kbPath)) < 0) {
+                log.warn("Ignoring stale knowledge base snapshot (older than JSON): {}", snapshot.toAbsolutePath());
+                return kbPath;
+            }
+            return snapshot;
+        } catch (Exception e) {
+            return kbPath;
+        }
+    }
+
+    private static int indexOf(String[] args, String name) {
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if (name.equals(args[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
     }
 
     private static Path getJarDir() {
+        Path jar = getJarFile();
+        return jar != null ? jar.getParent() : CURRENT_DIR;
+    }
+
+    /**
+     * @return the JAR this class was loaded from, or null when running from classes (IDE, tests)
+     */
+    private static Path getJarFile() {
         try {
             var uri = App.class.getProtectionDomain().getCodeSource().getLocation().toURI();
             Path location = Path.of(uri);
-            if (Files.isRegularFile(location)) {
-                return location.getParent();
-            }
-            return CURRENT_DIR;
+            return Files.isRegularFile(location) ? location : null;
         } catch (Exception e) {
-            return CURRENT_DIR;
+            return null;
         }
     }
 }
@@ -0,0 +1,147 @@
+package dev.rafaellopes.chatbotfaq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds an AppCDS archive of the CLI ({@code --dump-cds}) and measures what it saves.
+ * <p>
+ * A training run of the packaged JAR answers a few questions with
+ * {@code -XX:ArchiveClassesAtExit}, so the JVM writes every class it loaded, already parsed
+ * and verified, to the archive on exit. Launching with {@code -XX:SharedArchiveFile} maps those
+ * classes instead of loading them from the JAR. The archive is only valid for the same JDK and
+ * the same JAR; a mismatched archive is ignored by the JVM, never fatal.
+ */
+final class AppCds {
+
+    static final String PROMPT = "> ";
+
+    /**
+     * Training conversation: questions, commands and the exit, so their classes get archived.
+     */
+    static final String TRAINING_INPUT = """
+            o que é chatbot?
+            como funciona uma conversa com chatbot?
+            quanto custa um pão de queijo?
+            /ajuda
+            /stats
+            /sair
+            """;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * @param archiveBytes size of the archive file
+     * @param baselineNanos median time to the first prompt without the archive
+     * @param archivedNanos median time to the first prompt with the archive
+     */
+    record Result(long archiveBytes, long baselineNanos, long archivedNanos) {
+    }
+
+    private final Path jar;
+    private final List<String> appArgs;
+
+    /**
+     * @param jar packaged JAR (AppCDS only archives classes loaded from JAR files)
+     * @param appArgs CLI arguments for the training and measured runs, e.g. {@code --kb}
+     */
+    AppCds(Path jar, List<String> appArgs) {
+        this.jar = jar;
+        this.appArgs = List.copyOf(appArgs);
+    }
+
+    /**
+     * Runs the training conversation and writes the archive.
+     */
+    void dump(Path archive) throws IOException, InterruptedException {
+        Files.deleteIfExists(archive);
+        Process process = start(List.of("-XX:ArchiveClassesAtExit=" + archive.toAbsolutePath()));
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(TRAINING_INPUT.getBytes(StandardCharsets.UTF_8));
+        }
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        int exit = waitFor(process);
+        if (exit != 0 || !Files.isRegularFile(archive)) {
+            throw new IOException("training run failed (exit code " + exit + "), no archive written");
+        }
+    }
+
+    /**
+     * Measures time to the first prompt with and without the archive, alternating the runs.
+     */
+    Result measure(Path archive, int runs) throws IOException, InterruptedException {
+        List<String> withArchive = List.of("-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+        long[] baseline = new long[runs];
+        long[] archived = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            baseline[i] = timeToFirstPrompt(List.of());
+            archived[i] = timeToFirstPrompt(withArchive);
+        }
+        return new Result(Files.size(archive), median(baseline), median(archived));
+    }
+
+    /**
+     * @return command line a launcher uses to start the CLI with the archive
+     */
+    String launchCommand(Path archive) {
+        return "java -XX:SharedArchiveFile=" + archive + " -jar " + jar;
+    }
+
+    private long timeToFirstPrompt(List<String> jvmOptions) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = start(jvmOptions);
+        InputStream out = process.getInputStream();
+        byte[] prompt = PROMPT.getBytes(StandardCharsets.UTF_8);
+        int matched = 0;
+        int b;
+        while (matched < prompt.length && (b = out.read()) >= 0) {
+            matched = b == prompt[matched] ? matched + 1 : (b == prompt[0] ? 1 : 0);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (matched < prompt.length) {
+            waitFor(process);
+            throw new IOException("the CLI exited before showing the prompt");
+        }
+
+        try (OutputStream in = process.getOutputStream()) {
+            in.write("/sair\n".getBytes(StandardCharsets.UTF_8));
+        }
+        out.transferTo(OutputStream.nullOutputStream());
+        waitFor(process);
+        return elapsed;
+    }
+
+    private Process start(List<String> jvmOptions) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(appArgs);
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    private static int waitFor(Process process) throws IOException, InterruptedException {
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("the CLI did not exit within " + TIMEOUT_SECONDS + " s");
+        }
+        return process.exitValue();
+    }
+
+    static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,164 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.ScoredIntent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a file of questions (one per line) against the knowledge base.
+ * Lines are read in chunks that are matched in parallel; results are written as
+ * JSONL in input order. At most {@code 2 x threads} chunks are in flight, so
+ * memory stays flat regardless of the input size.
+ * <p>
+ * Output line: {@code {"input":"...","intent":"name"|null,"score":n,"fallback":true|false}}
+ */
+final class BatchRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+
+    static final int CHUNK_LINES = 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final IntentIndex index;
+    private final IntentMatcher matcher;
+    private final int threads;
+
+    /**
+     * @param lines number of input lines processed
+     * @param fallbacks lines answered with the fallback message
+     */
+    record Summary(long lines, long fallbacks) {
+    }
+
+    private record ChunkResult(String jsonl, int lines, int fallbacks) {
+    }
+
+    BatchRunner(IntentIndex index, IntentMatcher matcher, int threads) {
+        this.index = index;
+        this.matcher = matcher;
+        this.threads = Math.max(1, threads);
+    }
+
+    Summary run(Path input, Path output) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+        int maxInFlight = threads * 2;
+        long lines = 0;
+        long fallbacks = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    List<String> submitted = chunk;
+                    inFlight.add(pool.submit(() -> matchChunk(submitted)));
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                }
+
+                if (inFlight.size() >= maxInFlight) {
+                    ChunkResult result = awaitOldest(inFlight);
+                    writer.write(result.jsonl());
+                    lines += result.lines();
+                    fallbacks += result.fallbacks();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                List<String> submitted = chunk;
+                inFlight.add(pool.submit(() -> matchChunk(submitted)));
+            }
+
+            while (!inFlight.isEmpty()) {
+                ChunkResult result = awaitOldest(inFlight);
+                writer.write(result.jsonl());
+                lines += result.lines();
+                fallbacks += result.fallbacks();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        log.info("Batch finished: lines={}, fallbacks={}", lines, fallbacks);
+        return new Summary(lines, fallbacks);
+    }
+
+    private static ChunkResult awaitOldest(ArrayDeque<Future<ChunkResult>> inFlight) throws IOException {
+        try {
+            return inFlight.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("batch interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("batch chunk failed", e.getCause());
+        }
+    }
+
+    private ChunkResult matchChunk(List<String> lines) {
+        StringWriter out = new StringWriter(lines.size() * 96);
+        int fallbacks = 0;
+
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.setRootValueSeparator(null);
+
+            for (String line : lines) {
+                Optional<ScoredIntent> match = matchSafe(line);
+                if (match.isEmpty()) {
+                    fallbacks++;
+                }
+
+                json.writeStartObject();
+                json.writeStringField("input", line);
+                json.writeStringField("intent", match.map(m -> m.intent().getIntent()).orElse(null));
+                json.writeNumberField("score", match.map(ScoredIntent::score).orElse(0));
+                json.writeBooleanField("fallback", match.isEmpty());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new ChunkResult(out.toString(), lines.size(), fallbacks);
+    }
+
+    private Optional<ScoredIntent> matchSafe(String line) {
+        if (line == null || line.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return matcher.findBestMatch(line.trim(), index);
+        } catch (Exception e) {
+            log.warn("Intent matching failed, using fallback: {}", e.getClass().getSimpleName());
+            return Optional.empty();
+        }
+    }
+}
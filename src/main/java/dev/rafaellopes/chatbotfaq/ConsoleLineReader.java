@@ -1,54 +1,121 @@
 package dev.rafaellopes.chatbotfaq;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.*;
+import java.util.Arrays;
 
 /**
  * Reads lines from console with charset auto-detection.
  *
+ * Bytes are read in bulk into a reusable buffer and lines are cut at '\n' (CRs dropped)
+ * inside it, so a piped file costs one {@code read} per buffer, not per byte.
+ *
  * Strategy:
- * - Try strict UTF-8 decode (REPORT errors). If OK, candidate UTF-8.
- * - Decode with system default charset. Candidate default.
- * - Pick the best candidate using a small heuristic (avoids mojibake like "Ã©").
+ * - ASCII-only lines read the same in every console charset: decoded directly.
+ * - The first line with other bytes picks the charset: strict UTF-8 decode (REPORT errors)
+ *   against the system default charset, keeping the candidate with fewer mojibake
+ *   markers (avoids mojibake like "Ã©").
+ * - Later lines reuse that choice while they agree with it; a line that does not
+ *   (invalid UTF-8 under a UTF-8 choice, valid UTF-8 under a default-charset choice)
+ *   goes through the comparison again and updates the choice.
  */
 final class ConsoleLineReader implements AutoCloseable {
 
+    private static final int BUFFER_BYTES = 8192;
+
     private final InputStream in;
+    private final Charset defaultCharset = Charset.defaultCharset();
+    private final CharsetDecoder strictUtf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private int position;
+    private int limit;
+
+    private byte[] line = new byte[128];
+    private CharBuffer chars = CharBuffer.allocate(128);
+
+    // Charset chosen for non-ASCII lines; null until the first one.
+    private Charset chosen;
 
     ConsoleLineReader(InputStream in) {
         this.in = in;
     }
 
     String readLine() throws IOException {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        int length = readLineBytes();
+        if (length < 0) {
+            return null;
+        }
+        return decode(line, length);
+    }
 
-        int b;
-        while ((b = in.read()) != -1) {
-            if (b == '\n') {
-                break;
+    /**
+     * Copies the next line, without '\n' and CRs, into {@link #line}.
+     *
+     * @return line length, or -1 at end of stream with nothing read
+     */
+    private int readLineBytes() throws IOException {
+        int length = 0;
+        boolean readAnything = false;
+
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return readAnything ? length : -1;
+                }
             }
-            buffer.write(b);
-        }
+            readAnything = true;
 
-        if (b == -1 && buffer.size() == 0) {
-            return null;
+            int start = position;
+            int end = start;
+            while (end < limit && buffer[end] != '\n') {
+                end++;
+            }
+
+            if (length + (end - start) > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + (end - start)));
+            }
+            for (int i = start; i < end; i++) {
+                // Remove CR from CRLF
+                if (buffer[i] != '\r') {
+                    line[length++] = buffer[i];
+                }
+            }
+
+            if (end < limit) {
+                position = end + 1;
+                return length;
+            }
+            position = limit;
         }
+    }
 
-        byte[] bytes = buffer.toByteArray();
+    private String decode(byte[] bytes, int length) {
+        if (isAscii(bytes, length)) {
+            return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        }
 
-        String utf8 = tryDecodeStrict(bytes, StandardCharsets.UTF_8);
-        String def = new String(bytes, Charset.defaultCharset());
+        String utf8 = tryDecodeStrictUtf8(bytes, length);
+        if (chosen == StandardCharsets.UTF_8 && utf8 != null) {
+            return utf8;
+        }
+        if (chosen == defaultCharset && utf8 == null) {
+            return new String(bytes, 0, length, defaultCharset);
+        }
 
-        // Remove CR from CRLF
-        if (utf8 != null) utf8 = utf8.replace("\r", "");
-        def = def.replace("\r", "");
+        String def = new String(bytes, 0, length, defaultCharset);
 
         // If UTF-8 failed strictly, use default.
         if (utf8 == null) {
+            chosen = defaultCharset;
             return def;
         }
 
@@ -56,20 +123,33 @@ final class ConsoleLineReader implements AutoCloseable {
         int utf8Score = mojibakeScore(utf8);
         int defScore = mojibakeScore(def);
 
+        chosen = (utf8Score <= defScore) ? StandardCharsets.UTF_8 : defaultCharset;
         return (utf8Score <= defScore) ? utf8 : def;
     }
 
-    private static String tryDecodeStrict(byte[] bytes, Charset charset) {
-        CharsetDecoder decoder = charset.newDecoder()
-                .onMalformedInput(CodingErrorAction.REPORT)
-                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private static boolean isAscii(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String tryDecodeStrictUtf8(byte[] bytes, int length) {
+        // UTF-8 never decodes to more chars than bytes.
+        if (chars.capacity() < length) {
+            chars = CharBuffer.allocate(Math.max(chars.capacity() * 2, length));
+        }
+        chars.clear();
+        strictUtf8.reset();
 
-        try {
-            CharBuffer cb = decoder.decode(ByteBuffer.wrap(bytes));
-            return cb.toString();
-        } catch (CharacterCodingException e) {
+        CoderResult result = strictUtf8.decode(ByteBuffer.wrap(bytes, 0, length), chars, true);
+        if (result.isError() || strictUtf8.flush(chars).isError()) {
             return null;
         }
+        chars.flip();
+        return chars.toString();
     }
 
     private static int mojibakeScore(String s) {
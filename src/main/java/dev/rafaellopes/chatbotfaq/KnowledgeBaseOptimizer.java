@@ -0,0 +1,324 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentCandidate;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.ScoringEngine;
+import dev.rafaellopes.chatbotfaq.core.TextNormalizer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Removes keyword variants that match exactly the same text ({@code --optimize-kb}).
+ * <p>
+ * Every keyword is rewritten as the tokens the matcher sees ("O que é automação?" becomes
+ * "o que e automacao"), and repeats within an intent are dropped. A repeated keyword counts
+ * once more in the occurrences score, so dropping it can change a ranking: the result is
+ * checked against a regression query set (every original keyword plus optional labelled
+ * queries) with both scoring engines, and intents involved in any different answer keep
+ * their repeats until every answer is identical.
+ * <p>
+ * Phrases shared by several intents and phrases contained in longer ones (a message matching
+ * the longer phrase also scores the shorter one) change rankings by design; they are only reported.
+ */
+final class KnowledgeBaseOptimizer {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+    private static final Pattern NON_TOKEN = Pattern.compile("[^a-z0-9]+");
+    private static final int MAX_LISTED = 50;
+
+    private KnowledgeBaseOptimizer() {
+    }
+
+    /**
+     * @param intent intent the keyword belonged to
+     * @param keyword keyword as written in the source
+     * @param keptAs normalized keyword it duplicates, null when it has no tokens at all
+     */
+    record Removal(String intent, String keyword, String keptAs) {
+    }
+
+    /**
+     * @param phrase normalized keyword
+     * @param intents intents listing it
+     */
+    record Collision(String phrase, List<String> intents) {
+    }
+
+    /**
+     * @param shorter phrase contained in {@code longer}
+     * @param shorterIntent intent owning {@code shorter}
+     * @param longer phrase containing it
+     * @param longerIntent intent owning {@code longer}
+     */
+    record Subsumption(String shorter, String shorterIntent, String longer, String longerIntent) {
+    }
+
+    /**
+     * @param intents optimized knowledge base
+     * @param keywordsBefore keywords in the source
+     * @param removals keywords dropped
+     * @param restoredIntents intents that kept their repeats to preserve answers
+     * @param collisions phrases listed by more than one intent
+     * @param subsumptions phrases contained in a longer phrase
+     * @param regressionQueries queries answered identically by the source and the result, per engine
+     */
+    record Result(List<Intent> intents, int keywordsBefore, List<Removal> removals, List<String> restoredIntents,
+                  List<Collision> collisions, List<Subsumption> subsumptions, int regressionQueries) {
+
+        int keywordsAfter() {
+            int count = 0;
+            for (Intent intent : intents) {
+                count += intent.getKeywords() == null ? 0 : intent.getKeywords().size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @param extraQueries regression queries on top of the source keywords (e.g. labelled queries)
+     */
+    static Result optimize(List<Intent> source, List<String> extraQueries) {
+        List<Removal> removals = new ArrayList<>();
+        List<List<String>> normalized = new ArrayList<>(source.size());
+        List<List<String>> deduplicated = new ArrayList<>(source.size());
+        List<String> regression = new ArrayList<>();
+        int keywordsBefore = 0;
+
+        for (Intent intent : source) {
+            List<String> all = new ArrayList<>();
+            Set<String> distinct = new LinkedHashSet<>();
+            if (intent.getKeywords() != null) {
+                for (String keyword : intent.getKeywords()) {
+                    keywordsBefore++;
+                    if (keyword == null) {
+                        removals.add(new Removal(intent.getIntent(), null, null));
+                        continue;
+                    }
+                    regression.add(keyword);
+                    String phrase = normalize(keyword);
+                    if (phrase.isEmpty()) {
+                        removals.add(new Removal(intent.getIntent(), keyword, null));
+                        continue;
+                    }
+                    all.add(phrase);
+                    if (!distinct.add(phrase)) {
+                        removals.add(new Removal(intent.getIntent(), keyword, phrase));
+                    }
+                }
+            }
+            normalized.add(all);
+            deduplicated.add(List.copyOf(distinct));
+        }
+        regression.addAll(extraQueries);
+
+        // Put repeats back, intent by intent, until no answer differs from the source.
+        Set<Integer> restored = new HashSet<>();
+        List<Intent> optimized;
+        while (true) {
+            optimized = new ArrayList<>(source.size());
+            for (int i = 0; i < source.size(); i++) {
+                Intent intent = source.get(i);
+                List<String> keywords = restored.contains(i) ? normalized.get(i) : deduplicated.get(i);
+                optimized.add(new Intent(intent.getIntent(), keywords, intent.getResponse(), intent.getPriority()));
+            }
+
+            Set<String> differing = differingIntents(source, optimized, regression);
+            if (differing.isEmpty()) {
+                break;
+            }
+            boolean changed = false;
+            for (int i = 0; i < source.size(); i++) {
+                if (differing.contains(source.get(i).getIntent())) {
+                    changed |= restored.add(i);
+                }
+            }
+            if (!changed) {
+                // Not caused by a dropped repeat: keep every keyword.
+                for (int i = 0; i < source.size(); i++) {
+                    restored.add(i);
+                }
+            }
+        }
+
+        List<String> restoredIntents = new ArrayList<>();
+        List<Removal> kept = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            if (restored.contains(i) && normalized.get(i).size() != deduplicated.get(i).size()) {
+                restoredIntents.add(source.get(i).getIntent());
+            }
+        }
+        for (Removal removal : removals) {
+            // Repeats put back are not removals; keywords without tokens always go.
+            if (removal.keptAs() == null || !restoredIntents.contains(removal.intent())) {
+                kept.add(removal);
+            }
+        }
+
+        return new Result(List.copyOf(optimized), keywordsBefore, List.copyOf(kept), List.copyOf(restoredIntents),
+                collisions(optimized), subsumptions(optimized), regression.size());
+    }
+
+    static void writeJson(List<Intent> intents, Path target, ObjectMapper objectMapper) throws IOException {
+        List<Map<String, Object>> entries = new ArrayList<>(intents.size());
+        for (Intent intent : intents) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("intent", intent.getIntent());
+            entry.put("keywords", intent.getKeywords());
+            entry.put("response", intent.getResponse());
+            entry.put("priority", intent.getPriority());
+            entries.add(entry);
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), entries);
+    }
+
+    /**
+     * @return where the report of {@code --optimize-kb} goes: next to the output, {@code .report.txt}
+     */
+    static Path reportPathFor(Path output) {
+        String name = output.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return output.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".report.txt");
+    }
+
+    static String format(Result result) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(PT_BR, "Otimização da base: %d intents, %d -> %d keywords%n",
+                result.intents().size(), result.keywordsBefore(), result.keywordsAfter()));
+        out.append(String.format(PT_BR, "- Respostas idênticas em %d perguntas de regressão (occurrences e bm25)%n",
+                result.regressionQueries()));
+
+        out.append(String.format(PT_BR, "%nKeywords removidas: %d%n", result.removals().size()));
+        for (Removal removal : limit(result.removals())) {
+            if (removal.keptAs() == null) {
+                out.append(String.format(PT_BR, "  - [%s] \"%s\" (sem palavras)%n", removal.intent(),
+                        Objects.toString(removal.keyword(), "null")));
+            } else {
+                out.append(String.format(PT_BR, "  - [%s] \"%s\" = \"%s\"%n", removal.intent(), removal.keyword(),
+                        removal.keptAs()));
+            }
+        }
+        more(out, result.removals().size());
+
+        if (!result.restoredIntents().isEmpty()) {
+            out.append(String.format(PT_BR,
+                    "%nIntents que mantêm repetições (removê-las mudaria respostas): %s%n",
+                    String.join(", ", result.restoredIntents())));
+        }
+
+        out.append(String.format(PT_BR, "%nMesma keyword em várias intents: %d%n", result.collisions().size()));
+        for (Collision collision : limit(result.collisions())) {
+            out.append(String.format(PT_BR, "  - \"%s\": %s%n", collision.phrase(),
+                    String.join(", ", collision.intents())));
+        }
+        more(out, result.collisions().size());
+
+        out.append(String.format(PT_BR, "%nKeywords contidas em outras mais longas: %d%n",
+                result.subsumptions().size()));
+        for (Subsumption subsumption : limit(result.subsumptions())) {
+            out.append(String.format(PT_BR, "  - \"%s\" [%s] está em \"%s\" [%s]%n", subsumption.shorter(),
+                    subsumption.shorterIntent(), subsumption.longer(), subsumption.longerIntent()));
+        }
+        more(out, result.subsumptions().size());
+        return out.toString();
+    }
+
+    static String normalize(String keyword) {
+        String normalized = TextNormalizer.normalize(keyword);
+        return String.join(" ", NON_TOKEN.split(normalized)).trim();
+    }
+
+    /**
+     * @return names of the intents answered differently by {@code source} and {@code optimized}:
+     *         what the source answered and what the result answered instead
+     */
+    private static Set<String> differingIntents(List<Intent> source, List<Intent> optimized, List<String> queries) {
+        Set<String> differing = new HashSet<>();
+        IntentIndex before = IntentIndex.build(source);
+        IntentIndex after = IntentIndex.build(optimized);
+        for (IntentMatcher matcher : List.of(new IntentMatcher(),
+                new IntentMatcher(null, null, null, ScoringEngine.BM25))) {
+            for (String query : queries) {
+                String expected = App.findBestIntentSafe(query, before, matcher).map(Intent::getIntent).orElse(null);
+                String actual = App.findBestIntentSafe(query, after, matcher).map(Intent::getIntent).orElse(null);
+                if (!Objects.equals(expected, actual)) {
+                    if (expected != null) {
+                        differing.add(expected);
+                    }
+                    if (actual != null) {
+                        differing.add(actual);
+                    }
+                }
+            }
+        }
+        return differing;
+    }
+
+    private static List<Collision> collisions(List<Intent> intents) {
+        Map<String, List<String>> owners = new LinkedHashMap<>();
+        for (Intent intent : intents) {
+            for (String phrase : new LinkedHashSet<>(intent.getKeywords())) {
+                owners.computeIfAbsent(phrase, k -> new ArrayList<>()).add(intent.getIntent());
+            }
+        }
+
+        List<Collision> collisions = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : owners.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                collisions.add(new Collision(entry.getKey(), List.copyOf(entry.getValue())));
+            }
+        }
+        return collisions;
+    }
+
+    /**
+     * Matches every phrase as if it were a message: the keywords it hits, other than itself,
+     * are the phrases it contains.
+     */
+    private static List<Subsumption> subsumptions(List<Intent> intents) {
+        IntentIndex index = IntentIndex.build(intents);
+        IntentMatcher matcher = new IntentMatcher();
+        List<Subsumption> subsumptions = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (Intent owner : intents) {
+            for (String longer : owner.getKeywords()) {
+                if (!seen.add(owner.getIntent() + '\u0000' + longer)) {
+                    continue;
+                }
+                for (IntentCandidate candidate : matcher.findTopIntents(longer, index, Math.max(1, index.size()))) {
+                    for (String shorter : candidate.matchedKeywords()) {
+                        if (!shorter.equals(longer)) {
+                            subsumptions.add(new Subsumption(shorter, candidate.intent().getIntent(), longer,
+                                    owner.getIntent()));
+                        }
+                    }
+                }
+            }
+        }
+        return subsumptions;
+    }
+
+    private static <T> List<T> limit(List<T> items) {
+        return items.subList(0, Math.min(MAX_LISTED, items.size()));
+    }
+
+    private static void more(StringBuilder out, int total) {
+        if (total > MAX_LISTED) {
+            out.append(String.format(PT_BR, "  ... e mais %d%n", total - MAX_LISTED));
+        }
+    }
+}
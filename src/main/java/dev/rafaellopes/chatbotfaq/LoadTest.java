@@ -0,0 +1,170 @@
+package dev.rafaellopes.chatbotfaq;
+
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.LatencyHistogram;
+import dev.rafaellopes.chatbotfaq.core.SyntheticKnowledgeBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test of {@link IntentMatcher} for hardware sizing: a seeded synthetic
+ * knowledge base and query trace, a fixed number of threads calling the matcher back to
+ * back for a fixed time, and the latency of every call.
+ * <p>
+ * Each thread replays the trace from its own offset and records into its own histogram
+ * (merged at the end), so threads never contend on anything but the matcher. Calls made
+ * during the warmup are not recorded.
+ */
+final class LoadTest {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    /**
+     * @param intents intents in the synthetic knowledge base
+     * @param shape keyword count and phrase length distributions
+     * @param queries length of the query trace
+     * @param hitRatio share of trace queries built from a keyword, 0..1
+     * @param threads threads calling the matcher
+     * @param warmupSeconds unrecorded time before the measurement
+     * @param durationSeconds measured time
+     * @param seed seed of the knowledge base and the trace: same seed, same workload
+     */
+    record Config(int intents, SyntheticKnowledgeBase.Shape shape, int queries, double hitRatio, int threads,
+                  int warmupSeconds, int durationSeconds, long seed) {
+
+        Config {
+            if (intents < 1 || queries < 1 || threads < 1 || warmupSeconds < 0 || durationSeconds < 1) {
+                throw new IllegalArgumentException("load test sizes must be positive");
+            }
+            if (hitRatio < 0 || hitRatio > 1) {
+                throw new IllegalArgumentException("hitRatio must be between 0 and 1");
+            }
+        }
+    }
+
+    /**
+     * @param operations matcher calls during the measurement
+     * @param fallbacks calls that matched no intent
+     * @param elapsedNanos wall-clock time from the start of the measurement to the end of the last counted call
+     * @param latency per-call latency of the measurement
+     */
+    record Result(long operations, long fallbacks, long elapsedNanos, LatencyHistogram latency) {
+
+        double throughput() {
+            return elapsedNanos == 0 ? 0.0 : operations * 1e9 / elapsedNanos;
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    static List<String> trace(Config config, List<Intent> intents) {
+        // Separate stream from the knowledge base: changing --queries keeps the same intents.
+        return SyntheticKnowledgeBase.queries(intents, config.queries(), config.hitRatio(), config.seed() + 1);
+    }
+
+    static Result run(Config config, IntentIndex index, List<String> trace, IntentMatcher matcher)
+            throws InterruptedException {
+        int threads = config.threads();
+        long warmupNanos = TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        String[] queries = trace.toArray(new String[0]);
+
+        LatencyHistogram[] histograms = new LatencyHistogram[threads];
+        long[] fallbacks = new long[threads];
+        long[] finished = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        long[] window = new long[2];
+
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            histograms[t] = new LatencyHistogram();
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int next = (int) ((long) worker * queries.length / threads);
+                long measureFrom = window[0];
+                long measureTo = window[1];
+
+                long now;
+                while ((now = System.nanoTime()) < measureFrom) {
+                    matcher.findBestIntent(queries[next], index);
+                    next = next + 1 == queries.length ? 0 : next + 1;
+                }
+
+                LatencyHistogram histogram = histograms[worker];
+                long misses = 0;
+                while (now < measureTo) {
+                    boolean matched = matcher.findBestIntent(queries[next], index).isPresent();
+                    long end = System.nanoTime();
+                    histogram.record(end - now);
+                    if (!matched) {
+                        misses++;
+                    }
+                    next = next + 1 == queries.length ? 0 : next + 1;
+                    now = end;
+                }
+                fallbacks[worker] = misses;
+                // The last call started before measureTo but is counted, so it ends the window.
+                finished[worker] = now;
+            }, "loadtest-" + t));
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        // Published to the workers by the latch.
+        window[0] = System.nanoTime() + warmupNanos;
+        window[1] = window[0] + durationNanos;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long totalFallbacks = 0;
+        long lastEnd = window[1];
+        for (int t = 0; t < threads; t++) {
+            latency.add(histograms[t]);
+            totalFallbacks += fallbacks[t];
+            lastEnd = Math.max(lastEnd, finished[t]);
+        }
+        return new Result(latency.count(), totalFallbacks, lastEnd - window[0], latency);
+    }
+
+    static String format(Config config, Result result, String matcherLabel) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(PT_BR, "Teste de carga (semente %d, %s):%n", config.seed(), matcherLabel));
+        out.append(String.format(PT_BR,
+                "- Base sintética: %d intents, %.1f keywords por intent, %.1f palavras por keyword%n",
+                config.intents(), config.shape().averageKeywords(), config.shape().averagePhraseLength()));
+        out.append(String.format(PT_BR, "- Perguntas: %d distintas, %.0f%% com keyword%n",
+                config.queries(), config.hitRatio() * 100));
+        out.append(String.format(PT_BR, "- Threads: %d, aquecimento %d s, medição %d s%n",
+                config.threads(), config.warmupSeconds(), config.durationSeconds()));
+        out.append(String.format(PT_BR, "- Vazão: %.0f perguntas/s (%d no total, %.1f%% sem resposta)%n",
+                result.throughput(), result.operations(),
+                result.operations() == 0 ? 0.0 : result.fallbacks() * 100.0 / result.operations()));
+
+        LatencyHistogram latency = result.latency();
+        out.append(String.format(PT_BR, "- Latência em µs: p50 %.1f, p99 %.1f, p99,9 %.1f, máx %.1f%n",
+                micros(latency.percentileNanos(50)), micros(latency.percentileNanos(99)),
+                micros(latency.percentileNanos(99.9)), micros(latency.maxNanos())));
+        return out.toString();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.rafaellopes.chatbotfaq;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ConfiguratorRank;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import org.slf4j.Logger;
+
+/**
+ * Production logging setup (everything OFF, as in logback.xml) applied in code.
+ * <p>
+ * Logback runs configurators registered as services before its XML one; parsing logback.xml
+ * loads the SAX parser and Joran, ~500 classes, only to switch logging off. That cost is paid
+ * on every start of the CLI. When {@code -Dlogback.configurationFile} is set (e.g. logback-dev.xml),
+ * this configurator steps aside and the XML configuration runs as usual.
+ */
+@ConfiguratorRank(ConfiguratorRank.CUSTOM_HIGH_PRIORITY)
+public final class LoggingConfigurator extends ContextAwareBase implements Configurator {
+
+    static final String CONFIGURATION_FILE_PROPERTY = "logback.configurationFile";
+
+    @Override
+    public ExecutionStatus configure(LoggerContext context) {
+        if (System.getProperty(CONFIGURATION_FILE_PROPERTY) != null) {
+            return ExecutionStatus.INVOKE_NEXT_IF_ANY;
+        }
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.OFF);
+        return ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+}
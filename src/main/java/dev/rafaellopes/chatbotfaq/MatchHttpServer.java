@@ -0,0 +1,387 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.rafaellopes.chatbotfaq.core.CachingIntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentCandidate;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseSnapshot;
+import dev.rafaellopes.chatbotfaq.core.SessionStore;
+import dev.rafaellopes.chatbotfaq.core.TenantRegistry;
+import dev.rafaellopes.chatbotfaq.core.TokenInterner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the FAQ over HTTP with the JDK built-in server, one virtual thread per request.
+ * <p>
+ * {@code POST /match} with {@code {"message":"..."}} answers
+ * {@code {"intent":"name"|null,"response":"...","fallback":true|false}}, selected
+ * exactly like the console loops. Each request matches against the current immutable
+ * knowledge base snapshot, shared by all requests without locking. An optional
+ * {@code "top": k} (1..{@value #MAX_TOP}) adds the {@code k} best ranked {@code candidates}
+ * with score, priority and matched keywords, for "did you mean" suggestions.
+ * <p>
+ * With several knowledge bases loaded, {@code "tenant": "id"} picks the one to match
+ * against; without it the default tenant answers (400 when there is none, 404 for an
+ * unknown id).
+ * <p>
+ * An optional {@code "session": "id"} keeps per-user state: the answer gains
+ * {@code session} with the turn count and the intent matched by the previous question, and
+ * the message {@code /reiniciar} clears the session instead of being matched. Idle sessions
+ * expire after {@link SessionStore#DEFAULT_TTL}.
+ * <p>
+ * {@code GET /status} reports, for the default tenant, the snapshot in use, the last reload
+ * attempt and, when enabled, the response cache counters; {@code tenants} lists every
+ * tenant with its version and estimated memory, next to the shared vocabulary, and
+ * {@code transcript} the entries written and dropped when a transcript is kept.
+ */
+final class MatchHttpServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchHttpServer.class);
+
+    static final String MATCH_PATH = "/match";
+    static final String STATUS_PATH = "/status";
+
+    static final int MAX_TOP = 10;
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int BACKLOG = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final TenantRegistry tenants;
+    private final String fallbackMessage;
+    private final TranscriptWriter transcript;
+    private final SessionStore sessions = new SessionStore();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    MatchHttpServer(int port, ObjectMapper objectMapper, KnowledgeBaseReloader knowledgeBase, IntentMatcher matcher,
+                    String fallbackMessage) throws IOException {
+        this(port, objectMapper, TenantRegistry.single("default", knowledgeBase, matcher), fallbackMessage);
+    }
+
+    MatchHttpServer(int port, ObjectMapper objectMapper, TenantRegistry tenants, String fallbackMessage)
+            throws IOException {
+        this(port, objectMapper, tenants, fallbackMessage, null);
+    }
+
+    /**
+     * @param transcript receives every answered message (null = no transcript)
+     */
+    MatchHttpServer(int port, ObjectMapper objectMapper, TenantRegistry tenants, String fallbackMessage,
+                    TranscriptWriter transcript) throws IOException {
+        this.objectMapper = objectMapper;
+        this.tenants = tenants;
+        this.fallbackMessage = fallbackMessage;
+        this.transcript = transcript;
+
+        // Keep-alive clients send small requests back to back; don't let Nagle delay replies.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(MATCH_PATH, this::handleMatch);
+        server.createContext(STATUS_PATH, this::handleStatus);
+    }
+
+    void start() {
+        server.start();
+        sessions.startEvicting();
+        log.info("HTTP server listening on port {}", port());
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+        sessions.close();
+    }
+
+    private void handleMatch(HttpExchange exchange) {
+        try (exchange) {
+            if (!MATCH_PATH.equals(exchange.getRequestURI().getPath())) {
+                sendError(exchange, 404, "not found");
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "method not allowed");
+                return;
+            }
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                sendError(exchange, 413, "request body too large");
+                return;
+            }
+
+            String message;
+            String sessionId = null;
+            int top = 0;
+            TenantRegistry.Tenant tenant;
+            try {
+                JsonNode request = objectMapper.readTree(body);
+                JsonNode messageNode = request == null ? null : request.get("message");
+                if (messageNode == null || !messageNode.isTextual()) {
+                    sendError(exchange, 400, "field 'message' (string) is required");
+                    return;
+                }
+                message = messageNode.asText();
+
+                JsonNode topNode = request.get("top");
+                if (topNode != null) {
+                    if (!topNode.canConvertToInt() || !topNode.isIntegralNumber()
+                            || topNode.asInt() < 1 || topNode.asInt() > MAX_TOP) {
+                        sendError(exchange, 400, "field 'top' must be an integer from 1 to " + MAX_TOP);
+                        return;
+                    }
+                    top = topNode.asInt();
+                }
+
+                JsonNode sessionNode = request.get("session");
+                if (sessionNode != null) {
+                    if (!sessionNode.isTextual() || sessionNode.asText().isEmpty()) {
+                        sendError(exchange, 400, "field 'session' must be a non-empty string");
+                        return;
+                    }
+                    sessionId = sessionNode.asText();
+                }
+
+                JsonNode tenantNode = request.get("tenant");
+                if (tenantNode != null && !tenantNode.isTextual()) {
+                    sendError(exchange, 400, "field 'tenant' must be a string");
+                    return;
+                }
+                tenant = tenantNode == null ? tenants.defaultTenant() : tenants.tenant(tenantNode.asText());
+                if (tenant == null) {
+                    if (tenantNode == null) {
+                        sendError(exchange, 400, "field 'tenant' is required");
+                    } else {
+                        sendError(exchange, 404, "unknown tenant");
+                    }
+                    return;
+                }
+            } catch (IOException e) {
+                sendError(exchange, 400, "invalid JSON");
+                return;
+            }
+
+            if (sessionId != null && App.RESTART_COMMAND.equals(message.trim())) {
+                sessions.clear(sessionId);
+                sendRestart(exchange, sessionId);
+                return;
+            }
+
+            IntentIndex index = tenant.knowledgeBase().index();
+            Optional<Intent> bestIntent;
+            List<IntentCandidate> candidates = null;
+            if (top > 0) {
+                // One ranking serves both: the best answer is the first candidate.
+                candidates = topIntentsSafe(message, index, tenant.matcher(), top);
+                bestIntent = candidates.isEmpty() ? Optional.empty() : Optional.of(candidates.get(0).intent());
+            } else {
+                bestIntent = App.findBestIntentSafe(message, index, tenant.matcher());
+            }
+            SessionStore.SessionState session = sessionId == null ? null : sessions.recordTurn(sessionId, bestIntent);
+            sendMatch(exchange, bestIntent, candidates, sessionId, session);
+            if (transcript != null) {
+                transcript.record(TranscriptWriter.HTTP, tenant.id(), message, bestIntent,
+                        bestIntent.map(Intent::getResponse).orElse(fallbackMessage));
+            }
+        } catch (IOException e) {
+            log.debug("HTTP exchange failed: {}", e.getClass().getSimpleName());
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) {
+        try (exchange) {
+            if (!STATUS_PATH.equals(exchange.getRequestURI().getPath())) {
+                sendError(exchange, 404, "not found");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "method not allowed");
+                return;
+            }
+
+            Map<String, Object> status = new LinkedHashMap<>();
+            TenantRegistry.Tenant defaultTenant = tenants.defaultTenant();
+            if (defaultTenant != null) {
+                status.putAll(tenantStatus(defaultTenant));
+            }
+
+            Map<String, Object> tenantsStatus = new LinkedHashMap<>();
+            for (TenantRegistry.Tenant tenant : tenants.tenants()) {
+                KnowledgeBaseSnapshot snapshot = tenant.knowledgeBase().current();
+                IntentIndex.MemoryUsage memory = tenants.memoryUsage(tenant);
+                Map<String, Object> tenantStatus = new LinkedHashMap<>();
+                tenantStatus.put("version", snapshot.version());
+                tenantStatus.put("intents", snapshot.index().size());
+                tenantStatus.put("privateBytes", memory.privateBytes());
+                tenantStatus.put("sharedBytes", memory.sharedBytes());
+                tenantsStatus.put(tenant.id(), tenantStatus);
+            }
+            status.put("tenants", tenantsStatus);
+
+            TokenInterner shared = tenants.shared();
+            if (shared != null) {
+                status.put("sharedVocabulary", Map.of("strings", shared.size(), "bytes", shared.estimatedBytes()));
+            }
+            status.put("sessions", Map.of("active", sessions.size(), "evicted", sessions.evictions()));
+            if (transcript != null) {
+                status.put("transcript", Map.of("written", transcript.written(), "dropped", transcript.dropped()));
+            }
+            send(exchange, 200, objectMapper.writeValueAsBytes(status));
+        } catch (IOException e) {
+            log.debug("HTTP exchange failed: {}", e.getClass().getSimpleName());
+        }
+    }
+
+    private static Map<String, Object> tenantStatus(TenantRegistry.Tenant tenant) {
+        KnowledgeBaseSnapshot snapshot = tenant.knowledgeBase().current();
+        KnowledgeBaseReloader.ReloadStatus reload = tenant.knowledgeBase().lastReload();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("version", snapshot.version());
+        status.put("intents", snapshot.index().size());
+        status.put("loadedAt", snapshot.loadedAt().toString());
+        if (reload != null) {
+            Map<String, Object> lastReload = new LinkedHashMap<>();
+            lastReload.put("at", reload.at().toString());
+            lastReload.put("durationMs", reload.durationMillis());
+            lastReload.put("success", reload.success());
+            lastReload.put("error", reload.error());
+            status.put("lastReload", lastReload);
+        }
+        if (tenant.matcher() instanceof CachingIntentMatcher cache) {
+            CachingIntentMatcher.CacheStats stats = cache.cacheStats();
+            Map<String, Object> cacheStatus = new LinkedHashMap<>();
+            cacheStatus.put("size", stats.size());
+            cacheStatus.put("maxEntries", cache.maxEntries());
+            cacheStatus.put("hits", stats.hits());
+            cacheStatus.put("misses", stats.misses());
+            cacheStatus.put("evictions", stats.evictions());
+            cacheStatus.put("invalidations", stats.invalidations());
+            status.put("cache", cacheStatus);
+        }
+        return status;
+    }
+
+    /**
+     * Same fallback checks as {@link App#findBestIntentSafe}: a blank message, an empty base or a
+     * failed ranking give no candidates.
+     */
+    private static List<IntentCandidate> topIntentsSafe(String message, IntentIndex index, IntentMatcher matcher,
+                                                        int top) {
+        if (message == null || message.isBlank() || index == null || index.size() == 0) {
+            return List.of();
+        }
+        try {
+            return matcher.findTopIntents(message, index, top);
+        } catch (Exception e) {
+            log.warn("Top intents ranking failed, using fallback: {}", e.getClass().getSimpleName());
+            return List.of();
+        }
+    }
+
+    private void sendMatch(HttpExchange exchange, Optional<Intent> bestIntent, List<IntentCandidate> candidates,
+                           String sessionId, SessionStore.SessionState session) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("intent", bestIntent.map(Intent::getIntent).orElse(null));
+            json.writeStringField("response", bestIntent.map(Intent::getResponse).orElse(fallbackMessage));
+            json.writeBooleanField("fallback", bestIntent.isEmpty());
+            if (candidates != null) {
+                json.writeArrayFieldStart("candidates");
+                for (IntentCandidate candidate : candidates) {
+                    json.writeStartObject();
+                    json.writeStringField("intent", candidate.intent().getIntent());
+                    json.writeNumberField("score", candidate.score());
+                    json.writeNumberField("priority", candidate.priority());
+                    json.writeArrayFieldStart("matchedKeywords");
+                    for (String keyword : candidate.matchedKeywords()) {
+                        json.writeString(keyword);
+                    }
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+            if (session != null) {
+                writeSession(json, sessionId, session);
+            }
+            json.writeEndObject();
+        }
+        send(exchange, 200, out.toByteArray());
+    }
+
+    private void sendRestart(HttpExchange exchange, String sessionId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("intent", null);
+            json.writeStringField("response", App.RESTART_MESSAGE);
+            json.writeBooleanField("fallback", false);
+            writeSession(json, sessionId, sessions.get(sessionId));
+            json.writeEndObject();
+        }
+        send(exchange, 200, out.toByteArray());
+    }
+
+    private static void writeSession(JsonGenerator json, String sessionId, SessionStore.SessionState session)
+            throws IOException {
+        json.writeObjectFieldStart("session");
+        json.writeStringField("id", sessionId);
+        json.writeNumberField("turns", session.turns());
+        json.writeStringField("previousIntent", session.previousIntent());
+        json.writeEndObject();
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error) throws IOException {
+        send(exchange, status, objectMapper.writeValueAsBytes(Map.of("error", error)));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return the body, or null when it exceeds {@link #MAX_BODY_BYTES}
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+}
@@ -0,0 +1,97 @@
+package dev.rafaellopes.chatbotfaq;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blocking client for {@link MatchSocketServer}. One instance is one connection; not thread-safe.
+ */
+final class MatchSocketClient implements AutoCloseable {
+
+    static final int MAX_PIPELINED = 128;
+
+    private final SocketChannel channel;
+    private final ByteArrayOutputStream requests = new ByteArrayOutputStream(4096);
+    private ByteBuffer in = ByteBuffer.allocate(8192);
+
+    MatchSocketClient(Path socketPath) throws IOException {
+        this.channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(socketPath));
+        in.flip();
+    }
+
+    /**
+     * @return response JSON for one message
+     */
+    String match(String message) throws IOException {
+        return matchAll(List.of(message)).get(0);
+    }
+
+    /**
+     * Pipelines the messages: sends up to {@value #MAX_PIPELINED} requests in one write, then reads
+     * their responses. The window keeps both sides from blocking on full socket buffers.
+     *
+     * @return response JSON per message, in the same order
+     */
+    List<String> matchAll(List<String> messages) throws IOException {
+        List<String> responses = new ArrayList<>(messages.size());
+        for (int from = 0; from < messages.size(); from += MAX_PIPELINED) {
+            List<String> window = messages.subList(from, Math.min(messages.size(), from + MAX_PIPELINED));
+            for (String message : window) {
+                MatchSocketServer.writeFrame(requests, message.getBytes(StandardCharsets.UTF_8));
+            }
+            ByteBuffer out = ByteBuffer.wrap(requests.toByteArray());
+            requests.reset();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+
+            for (int i = 0; i < window.size(); i++) {
+                int length = readFully(4).getInt();
+                ByteBuffer payload = readFully(length);
+                responses.add(new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+                        StandardCharsets.UTF_8));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * @return a buffer positioned on the next {@code length} bytes of the stream
+     */
+    private ByteBuffer readFully(int length) throws IOException {
+        if (in.remaining() < length) {
+            if (in.capacity() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(length);
+                larger.put(in);
+                in = larger;
+            } else {
+                in.compact();
+            }
+            while (in.position() < length) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("connection closed by server");
+                }
+            }
+            in.flip();
+        }
+
+        ByteBuffer slice = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return slice;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
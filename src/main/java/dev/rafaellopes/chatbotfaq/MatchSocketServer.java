@@ -0,0 +1,228 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the FAQ over a Unix domain socket for services on the same host, without the HTTP stack.
+ * <p>
+ * Protocol: every frame is a 4-byte big-endian payload length followed by the payload.
+ * A request payload is the UTF-8 message text; the response payload is the same JSON as
+ * {@code POST /match} ({@code {"intent":"name"|null,"response":"...","fallback":true|false}}).
+ * Clients may pipeline: responses come back in request order, and all requests already
+ * received are answered with a single write. A frame larger than {@value #MAX_FRAME_BYTES}
+ * bytes gets an {@code {"error":"..."}} response and the connection is closed.
+ * <p>
+ * Each connection runs on its own virtual thread; all of them share the matcher and the
+ * current immutable knowledge base snapshot.
+ */
+final class MatchSocketServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchSocketServer.class);
+
+    static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    private static final int HEADER_BYTES = 4;
+    private static final int READ_BUFFER_BYTES = 8192;
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final KnowledgeBaseReloader knowledgeBase;
+    private final IntentMatcher matcher;
+    private final String fallbackMessage;
+    private final String tenantId;
+    private final TranscriptWriter transcript;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+
+    MatchSocketServer(Path path, ObjectMapper objectMapper, KnowledgeBaseReloader knowledgeBase, IntentMatcher matcher,
+                      String fallbackMessage) {
+        this(path, objectMapper, knowledgeBase, matcher, fallbackMessage, "default", null);
+    }
+
+    /**
+     * @param tenantId knowledge base id written to the transcript
+     * @param transcript receives every answered message (null = no transcript)
+     */
+    MatchSocketServer(Path path, ObjectMapper objectMapper, KnowledgeBaseReloader knowledgeBase, IntentMatcher matcher,
+                      String fallbackMessage, String tenantId, TranscriptWriter transcript) {
+        this.path = path.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        this.knowledgeBase = knowledgeBase;
+        this.matcher = matcher;
+        this.fallbackMessage = fallbackMessage;
+        this.tenantId = tenantId;
+        this.transcript = transcript;
+    }
+
+    void start() throws IOException {
+        // A socket file left by a previous run blocks bind; anything else at the path is not ours to delete.
+        if (Files.exists(path)) {
+            if (Files.isRegularFile(path) || Files.isDirectory(path)) {
+                throw new IOException("path exists and is not a socket: " + path);
+            }
+            Files.delete(path);
+        }
+
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(path));
+
+        // Platform thread: keeps the JVM alive while serving, like the HTTP server's dispatcher.
+        acceptor = new Thread(this::acceptLoop, "socket-acceptor");
+        acceptor.start();
+        log.info("Socket server listening on {}", path);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (server != null) {
+                server.close();
+            }
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+            executor.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Socket server shutdown failed: {}", e.getMessage());
+        }
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel connection = server.accept();
+                connections.add(connection);
+                executor.execute(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Socket accept failed: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                // Executor already shut down: the server is closing.
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (connection) {
+            ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(READ_BUFFER_BYTES);
+
+            while (connection.read(in) >= 0) {
+                in.flip();
+                boolean open = answerCompleteFrames(in, out);
+                in.compact();
+
+                if (out.size() > 0) {
+                    write(connection, out);
+                }
+                if (!open) {
+                    return;
+                }
+
+                // A frame larger than the buffer: grow up to the frame limit.
+                if (!in.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(Math.min(in.capacity() * 2, HEADER_BYTES + MAX_FRAME_BYTES));
+                    in.flip();
+                    larger.put(in);
+                    in = larger;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Socket connection closed: {}", e.getClass().getSimpleName());
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Answers every complete request frame in {@code in} into {@code out}.
+     *
+     * @return false when the connection must be closed (invalid frame)
+     */
+    private boolean answerCompleteFrames(ByteBuffer in, ByteArrayOutputStream out) throws IOException {
+        while (in.remaining() >= HEADER_BYTES) {
+            int length = in.getInt(in.position());
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                writeFrame(out, objectMapper.writeValueAsBytes(Map.of("error", "frame too large")));
+                return false;
+            }
+            if (in.remaining() < HEADER_BYTES + length) {
+                return true;
+            }
+
+            String message = new String(in.array(), in.arrayOffset() + in.position() + HEADER_BYTES, length,
+                    StandardCharsets.UTF_8);
+            in.position(in.position() + HEADER_BYTES + length);
+
+            Optional<Intent> bestIntent = App.findBestIntentSafe(message, knowledgeBase.index(), matcher);
+            writeFrame(out, matchJson(bestIntent));
+            if (transcript != null) {
+                transcript.record(TranscriptWriter.SOCKET, tenantId, message, bestIntent,
+                        bestIntent.map(Intent::getResponse).orElse(fallbackMessage));
+            }
+        }
+        return true;
+    }
+
+    private byte[] matchJson(Optional<Intent> bestIntent) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeStringField("intent", bestIntent.map(Intent::getIntent).orElse(null));
+            generator.writeStringField("response", bestIntent.map(Intent::getResponse).orElse(fallbackMessage));
+            generator.writeBooleanField("fallback", bestIntent.isEmpty());
+            generator.writeEndObject();
+        }
+        return json.toByteArray();
+    }
+
+    static void writeFrame(ByteArrayOutputStream out, byte[] payload) {
+        out.write(payload.length >>> 24);
+        out.write(payload.length >>> 16);
+        out.write(payload.length >>> 8);
+        out.write(payload.length);
+        out.writeBytes(payload);
+    }
+
+    private static void write(SocketChannel connection, ByteArrayOutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        while (buffer.hasRemaining()) {
+            connection.write(buffer);
+        }
+        out.reset();
+    }
+}
@@ -0,0 +1,94 @@
+package dev.rafaellopes.chatbotfaq;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number (Vyukov's bounded queue): a producer claims a position
+ * with one CAS on the tail, stores the element and publishes it by advancing the slot's
+ * sequence; the consumer frees the slot by advancing it one lap further. A full buffer makes
+ * {@link #offer(Object)} return false at once, so producers never wait for the consumer.
+ * Only one thread may call {@link #drain(Consumer, int)}.
+ *
+ * @param <E> element type
+ */
+final class MpscRingBuffer<E> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Consumer-owned.
+    private long head;
+
+    /**
+     * @param capacity slots, rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return false when the buffer is full; the element was not added
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[slot] = element;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // Slot still holds the element from one lap ago.
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code max} published elements to {@code consumer}, oldest first.
+     *
+     * @return elements drained
+     */
+    @SuppressWarnings("unchecked")
+    int drain(Consumer<? super E> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) {
+                break;
+            }
+            E element = (E) slots[slot];
+            slots[slot] = null;
+            sequences.set(slot, head + slots.length);
+            head++;
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+}
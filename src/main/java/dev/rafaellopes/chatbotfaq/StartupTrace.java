@@ -0,0 +1,99 @@
+package dev.rafaellopes.chatbotfaq;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Wall-clock time and loaded classes per startup phase, for {@code --startup-trace}.
+ * <p>
+ * Phases are closed by {@link #mark(String)}: each one lasts from the previous mark to this one.
+ * A disabled trace ignores marks, so the startup path calls it unconditionally. The management
+ * beans used for the JVM uptime and the class count are only loaded when tracing.
+ */
+final class StartupTrace {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private static final StartupTrace DISABLED = new StartupTrace(null);
+
+    /**
+     * @param name phase shown in the report
+     * @param nanos wall-clock time of the phase
+     * @param classes classes loaded during the phase
+     */
+    record Phase(String name, long nanos, long classes) {
+    }
+
+    private final ClassLoadingMXBean classLoading;
+    private final List<Phase> phases = new ArrayList<>();
+    private long lastNanos;
+    private long lastClasses;
+
+    private StartupTrace(ClassLoadingMXBean classLoading) {
+        this.classLoading = classLoading;
+    }
+
+    static StartupTrace disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Starts a trace whose first phases are already over: JVM boot up to the initialization of
+     * {@link App}, then the logging setup run by its static initializer.
+     *
+     * @param appInitNanos {@link System#nanoTime()} when App's static initializer started
+     * @param loggingReadyNanos {@link System#nanoTime()} when its logger was ready
+     */
+    static StartupTrace begin(long appInitNanos, long loggingReadyNanos) {
+        long now = System.nanoTime();
+        // Loading the management beans is itself startup work: kept out of every phase.
+        var runtime = ManagementFactory.getRuntimeMXBean();
+        StartupTrace trace = new StartupTrace(ManagementFactory.getClassLoadingMXBean());
+
+        long uptimeNanos = runtime.getUptime() * 1_000_000 - (System.nanoTime() - now);
+        long jvmNanos = Math.max(0, uptimeNanos - (now - appInitNanos));
+        trace.phases.add(new Phase("JVM e classes até o main", jvmNanos, -1));
+        trace.phases.add(new Phase("logging (Logback)", loggingReadyNanos - appInitNanos, -1));
+        trace.lastClasses = trace.classLoading.getTotalLoadedClassCount();
+        trace.lastNanos = System.nanoTime();
+        return trace;
+    }
+
+    boolean enabled() {
+        return classLoading != null;
+    }
+
+    /**
+     * Closes the phase that started at the previous mark.
+     */
+    void mark(String phase) {
+        if (!enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long classes = classLoading.getTotalLoadedClassCount();
+        phases.add(new Phase(phase, now - lastNanos, classes - lastClasses));
+        lastClasses = classes;
+        lastNanos = System.nanoTime();
+    }
+
+    List<Phase> phases() {
+        return List.copyOf(phases);
+    }
+
+    String format() {
+        StringBuilder out = new StringBuilder("Tempo de inicialização por fase:\n");
+        long total = 0;
+        for (Phase phase : phases) {
+            total += phase.nanos();
+            String classes = phase.classes() < 0 ? "" : String.format(PT_BR, " (%d classes)", phase.classes());
+            out.append(String.format(PT_BR, "- %-28s %8.1f ms%s%n", phase.name(), phase.nanos() / 1e6, classes));
+        }
+        out.append(String.format(PT_BR, "- %-28s %8.1f ms (%d classes carregadas)%n", "total",
+                total / 1e6, enabled() ? classLoading.getTotalLoadedClassCount() : 0));
+        return out.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.CachingIntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.LatencyHistogram;
+import dev.rafaellopes.chatbotfaq.core.MatchStats;
+import dev.rafaellopes.chatbotfaq.core.TenantRegistry;
+import dev.rafaellopes.chatbotfaq.core.TokenInterner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders {@link MatchStats} for the {@code /stats} console command and the JSON export written on exit,
+ * and the estimated memory of each loaded knowledge base.
+ */
+final class StatsReport {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+    private static final int TOP_INTENTS = 10;
+
+    private StatsReport() {
+    }
+
+    static String format(IntentMatcher matcher) {
+        MatchStats stats = matcher.stats();
+        StringBuilder out = new StringBuilder("Estatísticas desde o início:\n");
+        if (stats == null) {
+            return out.append("- (desativadas)\n").toString();
+        }
+
+        long queries = stats.queries();
+        long fallbacks = stats.fallbacks();
+        out.append(String.format(PT_BR, "- Perguntas: %d (%d sem resposta, %.1f%%)%n",
+                queries, fallbacks, percent(fallbacks, queries)));
+
+        out.append(String.format(PT_BR, "- Latência em µs (1 a cada %d perguntas medida):%n", stats.sampleEvery()));
+        out.append(String.format(PT_BR, "  %-9s %9s %9s %9s %9s %9s%n", "etapa", "amostras", "p50", "p99", "p99,9", "máx"));
+        for (MatchStats.Stage stage : MatchStats.Stage.values()) {
+            LatencyHistogram histogram = stats.histogram(stage);
+            out.append(String.format(PT_BR, "  %-9s %9d %9.1f %9.1f %9.1f %9.1f%n",
+                    stage.name().toLowerCase(Locale.ROOT), histogram.count(),
+                    micros(histogram.percentileNanos(50)), micros(histogram.percentileNanos(99)),
+                    micros(histogram.percentileNanos(99.9)), micros(histogram.maxNanos())));
+        }
+
+        Map<String, Long> intentHits = stats.intentHits();
+        if (!intentHits.isEmpty()) {
+            out.append("- Intents mais usadas:\n");
+            intentHits.entrySet().stream().limit(TOP_INTENTS)
+                    .forEach(e -> out.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n'));
+        }
+
+        if (matcher instanceof CachingIntentMatcher cache) {
+            CachingIntentMatcher.CacheStats cacheStats = cache.cacheStats();
+            out.append(String.format(PT_BR, "- Cache: %d acertos, %d falhas, %d remoções (%.1f%% de acerto)%n",
+                    cacheStats.hits(), cacheStats.misses(), cacheStats.evictions(), cacheStats.hitRate() * 100));
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return one line per tenant with its estimated memory, then the shared vocabulary
+     */
+    static String formatTenants(TenantRegistry tenants) {
+        StringBuilder out = new StringBuilder(String.format(PT_BR, "Bases carregadas: %d%n", tenants.size()));
+        out.append(String.format(PT_BR, "  %-20s %8s %12s %16s %14s%n",
+                "base", "intents", "própria KiB", "compartilhada KiB", "isolada KiB"));
+        long standalone = 0;
+        for (TenantRegistry.Tenant tenant : tenants.tenants()) {
+            IntentIndex.MemoryUsage memory = tenants.memoryUsage(tenant);
+            standalone += memory.standaloneBytes();
+            out.append(String.format(PT_BR, "  %-20s %8d %12.1f %16.1f %14.1f%n", tenant.id(),
+                    tenant.knowledgeBase().index().size(), kib(memory.privateBytes()), kib(memory.sharedBytes()),
+                    kib(memory.standaloneBytes())));
+        }
+
+        TokenInterner shared = tenants.shared();
+        if (shared != null) {
+            long pooled = shared.estimatedBytes();
+            long total = pooled;
+            for (TenantRegistry.Tenant tenant : tenants.tenants()) {
+                total += tenants.memoryUsage(tenant).privateBytes();
+            }
+            out.append(String.format(PT_BR, "- Vocabulário compartilhado: %d palavras, %.1f KiB%n",
+                    shared.size(), kib(pooled)));
+            out.append(String.format(PT_BR, "- Total estimado: %.1f KiB (%.1f KiB com bases isoladas)%n",
+                    kib(total), kib(standalone)));
+        }
+        return out.toString();
+    }
+
+    static void export(IntentMatcher matcher, ObjectMapper objectMapper, Path target) throws IOException {
+        MatchStats stats = matcher.stats();
+        if (stats == null) {
+            return;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("exportedAt", Instant.now().toString());
+        report.put("queries", stats.queries());
+        report.put("fallbacks", stats.fallbacks());
+        report.put("sampleEvery", stats.sampleEvery());
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (MatchStats.Stage stage : MatchStats.Stage.values()) {
+            LatencyHistogram histogram = stats.histogram(stage);
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", histogram.count());
+            values.put("mean", Math.round(histogram.meanNanos()));
+            values.put("p50", histogram.percentileNanos(50));
+            values.put("p90", histogram.percentileNanos(90));
+            values.put("p99", histogram.percentileNanos(99));
+            values.put("p999", histogram.percentileNanos(99.9));
+            values.put("max", histogram.maxNanos());
+            latency.put(stage.name().toLowerCase(Locale.ROOT), values);
+        }
+        report.put("latencyNanos", latency);
+        report.put("intents", stats.intentHits());
+
+        if (matcher instanceof CachingIntentMatcher cache) {
+            CachingIntentMatcher.CacheStats cacheStats = cache.cacheStats();
+            Map<String, Object> cacheReport = new LinkedHashMap<>();
+            cacheReport.put("hits", cacheStats.hits());
+            cacheReport.put("misses", cacheStats.misses());
+            cacheReport.put("evictions", cacheStats.evictions());
+            cacheReport.put("invalidations", cacheStats.invalidations());
+            cacheReport.put("size", cacheStats.size());
+            report.put("cache", cacheReport);
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), report);
+    }
+
+    private static double kib(long bytes) {
+        return bytes / 1024.0;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0.0 : part * 100.0 / total;
+    }
+}
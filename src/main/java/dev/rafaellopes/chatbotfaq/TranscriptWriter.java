@@ -0,0 +1,229 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transcript of every question and answer as JSONL files, for analytics, kept off the reply path.
+ * <p>
+ * {@link #record} only stores a reference to the entry in a {@link MpscRingBuffer}; a background
+ * thread drains it in batches, encodes them and appends each batch with one write. When the buffer
+ * is full the entry is dropped and counted, never waited for. A file is closed, and the next batch
+ * goes to a new one, once it reaches the size limit or the rotation interval.
+ * <p>
+ * Line format:
+ * {@code {"at":"2026-01-01T12:00:00Z","channel":"console","tenant":"intents","message":"...","intent":"name"|null,"response":"...","fallback":false}}
+ * This is the only place user messages are persisted; the application logs never contain them.
+ */
+final class TranscriptWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TranscriptWriter.class);
+
+    static final String CONSOLE = "console";
+    static final String HTTP = "http";
+    static final String SOCKET = "socket";
+
+    static final int DEFAULT_CAPACITY = 8192;
+    static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    static final Duration DEFAULT_ROTATE_EVERY = Duration.ofHours(1);
+
+    private static final int MAX_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = Duration.ofMillis(100).toNanos();
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    /**
+     * @param at when the answer was sent
+     * @param channel {@value #CONSOLE}, {@value #HTTP} or {@value #SOCKET}
+     * @param tenant knowledge base that answered
+     * @param message user message as received
+     * @param intent matched intent name, null for the fallback
+     * @param response text sent back
+     */
+    record Entry(Instant at, String channel, String tenant, String message, String intent, String response) {
+    }
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final long rotateEveryNanos;
+    private final MpscRingBuffer<Entry> buffer;
+    private final JsonFactory jsonFactory;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+
+    // Drainer-owned.
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(64 * 1024);
+    private OutputStream file;
+    private long fileBytes;
+    private long fileOpenedNanos;
+    private int fileSequence;
+
+    private volatile long written;
+    private volatile boolean running = true;
+
+    TranscriptWriter(Path directory, ObjectMapper objectMapper) {
+        this(directory, objectMapper, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_BYTES, DEFAULT_ROTATE_EVERY);
+    }
+
+    /**
+     * @param directory where transcript files are created
+     * @param capacity entries buffered before new ones are dropped
+     * @param maxFileBytes a file is rotated once it reaches this size
+     * @param rotateEvery a file is rotated once it is this old
+     */
+    TranscriptWriter(Path directory, ObjectMapper objectMapper, int capacity, long maxFileBytes, Duration rotateEvery) {
+        if (maxFileBytes < 1 || rotateEvery.isNegative() || rotateEvery.isZero()) {
+            throw new IllegalArgumentException("rotation limits must be positive");
+        }
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.rotateEveryNanos = rotateEvery.toNanos();
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.jsonFactory = objectMapper.getFactory();
+        // Daemon: a shutdown hook calls close(), which drains what is left.
+        this.drainer = new Thread(this::drainLoop, "transcript-writer");
+        drainer.setDaemon(true);
+    }
+
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        drainer.start();
+        log.info("Transcript enabled: {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Queues one exchange without blocking.
+     *
+     * @return false when the buffer was full and the entry was dropped
+     */
+    boolean record(String channel, String tenant, String message, Optional<Intent> bestIntent, String response) {
+        Entry entry = new Entry(Instant.now(), channel, tenant, message,
+                bestIntent.map(Intent::getIntent).orElse(null), response);
+        if (buffer.offer(entry)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    long written() {
+        return written;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the entries still buffered and closes the current file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped() > 0) {
+            log.warn("Transcript dropped {} entries (buffer full)", dropped());
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drain(this::encode, MAX_BATCH);
+            if (drained > 0) {
+                writeBatch(drained);
+            } else if (stopping) {
+                closeFile();
+                return;
+            } else {
+                if (file != null && System.nanoTime() - fileOpenedNanos >= rotateEveryNanos) {
+                    closeFile();
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void encode(Entry entry) {
+        try (JsonGenerator json = jsonFactory.createGenerator(batch, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("at", entry.at().toString());
+            json.writeStringField("channel", entry.channel());
+            json.writeStringField("tenant", entry.tenant());
+            json.writeStringField("message", entry.message());
+            json.writeStringField("intent", entry.intent());
+            json.writeStringField("response", entry.response());
+            json.writeBooleanField("fallback", entry.intent() == null);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.write('\n');
+    }
+
+    private void writeBatch(int entries) {
+        try {
+            if (file == null || fileBytes >= maxFileBytes
+                    || System.nanoTime() - fileOpenedNanos >= rotateEveryNanos) {
+                closeFile();
+                openFile();
+            }
+            batch.writeTo(file);
+            file.flush();
+            fileBytes += batch.size();
+            written += entries;
+        } catch (IOException e) {
+            // The chatbot keeps answering; the next batch retries with a new file.
+            log.warn("Transcript write failed, {} entries lost: {}", entries, e.getMessage());
+            dropped.add(entries);
+            closeFile();
+        } finally {
+            batch.reset();
+        }
+    }
+
+    private void openFile() throws IOException {
+        String name = "transcript-" + FILE_TIME.format(Instant.now()) + "-" + (++fileSequence) + ".jsonl";
+        file = Files.newOutputStream(directory.resolve(name), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        fileBytes = 0;
+        fileOpenedNanos = System.nanoTime();
+    }
+
+    private void closeFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.warn("Transcript file close failed: {}", e.getMessage());
+        }
+        file = null;
+    }
+}
@@ -0,0 +1,104 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed {@link ScoringEngine#BM25} weight of every (keyword phrase, intent) pair of an
+ * {@link IntentIndex}, so scoring a query is one addition per matched phrase and owning intent.
+ * <p>
+ * A phrase is a term; an intent is a document whose length is its number of keyword entries.
+ * Postings of pattern {@code p} are {@code [postingStart[p], postingStart[p + 1])}: distinct
+ * intents in JSON order with their weight in thousandths, at least 1, packed as
+ * {@code (intent << 32) | weight} so that they are the matcher's per-intent contributions as stored.
+ */
+final class Bm25Weights {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int SCALE = 1000;
+
+    private final int[] postingStart;
+    private final long[] postings;
+
+    private Bm25Weights(int[] postingStart, long[] postings) {
+        this.postingStart = postingStart;
+        this.postings = postings;
+    }
+
+    static Bm25Weights build(IntentIndex index) {
+        int patternCount = index.patternCount();
+
+        // Document length: keyword entries per intent (owners repeat an intent once per keyword).
+        int[] lengths = new int[index.size()];
+        int entries = 0;
+        for (int p = 0; p < patternCount; p++) {
+            for (int o = index.ownersFrom(p); o < index.ownersTo(p); o++) {
+                lengths[index.ownerAt(o)]++;
+                entries++;
+            }
+        }
+        int documents = 0;
+        for (int length : lengths) {
+            if (length > 0) {
+                documents++;
+            }
+        }
+        double averageLength = documents == 0 ? 1.0 : (double) entries / documents;
+
+        int[] postingStart = new int[patternCount + 1];
+        long[] postings = new long[entries];
+        int size = 0;
+        for (int p = 0; p < patternCount; p++) {
+            postingStart[p] = size;
+            int from = index.ownersFrom(p);
+            int to = index.ownersTo(p);
+
+            // Owners of a pattern are in JSON order, so duplicates of an intent are adjacent.
+            int df = 0;
+            for (int o = from; o < to; o++) {
+                if (o == from || index.ownerAt(o) != index.ownerAt(o - 1)) {
+                    df++;
+                }
+            }
+            double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+
+            int o = from;
+            while (o < to) {
+                int intent = index.ownerAt(o);
+                int tf = 0;
+                for (; o < to && index.ownerAt(o) == intent; o++) {
+                    tf++;
+                }
+                double norm = K1 * (1 - B + B * lengths[intent] / averageLength);
+                double weight = idf * tf * (K1 + 1) / (tf + norm);
+                postings[size++] = IntentMatcher.pack(intent, Math.max(1, (int) Math.round(weight * SCALE)));
+            }
+        }
+        postingStart[patternCount] = size;
+
+        return new Bm25Weights(postingStart, Arrays.copyOf(postings, size));
+    }
+
+    int postingsFrom(int patternId) {
+        return postingStart[patternId];
+    }
+
+    int postingsTo(int patternId) {
+        return postingStart[patternId + 1];
+    }
+
+    /**
+     * @return {@code (intent << 32) | weight}
+     */
+    long postingAt(int posting) {
+        return postings[posting];
+    }
+
+    int intentAt(int posting) {
+        return (int) (postings[posting] >>> 32);
+    }
+
+    int weightAt(int posting) {
+        return (int) postings[posting];
+    }
+}
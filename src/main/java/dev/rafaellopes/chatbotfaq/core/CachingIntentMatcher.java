@@ -0,0 +1,263 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link IntentMatcher} that remembers results per normalized message, for traffic where
+ * the same questions repeat verbatim. The key is the message's token sequence, i.e. the
+ * tokens of {@link TextNormalizer#normalize} joined by spaces ("Quanto custa?" ->
+ * "quanto custa"). Scoring only sees those tokens, so the cache never changes an answer,
+ * and the key comes out of the tokenization pass the matcher needs anyway.
+ * <p>
+ * Eviction is LRU, split into lock-striped segments so concurrent requests rarely wait on
+ * each other; segment capacities add up to exactly {@code maxEntries}. Entries are tied to
+ * the {@link IntentIndex} they were computed from: when a new index (a new knowledge base
+ * version) is passed in, the cache is cleared once, and an entry computed against another
+ * index is never returned. Requests still running on an index the cache has moved past
+ * (they started before a reload or an edit was published) bypass the cache instead of
+ * switching it back. One instance is meant to serve one knowledge base at a time.
+ */
+public class CachingIntentMatcher extends IntentMatcher {
+
+    /**
+     * Longer messages are matched without caching; they rarely repeat and would pin memory.
+     */
+    static final int MAX_KEY_LENGTH = 512;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private volatile IntentIndex currentIndex;
+    // Indexes the cache moved past; weak, so old versions are still collected.
+    private final Set<IntentIndex> retired = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * @param hits lookups answered from the cache
+     * @param misses lookups that ran the matcher
+     * @param evictions entries dropped to stay within the size bound
+     * @param invalidations times the cache was cleared for a new knowledge base (once per version)
+     * @param size entries currently cached
+     */
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int size) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * @param maxEntries upper bound of cached messages (at least 1)
+     */
+    public CachingIntentMatcher(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * @param maxEntries upper bound of cached messages (at least 1)
+     * @param stats instrumentation to record every query into (null = none)
+     */
+    public CachingIntentMatcher(int maxEntries, MatchStats stats) {
+        this(maxEntries, stats, null);
+    }
+
+    /**
+     * @param maxEntries upper bound of cached messages (at least 1)
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     */
+    public CachingIntentMatcher(int maxEntries, MatchStats stats, ParallelScan parallelScan) {
+        this(maxEntries, stats, parallelScan, null);
+    }
+
+    /**
+     * @param maxEntries upper bound of cached messages (at least 1)
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     * @param fuzzy corrects misspelled message tokens (null = exact tokens only)
+     */
+    public CachingIntentMatcher(int maxEntries, MatchStats stats, ParallelScan parallelScan, FuzzyMatching fuzzy) {
+        this(maxEntries, stats, parallelScan, fuzzy, ScoringEngine.OCCURRENCES);
+    }
+
+    /**
+     * @param maxEntries upper bound of cached messages (at least 1)
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     * @param fuzzy corrects misspelled message tokens (null = exact tokens only)
+     * @param engine how found keywords are scored (null = {@link ScoringEngine#OCCURRENCES})
+     */
+    public CachingIntentMatcher(int maxEntries, MatchStats stats, ParallelScan parallelScan, FuzzyMatching fuzzy,
+                                ScoringEngine engine) {
+        super(stats, parallelScan, fuzzy, engine);
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxEntries));
+        // The first maxEntries % segmentCount segments take one more, so capacities sum to maxEntries.
+        int perSegment = maxEntries / segmentCount;
+        int remainder = maxEntries % segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment + (i < remainder ? 1 : 0), evictions);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    Optional<ScoredIntent> match(TokenBuffer messageTokens, IntentIndex index) {
+        if (index == null || index.size() == 0 || messageTokens.count() == 0) {
+            return Optional.empty();
+        }
+
+        String key = messageTokens.joined();
+        if (key.length() > MAX_KEY_LENGTH) {
+            misses.increment();
+            return super.match(messageTokens, index);
+        }
+
+        if (index != currentIndex && !switchTo(index)) {
+            misses.increment();
+            return super.match(messageTokens, index);
+        }
+
+        Segment segment = segments[segmentFor(key)];
+        Entry cached = segment.get(key);
+        if (cached != null && cached.index() == index) {
+            hits.increment();
+            return Optional.ofNullable(cached.match());
+        }
+
+        misses.increment();
+        Optional<ScoredIntent> match = super.match(messageTokens, index);
+        segment.put(key, new Entry(index, match.orElse(null)));
+        return match;
+    }
+
+    public CacheStats cacheStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Drops every cached result; counters are kept.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return false when {@code index} is one the cache already moved past
+     */
+    private synchronized boolean switchTo(IntentIndex index) {
+        if (index == currentIndex) {
+            return true;
+        }
+        if (retired.contains(index)) {
+            return false;
+        }
+        IntentIndex previous = currentIndex;
+        currentIndex = index;
+        invalidateAll();
+        if (previous != null) {
+            retired.add(previous);
+            invalidations.increment();
+        }
+        return true;
+    }
+
+    private int segmentFor(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & segmentMask;
+    }
+
+    /**
+     * Cached result; {@code match} is null for a fallback.
+     */
+    private record Entry(IntentIndex index, ScoredIntent match) {
+    }
+
+    /**
+     * Access-ordered map behind a lock: even a lookup reorders entries.
+     */
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(Math.min(capacity, 1024) * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Entry get(String key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Entry entry) {
+            lock.lock();
+            try {
+                entries.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
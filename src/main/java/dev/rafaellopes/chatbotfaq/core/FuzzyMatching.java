@@ -0,0 +1,94 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+/**
+ * Typo tolerance for {@link IntentMatcher}: message tokens the knowledge base never uses are
+ * corrected to the closest knowledge base token ("chatbo" to "chatbot", "humanno" to "humano")
+ * before the keyword scan.
+ * <p>
+ * Tokens shorter than {@link #MIN_TOKEN_LENGTH} or containing digits are never corrected;
+ * tokens shorter than {@link #LONG_TOKEN_LENGTH} accept at most one edit. An occurrence made
+ * only of exact tokens scores {@code exactWeight}, one using a corrected token scores
+ * {@code correctedWeight}, so an exact keyword still beats a guessed one.
+ *
+ * @param maxDistance largest edit distance of a correction (1 or 2)
+ * @param exactWeight score of an occurrence made only of exact tokens (at least 1)
+ * @param correctedWeight score of an occurrence with a corrected token (1..exactWeight)
+ */
+public record FuzzyMatching(int maxDistance, int exactWeight, int correctedWeight) {
+
+    public static final int DEFAULT_MAX_DISTANCE = 2;
+    public static final int DEFAULT_EXACT_WEIGHT = 2;
+    public static final int DEFAULT_CORRECTED_WEIGHT = 1;
+
+    static final int MIN_TOKEN_LENGTH = 4;
+    static final int LONG_TOKEN_LENGTH = 7;
+
+    public FuzzyMatching {
+        if (maxDistance < 1 || maxDistance > 2) {
+            throw new IllegalArgumentException("maxDistance must be 1 or 2");
+        }
+        if (exactWeight < 1 || correctedWeight < 1 || correctedWeight > exactWeight) {
+            throw new IllegalArgumentException("weights must satisfy 1 <= correctedWeight <= exactWeight");
+        }
+    }
+
+    /**
+     * @param maxDistance largest edit distance of a correction (1 or 2), with the default weights
+     */
+    public static FuzzyMatching withMaxDistance(int maxDistance) {
+        return new FuzzyMatching(maxDistance, DEFAULT_EXACT_WEIGHT, DEFAULT_CORRECTED_WEIGHT);
+    }
+
+    /**
+     * Builds the correction index of {@code index} now instead of on the first query.
+     */
+    public void prepare(IntentIndex index) {
+        if (index != null) {
+            index.corrector(maxDistance);
+        }
+    }
+
+    /**
+     * Replaces {@link TokenDictionary#UNKNOWN} ids of {@code ids[0 .. end - from)}, encoded from
+     * message tokens {@code [from, end)}, by their correction when there is one.
+     *
+     * @return flags of the corrected positions, or null when nothing was corrected
+     */
+    boolean[] correct(int[] ids, TokenBuffer messageTokens, int from, IntentIndex index) {
+        boolean[] corrected = null;
+        TokenCorrector corrector = null;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != TokenDictionary.UNKNOWN) {
+                continue;
+            }
+            int length = messageTokens.length(from + i);
+            if (length < MIN_TOKEN_LENGTH || hasDigit(messageTokens, from + i)) {
+                continue;
+            }
+
+            if (corrector == null) {
+                corrector = index.corrector(maxDistance);
+            }
+            int id = corrector.correct(messageTokens.token(from + i), length < LONG_TOKEN_LENGTH ? 1 : maxDistance);
+            if (id != TokenDictionary.UNKNOWN) {
+                ids[i] = id;
+                if (corrected == null) {
+                    corrected = new boolean[ids.length];
+                }
+                corrected[i] = true;
+            }
+        }
+        return corrected;
+    }
+
+    private static boolean hasDigit(TokenBuffer messageTokens, int token) {
+        char[] chars = messageTokens.chars();
+        int start = messageTokens.start(token);
+        for (int i = start; i < start + messageTokens.length(token); i++) {
+            if (chars[i] >= '0' && chars[i] <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
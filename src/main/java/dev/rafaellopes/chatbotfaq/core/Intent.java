@@ -19,6 +19,13 @@ public class Intent {
         // Default constructor required by Jackson
     }
 
+    public Intent(String intentName, List<String> keywords, String response, int priority) {
+        this.intentName = intentName;
+        this.keywords = keywords;
+        this.response = response;
+        this.priority = priority;
+    }
+
     public String getIntent() {
         return intentName;
     }
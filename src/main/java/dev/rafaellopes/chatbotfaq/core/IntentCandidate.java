@@ -0,0 +1,14 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.List;
+
+/**
+ * One ranked candidate from {@link IntentMatcher#findTopIntents}, e.g. for "did you mean" suggestions.
+ *
+ * @param intent candidate intent
+ * @param score score under the matcher's {@link ScoringEngine} (always > 0)
+ * @param priority tie-break priority of the intent
+ * @param matchedKeywords keywords of the intent found in the message, in JSON order
+ */
+public record IntentCandidate(Intent intent, int score, int priority, List<String> matchedKeywords) {
+}
@@ -0,0 +1,716 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compiled, immutable view of the knowledge base used by {@link IntentMatcher}.
+ * Keywords are tokenized once at build time and interned into a {@link TokenDictionary};
+ * identical phrases are merged into a single pattern of a {@link KeywordAutomaton}.
+ * Pattern owners are kept in flat arrays: the intents owning pattern {@code p} are
+ * {@code owners[ownerStart[p] .. ownerStart[p + 1])}, repeated once per keyword entry;
+ * {@code ownerKeywords} holds, at the same positions, which keyword of the owner it was.
+ * <p>
+ * {@link #withIntent} and {@link #withoutIntent} derive new versions copy-on-write: the
+ * compiled index is kept as the base layer and each change is compiled into a small layer on
+ * top of it, which hides the positions it redefines in every older layer. Change layers are
+ * merged like a binary counter, so there are O(log changes) of them, and the whole version is
+ * recompiled into a single index once the changes reach a quarter of the base. A change costs
+ * time proportional to its own size, amortized, whatever the size of the knowledge base.
+ */
+public final class IntentIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final IntentIndex EMPTY = build(List.of());
+
+    // Changes, relative to the base size, past which a layered version is recompiled.
+    private static final int COMPACT_DIVISOR = 4;
+
+    private final List<Intent> source;
+    private final int sourceSize;
+    private final int[] priorities;
+    private final TokenDictionary dictionary;
+    private final KeywordAutomaton automaton;
+    private final int[] ownerStart;
+    private final int[] owners;
+    private final int[] ownerKeywords;
+
+    // Layered versions only: base first, newest change last; null for a compiled index.
+    private final Layer[] layers;
+    private final TokenInterner shared;
+
+    // Derived on demand (fuzzy matching, BM25 scoring, edits); not part of snapshots.
+    private volatile TokenCorrector corrector;
+    private volatile Bm25Weights bm25;
+    private volatile Map<String, Integer> positionsByName;
+    private volatile IntentIndex flattened;
+
+    private IntentIndex(List<Intent> source, TokenDictionary dictionary, KeywordAutomaton automaton,
+                        int[] ownerStart, int[] owners, int[] ownerKeywords) {
+        this.layers = null;
+        this.shared = null;
+        this.source = source;
+        this.sourceSize = source.size();
+        this.priorities = new int[sourceSize];
+        for (int i = 0; i < sourceSize; i++) {
+            Intent intent = source.get(i);
+            priorities[i] = intent == null ? 0 : intent.getPriority();
+        }
+        this.dictionary = dictionary;
+        this.automaton = automaton;
+        this.ownerStart = ownerStart;
+        this.owners = owners;
+        this.ownerKeywords = ownerKeywords;
+    }
+
+    private IntentIndex(Layer[] layers, int size, TokenInterner shared) {
+        this.layers = layers;
+        this.shared = shared;
+        this.source = null;
+        this.sourceSize = size;
+        this.priorities = null;
+        this.dictionary = null;
+        this.automaton = null;
+        this.ownerStart = null;
+        this.owners = null;
+        this.ownerKeywords = null;
+    }
+
+    /**
+     * One level of a layered version: its intents compiled on their own, in global order.
+     *
+     * @param index intents of this layer
+     * @param positions global position of each intent of {@code index}, ascending; null = the same
+     *                  positions (base layer)
+     * @param removed global positions this layer removes, ascending
+     */
+    private record Layer(IntentIndex index, int[] positions, int[] removed) {
+
+        int localOf(int position) {
+            if (positions == null) {
+                return position < index.size() ? position : -1;
+            }
+            int local = Arrays.binarySearch(positions, position);
+            return local >= 0 ? local : -1;
+        }
+
+        int globalOf(int local) {
+            return positions == null ? local : positions[local];
+        }
+
+        boolean removes(int position) {
+            return Arrays.binarySearch(removed, position) >= 0;
+        }
+
+        int changes() {
+            return index.size() + removed.length;
+        }
+    }
+
+    /**
+     * Builds the index from intents in JSON order (as returned by {@link IntentLoader#load}).
+     * Null intents and blank keywords are ignored, as they never score. The index keeps its
+     * own copy of the list: changing {@code intents} afterwards does not affect it.
+     *
+     * @param intents list of intents (may be null/empty)
+     * @return compiled index
+     */
+    public static IntentIndex build(List<Intent> intents) {
+        if (intents == null) {
+            return builder().build();
+        }
+        // Not List.copyOf: null entries keep their JSON position.
+        return build(Collections.unmodifiableList(new ArrayList<>(intents)), null);
+    }
+
+    private static IntentIndex build(List<Intent> intents, TokenInterner shared) {
+        Builder builder = new Builder(intents, false, shared);
+        for (int i = 0; i < intents.size(); i++) {
+            builder.index(i, intents.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return builder that indexes intents as they are added, e.g. while a loader is still parsing
+     */
+    public static Builder builder() {
+        return new Builder(new ArrayList<>(), true, null);
+    }
+
+    /**
+     * @param shared pool shared with other knowledge bases: tokens, intent names and keywords
+     *               of the added intents are stored as its instances
+     * @return builder that indexes intents as they are added
+     */
+    public static Builder builder(TokenInterner shared) {
+        return new Builder(new ArrayList<>(), true, shared);
+    }
+
+    /**
+     * Incremental form of {@link #build(List)}: each added intent is tokenized and interned
+     * right away, so only the automaton is left for {@link #build()}. Single use.
+     */
+    public static final class Builder {
+
+        private final List<Intent> source;
+        private final boolean ownsSource;
+        private final TokenInterner shared;
+        private final TokenDictionary.Builder dictionary;
+        private final Map<String, Integer> patternIds = new HashMap<>();
+        private final List<int[]> patterns = new ArrayList<>();
+        private final List<int[]> ownerPairs = new ArrayList<>();
+
+        private boolean built;
+
+        private Builder(List<Intent> source, boolean ownsSource, TokenInterner shared) {
+            this.source = source;
+            this.ownsSource = ownsSource;
+            this.shared = shared;
+            this.dictionary = TokenDictionary.builder(shared);
+        }
+
+        /**
+         * Appends an intent at the next JSON position.
+         */
+        public Builder add(Intent intent) {
+            if (built || !ownsSource) {
+                throw new IllegalStateException("builder already used");
+            }
+            Intent stored = shared == null ? intent : interned(intent, shared);
+            source.add(stored);
+            index(source.size() - 1, stored);
+            return this;
+        }
+
+        private void index(int position, Intent intent) {
+            if (intent == null || intent.getKeywords() == null) {
+                return;
+            }
+
+            List<String> keywords = intent.getKeywords();
+            for (int k = 0; k < keywords.size(); k++) {
+                List<String> tokens = IntentMatcher.tokenize(keywords.get(k));
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+
+                String phraseKey = String.join(" ", tokens);
+                Integer patternId = patternIds.get(phraseKey);
+                if (patternId == null) {
+                    patternId = patterns.size();
+                    patternIds.put(phraseKey, patternId);
+                    patterns.add(dictionary.internAll(tokens));
+                }
+                // One entry per keyword: a repeated keyword keeps counting twice.
+                ownerPairs.add(new int[]{patternId, position, k});
+            }
+        }
+
+        public IntentIndex build() {
+            if (built) {
+                throw new IllegalStateException("builder already used");
+            }
+            built = true;
+
+            int[] ownerStart = new int[patterns.size() + 1];
+            for (int[] pair : ownerPairs) {
+                ownerStart[pair[0] + 1]++;
+            }
+            for (int p = 0; p < patterns.size(); p++) {
+                ownerStart[p + 1] += ownerStart[p];
+            }
+            int[] owners = new int[ownerPairs.size()];
+            int[] ownerKeywords = new int[ownerPairs.size()];
+            int[] fill = ownerStart.clone();
+            for (int[] pair : ownerPairs) {
+                int slot = fill[pair[0]]++;
+                owners[slot] = pair[1];
+                ownerKeywords[slot] = pair[2];
+            }
+
+            TokenDictionary tokens = dictionary.build();
+            List<Intent> intents = ownsSource ? Collections.unmodifiableList(source) : source;
+            return new IntentIndex(intents, tokens, KeywordAutomaton.build(patterns, tokens.size()), ownerStart, owners,
+                    ownerKeywords);
+        }
+    }
+
+    /**
+     * @return number of intents (including null entries) in the source list
+     */
+    public int size() {
+        return sourceSize;
+    }
+
+    Intent intentAt(int index) {
+        if (layers != null) {
+            int layer = layerOf(index);
+            return layer < 0 ? null : layers[layer].index().intentAt(layers[layer].localOf(index));
+        }
+        return source.get(index);
+    }
+
+    int priorityAt(int index) {
+        if (layers != null) {
+            int layer = layerOf(index);
+            return layer < 0 ? 0 : layers[layer].index().priorityAt(layers[layer].localOf(index));
+        }
+        return priorities[index];
+    }
+
+    /**
+     * New version of this index where {@code intent} replaces the intent with the same name,
+     * keeping its JSON position, or is appended after the last intent when there is none.
+     * This index is left unchanged, so matches running on it are not affected.
+     *
+     * @throws IllegalArgumentException when the intent has no name
+     */
+    public IntentIndex withIntent(Intent intent) {
+        return withIntent(intent, null);
+    }
+
+    /**
+     * @param shared pool the index is built with: the intent's name, keywords and tokens are
+     *               stored as its instances (null = none)
+     */
+    public IntentIndex withIntent(Intent intent, TokenInterner shared) {
+        if (intent == null || intent.getIntent() == null) {
+            throw new IllegalArgumentException("intent must have a name");
+        }
+        int position = positionOf(intent.getIntent());
+        Intent stored = shared == null ? intent : interned(intent, shared);
+        return withChange(position < 0 ? sourceSize : position, stored, shared);
+    }
+
+    /**
+     * New version of this index without the intent named {@code name}; the positions of the
+     * other intents, and so their JSON-order tie-break, do not change.
+     *
+     * @throws IllegalArgumentException when there is no intent with that name
+     */
+    public IntentIndex withoutIntent(String name) {
+        return withoutIntent(name, null);
+    }
+
+    /**
+     * @param shared pool the index is built with (null = none)
+     */
+    public IntentIndex withoutIntent(String name, TokenInterner shared) {
+        int position = name == null ? -1 : positionOf(name);
+        if (position < 0) {
+            throw new IllegalArgumentException("unknown intent: " + name);
+        }
+        return withChange(position, null, shared);
+    }
+
+    /**
+     * @return position of the first intent named {@code name}, or -1
+     */
+    int positionOf(String name) {
+        if (layers == null) {
+            Integer position = namePositions().get(name);
+            return position == null ? -1 : position;
+        }
+        for (int layer = layers.length - 1; layer >= 0; layer--) {
+            int local = layers[layer].index().positionOf(name);
+            if (local >= 0) {
+                int position = layers[layer].globalOf(local);
+                if (layerOf(position) == layer) {
+                    return position;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Map<String, Integer> namePositions() {
+        Map<String, Integer> built = positionsByName;
+        if (built == null) {
+            built = new HashMap<>();
+            for (int i = 0; i < sourceSize; i++) {
+                Intent intent = source.get(i);
+                if (intent != null && intent.getIntent() != null) {
+                    built.putIfAbsent(intent.getIntent(), i);
+                }
+            }
+            positionsByName = built;
+        }
+        return built;
+    }
+
+    /**
+     * @param intent new intent at {@code position}, null to remove it
+     */
+    private IntentIndex withChange(int position, Intent intent, TokenInterner pool) {
+        TokenInterner shared = pool != null ? pool : this.shared;
+        List<Layer> stack = new ArrayList<>(layers == null
+                ? List.of(new Layer(this, null, NO_POSITIONS))
+                : Arrays.asList(layers));
+        stack.add(intent == null
+                ? new Layer(EMPTY, NO_POSITIONS, new int[]{position})
+                : new Layer(build(List.of(intent), shared), new int[]{position}, NO_POSITIONS));
+
+        // Each change layer stays larger than the next newer one.
+        while (stack.size() > 2 && stack.get(stack.size() - 2).changes() <= stack.get(stack.size() - 1).changes()) {
+            Layer newer = stack.remove(stack.size() - 1);
+            Layer older = stack.remove(stack.size() - 1);
+            stack.add(merge(older, newer, shared));
+        }
+
+        IntentIndex next = new IntentIndex(stack.toArray(new Layer[0]), Math.max(sourceSize, position + 1), shared);
+        int changes = 0;
+        for (int layer = 1; layer < stack.size(); layer++) {
+            changes += stack.get(layer).changes();
+        }
+        return changes * COMPACT_DIVISOR >= stack.get(0).changes() ? next.flattened() : next;
+    }
+
+    /**
+     * @return one layer holding both layers' changes, {@code newer} winning where they overlap
+     */
+    private static Layer merge(Layer older, Layer newer, TokenInterner shared) {
+        int[] touched = Stream.of(older.positions(), older.removed(), newer.positions(), newer.removed())
+                .flatMapToInt(IntStream::of)
+                .sorted()
+                .distinct()
+                .toArray();
+        List<Intent> intents = new ArrayList<>(touched.length);
+        int[] kept = new int[touched.length];
+        int[] removed = new int[touched.length];
+        int keptCount = 0;
+        int removedCount = 0;
+        for (int position : touched) {
+            int local = newer.localOf(position);
+            Layer owner = local >= 0 || newer.removes(position) ? newer : older;
+            if (owner == older) {
+                local = older.localOf(position);
+            }
+            if (local >= 0) {
+                intents.add(owner.index().intentAt(local));
+                kept[keptCount++] = position;
+            } else {
+                removed[removedCount++] = position;
+            }
+        }
+        return new Layer(build(Collections.unmodifiableList(intents), shared), Arrays.copyOf(kept, keptCount),
+                Arrays.copyOf(removed, removedCount));
+    }
+
+    /**
+     * @return true for a version made by {@link #withIntent} or {@link #withoutIntent} that still has layers
+     */
+    boolean isLayered() {
+        return layers != null;
+    }
+
+    int layerCount() {
+        return layers == null ? 1 : layers.length;
+    }
+
+    /**
+     * @return compiled index of layer {@code layer}, oldest first; this index when it has no layers
+     */
+    IntentIndex layer(int layer) {
+        return layers == null ? this : layers[layer].index();
+    }
+
+    /**
+     * @return layer defining global position {@code position}, or -1 when it was removed
+     */
+    int layerOf(int position) {
+        if (layers == null) {
+            return 0;
+        }
+        for (int layer = layers.length - 1; layer >= 0; layer--) {
+            if (layers[layer].localOf(position) >= 0) {
+                return layer;
+            }
+            if (layers[layer].removes(position)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    int globalPosition(int layer, int local) {
+        return layers == null ? local : layers[layer].globalOf(local);
+    }
+
+    int localPosition(int layer, int position) {
+        return layers == null ? position : layers[layer].localOf(position);
+    }
+
+    /**
+     * @return this version compiled into a single index with the same positions (removed
+     *         intents become null entries), built on first use; this index when it has no layers
+     */
+    IntentIndex flattened() {
+        if (layers == null) {
+            return this;
+        }
+        IntentIndex built = flattened;
+        if (built == null) {
+            List<Intent> intents = new ArrayList<>(Collections.nCopies(sourceSize, null));
+            for (Layer layer : layers) {
+                for (int local = 0; local < layer.index().size(); local++) {
+                    intents.set(layer.globalOf(local), layer.index().intentAt(local));
+                }
+                for (int position : layer.removed()) {
+                    intents.set(position, null);
+                }
+            }
+            built = build(Collections.unmodifiableList(intents), shared);
+            flattened = built;
+        }
+        return built;
+    }
+
+    TokenDictionary dictionary() {
+        return dictionary;
+    }
+
+    KeywordAutomaton automaton() {
+        return automaton;
+    }
+
+    int patternCount() {
+        return ownerStart.length - 1;
+    }
+
+    int ownersFrom(int patternId) {
+        return ownerStart[patternId];
+    }
+
+    int ownersTo(int patternId) {
+        return ownerStart[patternId + 1];
+    }
+
+    int ownerAt(int position) {
+        return owners[position];
+    }
+
+    /**
+     * @return position, within its intent's keyword list, of the keyword behind owner entry {@code position}
+     */
+    int ownerKeywordAt(int position) {
+        return ownerKeywords[position];
+    }
+
+    /**
+     * @return typo correction index over this knowledge base's tokens, built on first use
+     */
+    TokenCorrector corrector(int maxDistance) {
+        if (layers != null) {
+            return flattened().corrector(maxDistance);
+        }
+        TokenCorrector built = corrector;
+        if (built == null || built.maxDistance() != maxDistance) {
+            built = TokenCorrector.build(dictionary, maxDistance);
+            corrector = built;
+        }
+        return built;
+    }
+
+    /**
+     * @return BM25 weights of this knowledge base's keyword phrases, computed on first use
+     */
+    Bm25Weights bm25() {
+        if (layers != null) {
+            return flattened().bm25();
+        }
+        Bm25Weights built = bm25;
+        if (built == null) {
+            built = Bm25Weights.build(this);
+            bm25 = built;
+        }
+        return built;
+    }
+
+    /**
+     * Estimated heap footprint of this index, split by ownership. Strings held by {@code shared}
+     * are counted once under {@link MemoryUsage#sharedBytes()}; everything else (arrays, intents,
+     * responses, strings of other pools) is private to this knowledge base. Structures derived
+     * on demand (typo correction, BM25 weights, name lookup) are not included.
+     *
+     * @param shared pool used to build this index, null = everything is private
+     */
+    public MemoryUsage memoryUsage(TokenInterner shared) {
+        Set<String> sharedStrings = Collections.newSetFromMap(new IdentityHashMap<>());
+        long privateBytes;
+        if (layers == null) {
+            privateBytes = privateBytes(shared, sharedStrings);
+        } else {
+            // Every layer is counted: they are what this version holds, even when shared with others.
+            privateBytes = MemoryEstimate.object(12 * MemoryEstimate.REFERENCE + Integer.BYTES)
+                    + MemoryEstimate.referenceArray(layers.length);
+            for (Layer layer : layers) {
+                privateBytes += MemoryEstimate.object(3 * MemoryEstimate.REFERENCE)
+                        + (layer.positions() == null ? 0 : MemoryEstimate.intArray(layer.positions().length))
+                        + MemoryEstimate.intArray(layer.removed().length)
+                        + layer.index().privateBytes(shared, sharedStrings);
+            }
+        }
+
+        long sharedBytes = 0;
+        for (String value : sharedStrings) {
+            sharedBytes += MemoryEstimate.string(value);
+        }
+        return new MemoryUsage(privateBytes, sharedBytes, sharedStrings.size());
+    }
+
+    private long privateBytes(TokenInterner shared, Set<String> sharedStrings) {
+        long privateBytes = MemoryEstimate.object(12 * MemoryEstimate.REFERENCE + Integer.BYTES)
+                + MemoryEstimate.intArray(priorities.length)
+                + MemoryEstimate.intArray(ownerStart.length)
+                + MemoryEstimate.intArray(owners.length)
+                + MemoryEstimate.intArray(ownerKeywords.length)
+                + MemoryEstimate.referenceArray(sourceSize)
+                + dictionary.estimatedBytes()
+                + automaton.estimatedBytes();
+
+        for (int id = 0; id < dictionary.size(); id++) {
+            privateBytes += stringBytes(dictionary.tokenOf(id), shared, sharedStrings);
+        }
+        for (Intent intent : source) {
+            if (intent == null) {
+                continue;
+            }
+            privateBytes += MemoryEstimate.object(3 * MemoryEstimate.REFERENCE + Integer.BYTES);
+            privateBytes += stringBytes(intent.getIntent(), shared, sharedStrings);
+            privateBytes += stringBytes(intent.getResponse(), shared, sharedStrings);
+            List<String> keywords = intent.getKeywords();
+            if (keywords != null) {
+                privateBytes += MemoryEstimate.object(2 * Integer.BYTES + MemoryEstimate.REFERENCE)
+                        + MemoryEstimate.referenceArray(keywords.size());
+                for (String keyword : keywords) {
+                    privateBytes += stringBytes(keyword, shared, sharedStrings);
+                }
+            }
+        }
+        return privateBytes;
+    }
+
+    /**
+     * @param privateBytes estimated bytes only this knowledge base holds
+     * @param sharedBytes estimated bytes of the pooled strings it references (also referenced by others)
+     * @param sharedStrings number of pooled strings it references
+     */
+    public record MemoryUsage(long privateBytes, long sharedBytes, int sharedStrings) {
+
+        /**
+         * @return what this knowledge base would take on its own, without a shared pool
+         */
+        public long standaloneBytes() {
+            return privateBytes + sharedBytes;
+        }
+    }
+
+    private static long stringBytes(String value, TokenInterner shared, Set<String> sharedStrings) {
+        if (value == null) {
+            return 0;
+        }
+        if (shared != null && shared.holds(value)) {
+            sharedStrings.add(value);
+            return 0;
+        }
+        return MemoryEstimate.string(value);
+    }
+
+    /**
+     * @return copy of the intent whose name and keywords are the pooled instances
+     */
+    private static Intent interned(Intent intent, TokenInterner shared) {
+        if (intent == null) {
+            return null;
+        }
+        List<String> keywords = intent.getKeywords();
+        List<String> pooledKeywords = null;
+        if (keywords != null) {
+            pooledKeywords = new ArrayList<>(keywords.size());
+            for (String keyword : keywords) {
+                pooledKeywords.add(shared.intern(keyword));
+            }
+        }
+        return new Intent(shared.intern(intent.getIntent()), pooledKeywords, intent.getResponse(),
+                intent.getPriority());
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        if (layers != null) {
+            flattened().writeTo(out);
+            return;
+        }
+        out.writeInt(sourceSize);
+        for (Intent intent : source) {
+            out.writeBoolean(intent != null);
+            if (intent == null) {
+                continue;
+            }
+            KnowledgeBaseSnapshotFile.writeString(out, intent.getIntent());
+            KnowledgeBaseSnapshotFile.writeString(out, intent.getResponse());
+            out.writeInt(intent.getPriority());
+
+            List<String> keywords = intent.getKeywords();
+            out.writeInt(keywords == null ? -1 : keywords.size());
+            if (keywords != null) {
+                for (String keyword : keywords) {
+                    KnowledgeBaseSnapshotFile.writeString(out, keyword);
+                }
+            }
+        }
+
+        dictionary.writeTo(out);
+        automaton.writeTo(out);
+        KnowledgeBaseSnapshotFile.writeInts(out, ownerStart);
+        KnowledgeBaseSnapshotFile.writeInts(out, owners);
+        KnowledgeBaseSnapshotFile.writeInts(out, ownerKeywords);
+    }
+
+    /**
+     * @param shared pool for tokens, intent names and keywords, null = keep the decoded strings
+     */
+    static IntentIndex readFrom(ByteBuffer in, TokenInterner shared) {
+        int size = in.getInt();
+        List<Intent> intents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (in.get() == 0) {
+                intents.add(null);
+                continue;
+            }
+            String name = KnowledgeBaseSnapshotFile.readString(in);
+            String response = KnowledgeBaseSnapshotFile.readString(in);
+            int priority = in.getInt();
+
+            int keywordCount = in.getInt();
+            List<String> keywords = null;
+            if (keywordCount >= 0) {
+                keywords = new ArrayList<>(keywordCount);
+                for (int k = 0; k < keywordCount; k++) {
+                    keywords.add(KnowledgeBaseSnapshotFile.readString(in));
+                }
+            }
+            Intent intent = new Intent(name, keywords, response, priority);
+            intents.add(shared == null ? intent : interned(intent, shared));
+        }
+
+        TokenDictionary dictionary = TokenDictionary.readFrom(in, shared);
+        KeywordAutomaton automaton = KeywordAutomaton.readFrom(in);
+        int[] ownerStart = KnowledgeBaseSnapshotFile.readInts(in);
+        int[] owners = KnowledgeBaseSnapshotFile.readInts(in);
+        int[] ownerKeywords = KnowledgeBaseSnapshotFile.readInts(in);
+        return new IntentIndex(Collections.unmodifiableList(intents), dictionary, automaton, ownerStart, owners,
+                ownerKeywords);
+    }
+}
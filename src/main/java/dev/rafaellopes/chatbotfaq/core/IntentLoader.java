@@ -1,29 +1,37 @@
 package dev.rafaellopes.chatbotfaq.core;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Loads intents from an external JSON file outside the JAR.
  * Ensures UTF-8 encoding for cross-platform compatibility.
+ * <p>
+ * The file is read with a streaming {@link JsonParser}: one intent object is bound at a
+ * time and handed to a consumer, so memory stays bounded by the largest entry (plus
+ * whatever the consumer keeps). Each entry is validated as it is read; the first invalid
+ * entry aborts the load with its line and column.
  */
 public class IntentLoader {
 
     private static final Logger log = LoggerFactory.getLogger(IntentLoader.class);
 
-    private static final TypeReference<List<Intent>> INTENT_LIST = new TypeReference<>() {};
-
     private final ObjectMapper objectMapper;
 
     public IntentLoader(ObjectMapper objectMapper) {
@@ -31,10 +39,41 @@ public class IntentLoader {
     }
 
     public List<Intent> load(Path path) {
+        List<Intent> intents = new ArrayList<>();
+        stream(path, intents::add);
+        return intents;
+    }
+
+    /**
+     * Parses and indexes in one pass, without materializing the intent list first.
+     */
+    public IntentIndex loadIndex(Path path) {
+        return loadIndex(path, null);
+    }
+
+    /**
+     * Like {@link #loadIndex(Path)}, storing tokens, intent names and keywords as instances of
+     * {@code shared}, the pool of the other knowledge bases loaded in this JVM.
+     */
+    public IntentIndex loadIndex(Path path, TokenInterner shared) {
+        IntentIndex.Builder builder = shared == null ? IntentIndex.builder() : IntentIndex.builder(shared);
+        stream(path, builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Emits intents to {@code consumer} in JSON order as they are parsed.
+     *
+     * @return number of intents emitted
+     * @throws IllegalStateException when the file is missing, malformed or an entry is invalid;
+     *                               intents emitted before the failure must be discarded
+     */
+    public int stream(Path path, Consumer<Intent> consumer) {
         if (path == null) {
             log.warn("Knowledge base load failed: path is null");
             throw new IllegalArgumentException("path must not be null");
         }
+        Objects.requireNonNull(consumer, "consumer must not be null");
 
         Path absolutePath = path.toAbsolutePath();
         log.info("Loading knowledge base from: {}", absolutePath);
@@ -49,13 +88,87 @@ public class IntentLoader {
             throw new IllegalStateException("knowledge base path is not a file: " + absolutePath);
         }
 
-        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
-            List<Intent> intents = objectMapper.readValue(reader, INTENT_LIST);
-            log.info("Knowledge base loaded successfully: {} intents", intents == null ? 0 : intents.size());
-            return intents;
+        // Byte input lets Jackson use its UTF-8 parser directly (JSON files are UTF-8 by spec).
+        try (InputStream in = Files.newInputStream(path);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            int count = readIntents(parser, absolutePath, consumer);
+            log.info("Knowledge base loaded successfully: {} intents", count);
+            return count;
+        } catch (JsonProcessingException e) {
+            log.warn("Knowledge base load failed: invalid JSON: {}", absolutePath);
+            throw new IllegalStateException("failed to load knowledge base JSON: " + absolutePath
+                    + " (" + position(e.getLocation()) + "): " + e.getOriginalMessage(), e);
         } catch (IOException e) {
             log.warn("Knowledge base load failed: invalid JSON or unreadable file: {}", absolutePath);
             throw new IllegalStateException("failed to load knowledge base JSON: " + absolutePath, e);
         }
     }
+
+    private int readIntents(JsonParser parser, Path absolutePath, Consumer<Intent> consumer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw invalid(absolutePath, parser.currentTokenLocation(), "expected a JSON array of intents");
+        }
+
+        // Name -> location of its first definition, for duplicate reporting.
+        Map<String, String> seen = new HashMap<>();
+        int count = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            JsonLocation location = parser.currentTokenLocation();
+            if (token != JsonToken.START_OBJECT) {
+                throw invalid(absolutePath, location, "expected an intent object");
+            }
+
+            Intent intent = objectMapper.readValue(parser, Intent.class);
+            validate(intent, location, seen, absolutePath);
+            consumer.accept(intent);
+            count++;
+        }
+        return count;
+    }
+
+    private static void validate(Intent intent, JsonLocation location, Map<String, String> seen, Path absolutePath) {
+        String name = intent.getIntent();
+        if (name == null || name.isBlank()) {
+            throw invalid(absolutePath, location, "intent name is missing");
+        }
+
+        String firstDefinition = seen.putIfAbsent(name, position(location));
+        if (firstDefinition != null) {
+            throw invalid(absolutePath, location, "duplicate intent '" + name + "' (first defined at " + firstDefinition + ")");
+        }
+
+        if (!hasKeyword(intent.getKeywords())) {
+            throw invalid(absolutePath, location, "intent '" + name + "' has no keywords");
+        }
+
+        if (intent.getResponse() == null || intent.getResponse().isBlank()) {
+            throw invalid(absolutePath, location, "intent '" + name + "' has an empty response");
+        }
+    }
+
+    private static boolean hasKeyword(List<String> keywords) {
+        if (keywords != null) {
+            for (String keyword : keywords) {
+                if (keyword != null && !keyword.isBlank()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static IllegalStateException invalid(Path absolutePath, JsonLocation location, String problem) {
+        log.warn("Knowledge base load failed: {} ({}): {}", absolutePath, position(location), problem);
+        return new IllegalStateException("invalid knowledge base: " + absolutePath
+                + " (" + position(location) + "): " + problem);
+    }
+
+    private static String position(JsonLocation location) {
+        if (location == null) {
+            return "unknown position";
+        }
+        return "line " + location.getLineNr() + ", column " + location.getColumnNr();
+    }
 }
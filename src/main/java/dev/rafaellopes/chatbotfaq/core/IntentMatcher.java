@@ -1,6 +1,7 @@
 package dev.rafaellopes.chatbotfaq.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,11 +12,63 @@ import java.util.Optional;
  * - Pick the highest score
  * - Tie-break by higher priority
  * - If still tied, pick the first intent as defined in JSON order
+ * {@link ScoringEngine#BM25} replaces the first rule with BM25 weights of the keywords found.
  */
 public class IntentMatcher {
 
+    private static final ThreadLocal<TokenBuffer> TOKEN_BUFFER = ThreadLocal.withInitial(TokenBuffer::new);
+
+    private final MatchStats stats;
+    private final ParallelScan parallelScan;
+    private final FuzzyMatching fuzzy;
+    private final ScoringEngine engine;
+
+    public IntentMatcher() {
+        this(null);
+    }
+
+    /**
+     * @param stats instrumentation to record every query into (null = none)
+     */
+    public IntentMatcher(MatchStats stats) {
+        this(stats, null);
+    }
+
+    /**
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     */
+    public IntentMatcher(MatchStats stats, ParallelScan parallelScan) {
+        this(stats, parallelScan, null);
+    }
+
+    /**
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     * @param fuzzy corrects misspelled message tokens (null = exact tokens only)
+     */
+    public IntentMatcher(MatchStats stats, ParallelScan parallelScan, FuzzyMatching fuzzy) {
+        this(stats, parallelScan, fuzzy, ScoringEngine.OCCURRENCES);
+    }
+
+    /**
+     * @param stats instrumentation to record every query into (null = none)
+     * @param parallelScan sums owners of widely shared keywords across a pool (null = always sequential)
+     * @param fuzzy corrects misspelled message tokens (null = exact tokens only)
+     * @param engine how found keywords are scored (null = {@link ScoringEngine#OCCURRENCES})
+     */
+    public IntentMatcher(MatchStats stats, ParallelScan parallelScan, FuzzyMatching fuzzy, ScoringEngine engine) {
+        this.stats = stats;
+        this.parallelScan = parallelScan;
+        this.fuzzy = fuzzy;
+        this.engine = engine == null ? ScoringEngine.OCCURRENCES : engine;
+    }
+
     /**
      * Finds the best matching intent for a given user message.
+     * The list is compiled into an {@link IntentIndex} on every call, so changes made to it
+     * between calls are always seen; callers matching many messages against the same
+     * knowledge base should build the index once and use {@link #findBestIntent(String, IntentIndex)}.
      *
      * @param userMessage raw user input (may be null)
      * @param intents list of intents in JSON order (may be null/empty)
@@ -26,151 +79,619 @@ public class IntentMatcher {
             return Optional.empty();
         }
 
-        List<String> messageTokens = tokenize(userMessage);
+        return findBestIntent(userMessage, IntentIndex.build(intents));
+    }
 
-        Intent bestIntent = null;
-        int bestScore = 0;
-        int bestPriority = Integer.MIN_VALUE;
+    /**
+     * Finds the best matching intent for a given user message using a prebuilt index.
+     *
+     * @param userMessage raw user input (may be null)
+     * @param index compiled knowledge base
+     * @return Optional of the best intent, empty when score == 0 or no intents
+     */
+    public Optional<Intent> findBestIntent(String userMessage, IntentIndex index) {
+        return findBestMatch(userMessage, index).map(ScoredIntent::intent);
+    }
 
-        for (Intent intent : intents) {
-            int score = 0;
+    /**
+     * Same selection as {@link #findBestIntent(String, IntentIndex)}, also reporting the score.
+     *
+     * @param userMessage raw user input (may be null)
+     * @param index compiled knowledge base
+     * @return Optional of the best intent and its score, empty when score == 0 or no intents
+     */
+    public Optional<ScoredIntent> findBestMatch(String userMessage, IntentIndex index) {
+        MatchStats recorder = stats;
+        if (recorder == null) {
+            return match(tokensOf(userMessage), index);
+        }
 
-            if (intent != null) {
-                score = score(messageTokens, intent.getKeywords());
-            }
+        if (!recorder.sampleNext()) {
+            Optional<ScoredIntent> match = match(tokensOf(userMessage), index);
+            recorder.recordResult(match);
+            return match;
+        }
 
-            if (intent == null || score == 0) {
-                continue;
-            }
+        long start = System.nanoTime();
+        TokenBuffer messageTokens = tokensOf(userMessage);
+        long tokenized = System.nanoTime();
+        Optional<ScoredIntent> match = match(messageTokens, index);
+        long end = System.nanoTime();
 
-            int priority = intent.getPriority();
+        recorder.recordTimings(tokenized - start, end - tokenized, end - start);
+        recorder.recordResult(match);
+        return match;
+    }
 
-            if (isBetterCandidate(score, priority, bestScore, bestPriority)) {
-                bestIntent = intent;
-                bestScore = score;
-                bestPriority = priority;
-            }
+    /**
+     * @return instrumentation this matcher records into, or null
+     */
+    public MatchStats stats() {
+        return stats;
+    }
+
+    /**
+     * @return typo tolerance settings, or null when only exact tokens match
+     */
+    public FuzzyMatching fuzzy() {
+        return fuzzy;
+    }
+
+    public ScoringEngine engine() {
+        return engine;
+    }
+
+    /**
+     * Builds what this matcher's settings derive from {@code index} (typo correction index,
+     * BM25 weights, and for an edited version under either one its flattened form) now
+     * instead of on the first query that needs it.
+     */
+    public void prepare(IntentIndex index) {
+        if (index == null) {
+            return;
+        }
+        index = scoredForm(index);
+        if (fuzzy != null) {
+            fuzzy.prepare(index);
         }
+        if (engine == ScoringEngine.BM25) {
+            index.bm25();
+        }
+    }
 
-        if (bestScore == 0) {
+    /**
+     * Tokenizes into this thread's reusable buffer; valid until the thread's next call.
+     */
+    static TokenBuffer tokensOf(String userMessage) {
+        TokenBuffer messageTokens = TOKEN_BUFFER.get();
+        messageTokens.clear();
+        TextNormalizer.tokenize(userMessage, messageTokens);
+        return messageTokens;
+    }
+
+    /**
+     * Selection over an already tokenized message; the step subclasses may short-circuit.
+     */
+    Optional<ScoredIntent> match(TokenBuffer messageTokens, IntentIndex index) {
+        if (index == null || index.size() == 0 || messageTokens.count() == 0) {
+            return Optional.empty();
+        }
+
+        index = scoredForm(index);
+        CandidateScores scores = scoreMessage(messageTokens, index);
+        int[] best = selectTop(scores, index, 1);
+        if (best.length == 0) {
             return Optional.empty();
         }
 
-        return Optional.of(bestIntent);
+        return Optional.of(new ScoredIntent(index.intentAt(scores.intents()[best[0]]), scores.scores()[best[0]]));
+    }
+
+    /**
+     * Ranks the {@code k} best candidates with the same ordering as {@link #findBestIntent(String, List)}:
+     * higher score, then higher priority, then JSON order.
+     *
+     * @param userMessage raw user input (may be null)
+     * @param intents list of intents in JSON order (may be null/empty)
+     * @param k maximum number of candidates (at least 1)
+     * @return best candidate first; empty when nothing scores
+     */
+    public List<IntentCandidate> findTopIntents(String userMessage, List<Intent> intents, int k) {
+        if (intents == null || intents.isEmpty()) {
+            requirePositive(k);
+            return List.of();
+        }
+
+        return findTopIntents(userMessage, IntentIndex.build(intents), k);
     }
 
-    private boolean isBetterCandidate(int score, int priority, int bestScore, int bestPriority) {
-        if (score > bestScore) {
-            return true;
+    /**
+     * Same as {@link #findTopIntents(String, List, int)} using a prebuilt index.
+     * {@code findBestMatch} is the {@code k = 1} case of this ranking, and the query is counted
+     * in {@link #stats()} the same way, with the first candidate as its result.
+     */
+    public List<IntentCandidate> findTopIntents(String userMessage, IntentIndex index, int k) {
+        requirePositive(k);
+        MatchStats recorder = stats;
+        if (recorder == null) {
+            return rank(tokensOf(userMessage), index, k);
         }
-        if (score < bestScore) {
-            return false;
+
+        if (!recorder.sampleNext()) {
+            List<IntentCandidate> candidates = rank(tokensOf(userMessage), index, k);
+            recorder.recordResult(bestOf(candidates));
+            return candidates;
         }
-        return priority > bestPriority;
+
+        long start = System.nanoTime();
+        TokenBuffer messageTokens = tokensOf(userMessage);
+        long tokenized = System.nanoTime();
+        List<IntentCandidate> candidates = rank(messageTokens, index, k);
+        long end = System.nanoTime();
+
+        recorder.recordTimings(tokenized - start, end - tokenized, end - start);
+        recorder.recordResult(bestOf(candidates));
+        return candidates;
+    }
+
+    private static Optional<ScoredIntent> bestOf(List<IntentCandidate> candidates) {
+        return candidates.isEmpty()
+                ? Optional.empty()
+                : Optional.of(new ScoredIntent(candidates.get(0).intent(), candidates.get(0).score()));
     }
 
-    private int score(List<String> messageTokens, List<String> keywords) {
-        if (messageTokens.isEmpty() || keywords == null || keywords.isEmpty()) {
-            return 0;
+    private List<IntentCandidate> rank(TokenBuffer messageTokens, IntentIndex index, int k) {
+        if (index == null || index.size() == 0 || messageTokens.count() == 0) {
+            return List.of();
         }
 
-        int total = 0;
+        index = scoredForm(index);
+        CandidateScores scores = scoreMessage(messageTokens, index);
+        int[] top = selectTop(scores, index, k);
+        if (top.length == 0) {
+            return List.of();
+        }
 
-        for (String keyword : keywords) {
-            List<String> keywordTokens = tokenize(keyword);
-            if (!keywordTokens.isEmpty()) {
-                total += countOccurrences(messageTokens, keywordTokens);
+        List<IntentCandidate> candidates = new ArrayList<>(top.length);
+        for (int position : top) {
+            int intentIndex = scores.intents()[position];
+            candidates.add(new IntentCandidate(index.intentAt(intentIndex), scores.scores()[position],
+                    index.priorityAt(intentIndex), matchedKeywords(scores, index, intentIndex)));
+        }
+        return candidates;
+    }
+
+    private static void requirePositive(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+    }
+
+    /**
+     * Typo correction and BM25 depend on the whole knowledge base (its vocabulary, its phrase
+     * frequencies), so with either one a layered version is scored in its flattened form,
+     * built once per version by {@link #prepare} (O(KB)) or else on its first query.
+     */
+    private IntentIndex scoredForm(IntentIndex index) {
+        return index.isLayered() && (fuzzy != null || engine == ScoringEngine.BM25) ? index.flattened() : index;
+    }
+
+    private CandidateScores scoreMessage(TokenBuffer messageTokens, IntentIndex index) {
+        if (index.isLayered()) {
+            return scoreLayers(messageTokens, index);
+        }
+        int[] ids = index.dictionary().encode(messageTokens);
+        boolean[] corrected = fuzzy == null ? null : fuzzy.correct(ids, messageTokens, 0, index);
+        return scoreHits(collectSortedHits(ids, corrected, index), index, fuzzy, engine, parallelScan);
+    }
+
+    /**
+     * Scores every layer of a layered version on its own and keeps, for each global position,
+     * the candidate of the layer that defines it: occurrence scores only depend on the
+     * intent's own keywords, so this is the score the flattened index would give.
+     */
+    private CandidateScores scoreLayers(TokenBuffer messageTokens, IntentIndex index) {
+        long[][] layerHits = new long[index.layerCount()][];
+        LongBuffer candidates = new LongBuffer();
+        for (int layer = 0; layer < layerHits.length; layer++) {
+            IntentIndex layerIndex = index.layer(layer);
+            if (layerIndex.size() == 0) {
+                layerHits[layer] = new long[0];
+                continue;
+            }
+            CandidateScores scores = scoreMessage(messageTokens, layerIndex);
+            layerHits[layer] = scores.sortedHits();
+            for (int c = 0; c < scores.size(); c++) {
+                int position = index.globalPosition(layer, scores.intents()[c]);
+                if (index.layerOf(position) == layer) {
+                    candidates.add(pack(position, scores.scores()[c]));
+                }
             }
         }
 
-        return total;
+        long[] sorted = candidates.toSortedArray();
+        int[] intents = new int[sorted.length];
+        int[] scores = new int[sorted.length];
+        for (int c = 0; c < sorted.length; c++) {
+            intents[c] = high(sorted[c]);
+            scores[c] = low(sorted[c]);
+        }
+        return new CandidateScores(intents, scores, sorted.length, new long[0], layerHits);
     }
 
     /**
-     * Tokenizes text for matching:
-     * - Reuses TextNormalizer (lowercase, remove accents, collapse spaces)
-     * - Converts non-alphanumeric to spaces
-     * - Splits by spaces
+     * Keeps the best {@code k} candidates in a bounded min-heap whose root is the weakest
+     * kept candidate: O(n log k) for n scored intents, no full sort.
+     *
+     * @return positions in {@code scores}, best first
      */
-    private List<String> tokenize(String text) {
-        String normalized = dev.rafaellopes.chatbotfaq.core.TextNormalizer.normalize(text);
-        if (normalized.isEmpty()) {
-            return List.of();
+    private static int[] selectTop(CandidateScores scores, IntentIndex index, int k) {
+        int[] heap = new int[Math.min(k, scores.size())];
+        int size = 0;
+
+        for (int c = 0; c < scores.size(); c++) {
+            if (scores.scores()[c] <= 0) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = c;
+                siftUp(heap, size++, scores, index);
+            } else if (heap.length > 0 && isBetter(c, heap[0], scores, index)) {
+                heap[0] = c;
+                siftDown(heap, size, scores, index);
+            }
+        }
+
+        // Pop the weakest first, filling from the back.
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores, index);
+        }
+        return ranked;
+    }
+
+    private static void siftUp(int[] heap, int position, CandidateScores scores, IntentIndex index) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isBetter(heap[parent], heap[position], scores, index)) {
+                return;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, CandidateScores scores, IntentIndex index) {
+        int position = 0;
+        while (true) {
+            int weakest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && isBetter(heap[weakest], heap[left], scores, index)) {
+                weakest = left;
+            }
+            if (right < size && isBetter(heap[weakest], heap[right], scores, index)) {
+                weakest = right;
+            }
+            if (weakest == position) {
+                return;
+            }
+            swap(heap, position, weakest);
+            position = weakest;
         }
+    }
 
-        String alphaNumOnly = convertNonAlphanumericToSpaces(normalized);
-        return extractTokens(alphaNumOnly);
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
     }
 
-    private String convertNonAlphanumericToSpaces(String text) {
-        StringBuilder sb = new StringBuilder(text.length());
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            boolean isAlphaNum = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
-            sb.append(isAlphaNum ? c : ' ');
+    /**
+     * @return true when candidate {@code a} ranks before candidate {@code b}
+     */
+    private static boolean isBetter(int a, int b, CandidateScores scores, IntentIndex index) {
+        int intentA = scores.intents()[a];
+        int intentB = scores.intents()[b];
+        return isBetterCandidate(scores.scores()[a], index.priorityAt(intentA), intentA,
+                scores.scores()[b], index.priorityAt(intentB), intentB);
+    }
+
+    private static List<String> matchedKeywords(CandidateScores scores, IntentIndex index, int intentIndex) {
+        if (scores.layerHits() == null) {
+            return matchedKeywords(scores.sortedHits(), index, intentIndex);
         }
-        return sb.toString();
+        int layer = index.layerOf(intentIndex);
+        return matchedKeywords(scores.layerHits()[layer], index.layer(layer), index.localPosition(layer, intentIndex));
     }
 
-    private List<String> extractTokens(String text) {
-        List<String> tokens = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
+    /**
+     * Keywords of {@code intentIndex} whose phrase occurs in the hits, in JSON order.
+     */
+    private static List<String> matchedKeywords(long[] sortedHits, IntentIndex index, int intentIndex) {
+        List<String> keywords = index.intentAt(intentIndex).getKeywords();
+        boolean[] matched = new boolean[keywords.size()];
 
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == ' ') {
-                if (!current.isEmpty()) {
-                    tokens.add(current.toString());
-                    current.setLength(0);
+        int previousPattern = -1;
+        for (long hit : sortedHits) {
+            int patternId = high(hit);
+            if (patternId == previousPattern) {
+                continue;
+            }
+            previousPattern = patternId;
+            for (int o = index.ownersFrom(patternId); o < index.ownersTo(patternId); o++) {
+                if (index.ownerAt(o) == intentIndex) {
+                    matched[index.ownerKeywordAt(o)] = true;
                 }
-            } else {
-                current.append(c);
             }
         }
 
-        if (!current.isEmpty()) {
-            tokens.add(current.toString());
+        List<String> result = new ArrayList<>();
+        for (int k = 0; k < matched.length; k++) {
+            if (matched[k]) {
+                result.add(keywords.get(k));
+            }
         }
+        return List.copyOf(result);
+    }
 
-        return tokens;
+    /**
+     * Runs the keyword automaton once over the message. An occurrence covering a position
+     * flagged in {@code corrected} (null = none) is marked as corrected.
+     *
+     * @return hits packed as {@code (patternId << 32) | start << 1 | corrected}, sorted
+     */
+    private static long[] collectSortedHits(int[] messageTokens, boolean[] corrected, IntentIndex index) {
+        KeywordAutomaton automaton = index.automaton();
+        LongBuffer hits = new LongBuffer();
+        automaton.scan(messageTokens, messageTokens.length, (patternId, start) -> {
+            boolean usesCorrection = false;
+            if (corrected != null) {
+                for (int i = start; i < start + automaton.patternLength(patternId) && !usesCorrection; i++) {
+                    usesCorrection = corrected[i];
+                }
+            }
+            hits.add(pack(patternId, start << 1 | (usesCorrection ? 1 : 0)));
+        });
+        return hits.toSortedArray();
     }
 
     /**
-     * Counts how many times a keyword token sequence appears in the message token list.
-     * Example:
-     * - message: ["falar","com","humano","agora"]
-     * - keyword: ["falar","com","humano"]
-     * => 1 occurrence
+     * Occurrences of the same phrase never overlap: after a match, the next k tokens are
+     * skipped for that phrase. Hits and per-intent sums are packed as
+     * {@code (key << 32) | value} longs and grouped by sorting, so scoring only allocates
+     * arrays sized to the hits. Without fuzzy matching every occurrence counts 1.
+     * <p>
+     * With {@link ScoringEngine#BM25}, a phrase found at least once adds its precomputed weight
+     * to each owning intent, scaled by {@code correctedWeight / exactWeight} when every
+     * occurrence needed a corrected token.
+     * <p>
+     * The phrases found are few; what grows with the knowledge base is the number of intents
+     * sharing them. Above the {@link ParallelScan} threshold of owner entries, the owners are
+     * summed in parallel by intent range.
      */
-    private int countOccurrences(List<String> messageTokens, List<String> keywordTokens) {
-        int m = messageTokens.size();
-        int k = keywordTokens.size();
+    private static CandidateScores scoreHits(long[] sortedHits, IntentIndex index, FuzzyMatching fuzzy,
+                                             ScoringEngine engine, ParallelScan scan) {
+        if (sortedHits.length == 0) {
+            return CandidateScores.EMPTY;
+        }
 
-        if (k == 0 || k > m) {
-            return 0;
+        KeywordAutomaton automaton = index.automaton();
+        Bm25Weights bm25 = engine == ScoringEngine.BM25 ? index.bm25() : null;
+        // Sorted hits come grouped by pattern with increasing start, as the greedy skip needs.
+        LongBuffer phrases = new LongBuffer();
+        long ownerEntries = 0;
+
+        int h = 0;
+        while (h < sortedHits.length) {
+            int patternId = high(sortedHits[h]);
+
+            if (bm25 != null) {
+                // A phrase counts once: only whether one occurrence is exact matters.
+                boolean exact = false;
+                for (; h < sortedHits.length && high(sortedHits[h]) == patternId; h++) {
+                    exact |= (low(sortedHits[h]) & 1) == 0;
+                }
+                phrases.add(pack(patternId, exact ? 1 : 0));
+                ownerEntries += bm25.postingsTo(patternId) - bm25.postingsFrom(patternId);
+                continue;
+            }
+
+            int length = automaton.patternLength(patternId);
+            int nextAllowedStart = 0;
+            int count = 0;
+
+            for (; h < sortedHits.length && high(sortedHits[h]) == patternId; h++) {
+                int start = low(sortedHits[h]) >>> 1;
+                if (start >= nextAllowedStart) {
+                    if (fuzzy == null) {
+                        count++;
+                    } else {
+                        count += (low(sortedHits[h]) & 1) == 0 ? fuzzy.exactWeight() : fuzzy.correctedWeight();
+                    }
+                    nextAllowedStart = start + length;
+                }
+            }
+            phrases.add(pack(patternId, count));
+            ownerEntries += index.ownersTo(patternId) - index.ownersFrom(patternId);
         }
 
-        int count = 0;
-        int i = 0;
+        long[] found = phrases.toArray();
+        long[] sums = scan != null && scan.appliesTo(ownerEntries)
+                ? scan.sumByIntentRange(found, index, bm25, fuzzy, ownerEntries)
+                : sumIntentRange(found, index, bm25, fuzzy, 0, index.size());
 
-        while (i <= m - k) {
-            boolean match = true;
+        int[] intents = new int[sums.length];
+        int[] scores = new int[sums.length];
+        for (int c = 0; c < sums.length; c++) {
+            intents[c] = high(sums[c]);
+            scores[c] = low(sums[c]);
+        }
+        return new CandidateScores(intents, scores, sums.length, sortedHits, null);
+    }
+
+    /**
+     * Adds up the contributions of the phrases found to the intents in {@code [from, to)}.
+     * Owners of a phrase are in JSON order, so a partial range is located by binary search.
+     *
+     * @param phrases {@code (patternId << 32) | value}: the phrase score, or for BM25 1 when one
+     *                occurrence is exact
+     * @return {@code (intent << 32) | score}, one per intent touched, ascending
+     */
+    static long[] sumIntentRange(long[] phrases, IntentIndex index, Bm25Weights bm25, FuzzyMatching fuzzy,
+                                 int from, int to) {
+        boolean whole = from == 0 && to >= index.size();
+        LongBuffer contributions = new LongBuffer();
 
-            for (int j = 0; j < k; j++) {
-                if (!messageTokens.get(i + j).equals(keywordTokens.get(j))) {
-                    match = false;
-                    break;
+        for (long phrase : phrases) {
+            int patternId = high(phrase);
+            int value = low(phrase);
+
+            if (bm25 != null) {
+                int first = bm25.postingsFrom(patternId);
+                int last = bm25.postingsTo(patternId);
+                if (!whole) {
+                    first = firstPostingAtLeast(bm25, first, last, from);
+                    last = firstPostingAtLeast(bm25, first, last, to);
+                }
+                if (value == 1) {
+                    for (int o = first; o < last; o++) {
+                        contributions.add(bm25.postingAt(o));
+                    }
+                } else {
+                    for (int o = first; o < last; o++) {
+                        int weight = Math.max(1, bm25.weightAt(o) * fuzzy.correctedWeight() / fuzzy.exactWeight());
+                        contributions.add(pack(bm25.intentAt(o), weight));
+                    }
                 }
+                continue;
             }
 
-            if (match) {
-                count++;
-                i += k;
+            int first = index.ownersFrom(patternId);
+            int last = index.ownersTo(patternId);
+            if (!whole) {
+                first = firstOwnerAtLeast(index, first, last, from);
+                last = firstOwnerAtLeast(index, first, last, to);
+            }
+            for (int o = first; o < last; o++) {
+                contributions.add(pack(index.ownerAt(o), value));
+            }
+        }
+
+        long[] sortedContributions = contributions.toSortedArray();
+        int size = 0;
+        for (long contribution : sortedContributions) {
+            if (size > 0 && high(sortedContributions[size - 1]) == high(contribution)) {
+                sortedContributions[size - 1] += low(contribution);
             } else {
-                i++;
+                sortedContributions[size++] = contribution;
+            }
+        }
+        return Arrays.copyOf(sortedContributions, size);
+    }
+
+    private static int firstOwnerAtLeast(IntentIndex index, int from, int to, int intent) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (index.ownerAt(middle) < intent) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int firstPostingAtLeast(Bm25Weights bm25, int from, int to, int intent) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (bm25.intentAt(middle) < intent) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static int high(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int low(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Intents touched by a query (ascending JSON index) with their occurrence scores,
+     * plus the sorted hits they were computed from; for a layered version, the hits of
+     * each layer instead.
+     */
+    private record CandidateScores(int[] intents, int[] scores, int size, long[] sortedHits, long[][] layerHits) {
+        static final CandidateScores EMPTY = new CandidateScores(new int[0], new int[0], 0, new long[0], null);
+    }
+
+    /**
+     * Growable primitive long list.
+     */
+    static final class LongBuffer {
+        private long[] values = new long[16];
+        private int size;
+
+        void addAll(long[] other) {
+            if (size + other.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.length));
+            }
+            System.arraycopy(other, 0, values, size, other.length);
+            size += other.length;
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
             }
+            values[size++] = value;
         }
 
-        return count;
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * Same ordering as a JSON-order scan: higher score, then higher priority,
+     * then the intent that appears first in the JSON.
+     */
+    private static boolean isBetterCandidate(int score, int priority, int intentIndex,
+                                             int bestScore, int bestPriority, int bestIndex) {
+        if (score != bestScore) {
+            return score > bestScore;
+        }
+        if (priority != bestPriority) {
+            return priority > bestPriority;
+        }
+        return bestIndex < 0 || intentIndex < bestIndex;
+    }
+
+    /**
+     * Tokenizes text for matching: lowercase, remove accents and split on
+     * anything that is not [a-z0-9] (see {@link TextNormalizer#tokenize}).
+     */
+    static List<String> tokenize(String text) {
+        TokenBuffer tokens = new TokenBuffer();
+        TextNormalizer.tokenize(text, tokens);
+        return tokens.toList();
     }
 }
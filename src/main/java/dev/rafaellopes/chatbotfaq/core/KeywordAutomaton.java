@@ -0,0 +1,256 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-level Aho-Corasick automaton over all keyword phrases of the knowledge base.
+ * A single left-to-right pass over the message token ids reports every occurrence
+ * (overlapping included) of every phrase; callers decide which ones count.
+ * <p>
+ * Transitions are stored in flat arrays: the root has a direct table indexed by
+ * token id, every other node a sorted slice of {@code edgeTokens}/{@code edgeTargets}.
+ */
+final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NO_PATTERN = -1;
+    private static final int NO_NODE = -1;
+
+    /**
+     * Receives one phrase occurrence.
+     */
+    @FunctionalInterface
+    interface HitConsumer {
+        void accept(int patternId, int start);
+    }
+
+    private final int[] rootNext;
+    private final int[] edgeStart;
+    private final int[] edgeTokens;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] patternAt;
+    private final int[] outputLink;
+    private final int[] patternLengths;
+    private final int maxPatternLength;
+
+    private KeywordAutomaton(int[] rootNext, int[] edgeStart, int[] edgeTokens, int[] edgeTargets,
+                             int[] fail, int[] patternAt, int[] outputLink, int[] patternLengths) {
+        this.rootNext = rootNext;
+        this.edgeStart = edgeStart;
+        this.edgeTokens = edgeTokens;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.patternAt = patternAt;
+        this.outputLink = outputLink;
+        this.patternLengths = patternLengths;
+
+        int longest = 0;
+        for (int length : patternLengths) {
+            longest = Math.max(longest, length);
+        }
+        this.maxPatternLength = longest;
+    }
+
+    /**
+     * Builds the automaton. Pattern ids are the positions in the given list;
+     * patterns must be distinct and non-empty, with token ids in {@code [0, vocabularySize)}.
+     */
+    static KeywordAutomaton build(List<int[]> patterns, int vocabularySize) {
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        trie.add(new HashMap<>());
+        int[] patternLengths = new int[patterns.size()];
+        int[] patternEnds = new int[patterns.size()];
+
+        for (int p = 0; p < patterns.size(); p++) {
+            int node = ROOT;
+            for (int token : patterns.get(p)) {
+                Integer next = trie.get(node).get(token);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    trie.get(node).put(token, next);
+                }
+                node = next;
+            }
+            patternEnds[p] = node;
+            patternLengths[p] = patterns.get(p).length;
+        }
+
+        int nodeCount = trie.size();
+        int[] patternAt = new int[nodeCount];
+        Arrays.fill(patternAt, NO_PATTERN);
+        for (int p = 0; p < patternEnds.length; p++) {
+            patternAt[patternEnds[p]] = p;
+        }
+
+        // Flatten non-root edges, sorted by token id within each node.
+        int[] rootNext = new int[vocabularySize];
+        Arrays.fill(rootNext, NO_NODE);
+        trie.get(ROOT).forEach((token, child) -> rootNext[token] = child);
+
+        int[] edgeStart = new int[nodeCount + 1];
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edgeCount;
+            if (node != ROOT) {
+                edgeCount += trie.get(node).size();
+            }
+        }
+        edgeStart[nodeCount] = edgeCount;
+
+        int[] edgeTokens = new int[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        for (int node = 1; node < nodeCount; node++) {
+            int[] tokens = trie.get(node).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            for (int e = 0; e < tokens.length; e++) {
+                edgeTokens[edgeStart[node] + e] = tokens[e];
+                edgeTargets[edgeStart[node] + e] = trie.get(node).get(tokens[e]);
+            }
+        }
+
+        KeywordAutomaton automaton = new KeywordAutomaton(rootNext, edgeStart, edgeTokens, edgeTargets,
+                new int[nodeCount], patternAt, new int[nodeCount], patternLengths);
+        automaton.linkFailures();
+        return automaton;
+    }
+
+    /**
+     * Breadth-first: a node's failure link always points to a shallower node,
+     * so it is final before any of that node's children are processed.
+     */
+    private void linkFailures() {
+        Arrays.fill(outputLink, NO_PATTERN);
+
+        int[] queue = new int[fail.length];
+        int head = 0;
+        int tail = 0;
+        for (int child : rootNext) {
+            if (child != NO_NODE) {
+                fail[child] = ROOT;
+                queue[tail++] = child;
+            }
+        }
+
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int token = edgeTokens[e];
+                int child = edgeTargets[e];
+
+                int target = fail[node];
+                int next = child(target, token);
+                while (next == NO_NODE && target != ROOT) {
+                    target = fail[target];
+                    next = child(target, token);
+                }
+                fail[child] = next == NO_NODE ? ROOT : next;
+
+                int suffix = fail[child];
+                outputLink[child] = patternAt[suffix] != NO_PATTERN ? suffix : outputLink[suffix];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private int child(int node, int token) {
+        if (node == ROOT) {
+            return rootNext[token];
+        }
+        int index = Arrays.binarySearch(edgeTokens, edgeStart[node], edgeStart[node + 1], token);
+        return index >= 0 ? edgeTargets[index] : NO_NODE;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        KnowledgeBaseSnapshotFile.writeInts(out, rootNext);
+        KnowledgeBaseSnapshotFile.writeInts(out, edgeStart);
+        KnowledgeBaseSnapshotFile.writeInts(out, edgeTokens);
+        KnowledgeBaseSnapshotFile.writeInts(out, edgeTargets);
+        KnowledgeBaseSnapshotFile.writeInts(out, fail);
+        KnowledgeBaseSnapshotFile.writeInts(out, patternAt);
+        KnowledgeBaseSnapshotFile.writeInts(out, outputLink);
+        KnowledgeBaseSnapshotFile.writeInts(out, patternLengths);
+    }
+
+    /**
+     * Restores a built automaton as written by {@link #writeTo}; failure links are not recomputed.
+     */
+    static KeywordAutomaton readFrom(ByteBuffer in) {
+        return new KeywordAutomaton(
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in),
+                KnowledgeBaseSnapshotFile.readInts(in));
+    }
+
+    /**
+     * @return estimated heap bytes of the transition and output arrays
+     */
+    long estimatedBytes() {
+        long bytes = MemoryEstimate.object(8 * MemoryEstimate.REFERENCE + Integer.BYTES);
+        for (int[] array : new int[][]{rootNext, edgeStart, edgeTokens, edgeTargets, fail, patternAt, outputLink,
+                patternLengths}) {
+            bytes += MemoryEstimate.intArray(array.length);
+        }
+        return bytes;
+    }
+
+    int patternLength(int patternId) {
+        return patternLengths[patternId];
+    }
+
+    /**
+     * @return tokens in the longest phrase (0 when there are no patterns)
+     */
+    int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * Reports every phrase occurrence, ordered by end position.
+     * For a given pattern, occurrences therefore arrive with increasing start.
+     */
+    void scan(int[] tokens, HitConsumer consumer) {
+        scan(tokens, tokens.length, consumer);
+    }
+
+    /**
+     * Same as {@link #scan(int[], HitConsumer)} over {@code tokens[0 .. length)}.
+     */
+    void scan(int[] tokens, int length, HitConsumer consumer) {
+        int node = ROOT;
+
+        for (int i = 0; i < length; i++) {
+            int token = tokens[i];
+            if (token == TokenDictionary.UNKNOWN) {
+                node = ROOT;
+                continue;
+            }
+
+            int next = child(node, token);
+            while (next == NO_NODE && node != ROOT) {
+                node = fail[node];
+                next = child(node, token);
+            }
+            node = next == NO_NODE ? ROOT : next;
+
+            int output = patternAt[node] != NO_PATTERN ? node : outputLink[node];
+            while (output != NO_PATTERN) {
+                int patternId = patternAt[output];
+                consumer.accept(patternId, i - patternLengths[patternId] + 1);
+                output = outputLink[output];
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the current {@link KnowledgeBaseSnapshot} and rebuilds it when the knowledge base
+ * file (JSON or {@link KnowledgeBaseSnapshotFile binary snapshot}) changes.
+ * <p>
+ * A reload parses and indexes the file on the watcher thread, then publishes the new
+ * snapshot with a single atomic swap: readers never block and never see a half-built
+ * knowledge base, and matches already running keep the snapshot they started with.
+ * When the file is invalid, the previous snapshot stays in place.
+ * <p>
+ * Single intents can also be added, updated or removed at runtime ({@link #addIntent},
+ * {@link #updateIntent}, {@link #removeIntent}): each edit publishes a new version derived
+ * copy-on-write from the current index (see {@link IntentIndex#withIntent}), in time
+ * proportional to the edit. Edits are not written to the file; the next reload replaces them.
+ * Edits and reloads are serialized, so each edit is built once, from the version it is
+ * published over; readers never take that lock.
+ * <p>
+ * With {@link #prepareWith}, what the matcher derives from an index is built before each
+ * version is published, on the reloading or editing thread. For an edited version under
+ * typo correction or BM25 that is its flattened form, a full O(KB) index build: those edits
+ * cost about as much as a reload instead of being proportional to the edit.
+ */
+public final class KnowledgeBaseReloader implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(KnowledgeBaseReloader.class);
+
+    // Editors often save in several writes (or temp file + rename); wait for them to settle.
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path path;
+    private final IntentLoader loader;
+    private final TokenInterner shared;
+    private final AtomicReference<KnowledgeBaseSnapshot> current;
+    private final AtomicReference<ReloadStatus> lastReload = new AtomicReference<>();
+    // Held while a new version is published, so an edit always builds on the latest one.
+    private final Object publishLock = new Object();
+    private volatile Consumer<IntentIndex> preparer = index -> {
+    };
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Outcome of the last reload attempt.
+     *
+     * @param at when the attempt finished
+     * @param durationMillis time spent parsing and indexing
+     * @param success whether a new snapshot was published
+     * @param version snapshot version in use after the attempt
+     * @param error failure message, null on success
+     */
+    public record ReloadStatus(Instant at, long durationMillis, boolean success, long version, String error) {
+    }
+
+    /**
+     * @param path knowledge base JSON file to watch
+     * @param loader loader used for reloads
+     * @param initialIntents intents already loaded from {@code path}, published as version 1
+     */
+    public KnowledgeBaseReloader(Path path, IntentLoader loader, List<Intent> initialIntents) {
+        this(path, loader, IntentIndex.build(readOnly(initialIntents)));
+    }
+
+    /**
+     * @param path knowledge base file to watch
+     * @param loader loader used for JSON reloads
+     * @param initialIndex index already loaded from {@code path}, published as version 1
+     */
+    public KnowledgeBaseReloader(Path path, IntentLoader loader, IntentIndex initialIndex) {
+        this(path, loader, initialIndex, null);
+    }
+
+    /**
+     * @param path knowledge base file to watch
+     * @param loader loader used for JSON reloads
+     * @param initialIndex index already loaded from {@code path}, published as version 1
+     * @param shared pool the index was built with; reloads keep using it (null = none)
+     */
+    public KnowledgeBaseReloader(Path path, IntentLoader loader, IntentIndex initialIndex, TokenInterner shared) {
+        this.path = Objects.requireNonNull(path, "path must not be null").toAbsolutePath();
+        this.loader = Objects.requireNonNull(loader, "loader must not be null");
+        this.shared = shared;
+        this.current = new AtomicReference<>(new KnowledgeBaseSnapshot(1, initialIndex, Instant.now()));
+    }
+
+    /**
+     * Loads a knowledge base file: binary snapshots are restored as they are,
+     * JSON files are indexed while they are parsed.
+     */
+    public static IntentIndex loadIndex(Path path, IntentLoader loader) {
+        return loadIndex(path, loader, null);
+    }
+
+    /**
+     * @param shared pool for tokens, intent names and keywords, shared with other knowledge bases (null = none)
+     */
+    public static IntentIndex loadIndex(Path path, IntentLoader loader, TokenInterner shared) {
+        if (KnowledgeBaseSnapshotFile.isSnapshot(path)) {
+            return KnowledgeBaseSnapshotFile.read(path, shared);
+        }
+        return loader.loadIndex(path, shared);
+    }
+
+    private static List<Intent> readOnly(List<Intent> intents) {
+        // Not List.copyOf: the JSON may contain null entries, which matching skips.
+        return intents == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(intents));
+    }
+
+    public KnowledgeBaseSnapshot current() {
+        return current.get();
+    }
+
+    public IntentIndex index() {
+        return current.get().index();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return pool the knowledge base is built with, null when it has none
+     */
+    public TokenInterner shared() {
+        return shared;
+    }
+
+    /**
+     * @return last reload attempt, or null when the file was never reloaded
+     */
+    public ReloadStatus lastReload() {
+        return lastReload.get();
+    }
+
+    /**
+     * Runs {@code prepare} on the current index now, then on every version a reload or an edit
+     * builds, before it is published, so the first query on a new version does not pay for it.
+     *
+     * @param prepare typically {@link IntentMatcher#prepare} of the matcher serving this knowledge base
+     */
+    public void prepareWith(Consumer<IntentIndex> prepare) {
+        Objects.requireNonNull(prepare, "prepare must not be null");
+        synchronized (publishLock) {
+            prepare.accept(current.get().index());
+            preparer = prepare;
+        }
+    }
+
+    /**
+     * Loads and indexes the file now, publishing it when valid.
+     *
+     * @return true when a new snapshot was published
+     */
+    public boolean reload() {
+        long startNanos = System.nanoTime();
+        try {
+            IntentIndex index = loadIndex(path, loader, shared);
+            preparer.accept(index);
+            KnowledgeBaseSnapshot next;
+            synchronized (publishLock) {
+                next = new KnowledgeBaseSnapshot(current.get().version() + 1, index, Instant.now());
+                current.set(next);
+            }
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            lastReload.set(new ReloadStatus(Instant.now(), durationMillis, true, next.version(), null));
+            log.info("Knowledge base reloaded: version={}, intents={}, durationMs={}",
+                    next.version(), index.size(), durationMillis);
+            return true;
+        } catch (RuntimeException e) {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            lastReload.set(new ReloadStatus(Instant.now(), durationMillis, false, current.get().version(), error));
+            log.warn("Knowledge base reload failed, keeping version {}: {}", current.get().version(), error);
+            return false;
+        }
+    }
+
+    /**
+     * Adds an intent after the last one and publishes the new version.
+     *
+     * @return snapshot published
+     * @throws IllegalArgumentException when the intent has no name or the name is already used
+     */
+    public KnowledgeBaseSnapshot addIntent(Intent intent) {
+        return edit("added", intent == null ? null : intent.getIntent(), index -> {
+            if (intent != null && intent.getIntent() != null && index.positionOf(intent.getIntent()) >= 0) {
+                throw new IllegalArgumentException("intent already exists: " + intent.getIntent());
+            }
+            return index.withIntent(intent, shared);
+        });
+    }
+
+    /**
+     * Replaces the intent with the same name, keeping its JSON position, and publishes the new version.
+     *
+     * @return snapshot published
+     * @throws IllegalArgumentException when there is no intent with that name
+     */
+    public KnowledgeBaseSnapshot updateIntent(Intent intent) {
+        return edit("updated", intent == null ? null : intent.getIntent(), index -> {
+            if (intent == null || intent.getIntent() == null || index.positionOf(intent.getIntent()) < 0) {
+                throw new IllegalArgumentException("unknown intent: " + (intent == null ? null : intent.getIntent()));
+            }
+            return index.withIntent(intent, shared);
+        });
+    }
+
+    /**
+     * Removes the intent named {@code name} and publishes the new version.
+     *
+     * @return snapshot published
+     * @throws IllegalArgumentException when there is no intent with that name
+     */
+    public KnowledgeBaseSnapshot removeIntent(String name) {
+        return edit("removed", name, index -> index.withoutIntent(name, shared));
+    }
+
+    private KnowledgeBaseSnapshot edit(String action, String name, UnaryOperator<IntentIndex> change) {
+        KnowledgeBaseSnapshot next;
+        long durationNanos;
+        synchronized (publishLock) {
+            KnowledgeBaseSnapshot previous = current.get();
+            long startNanos = System.nanoTime();
+            // Throws before anything is published when the edit is invalid.
+            IntentIndex index = change.apply(previous.index());
+            preparer.accept(index);
+            durationNanos = System.nanoTime() - startNanos;
+            next = new KnowledgeBaseSnapshot(previous.version() + 1, index, Instant.now());
+            current.set(next);
+        }
+        log.info("Knowledge base intent {}: intent={}, version={}, durationMicros={}", action, name,
+                next.version(), TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        return next;
+    }
+
+    /**
+     * Starts a daemon thread that reloads the file whenever it is modified or replaced.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+
+        Path directory = path.getParent();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watcher = new Thread(this::watchLoop, "kb-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching knowledge base for changes: {}", path);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drainEvents(key);
+
+                // Keep collecting until the file has been quiet for the debounce window.
+                WatchKey more;
+                while ((more = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drainEvents(more);
+                }
+
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() was called
+        }
+    }
+
+    private boolean drainEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && name.equals(path.getFileName())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Failed to close watch service: {}", e.getMessage());
+            }
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.time.Instant;
+
+/**
+ * One immutable, fully built version of the knowledge base.
+ *
+ * @param version increases by one on every successful (re)load, starting at 1
+ * @param index compiled intents
+ * @param loadedAt when this version was published
+ */
+public record KnowledgeBaseSnapshot(long version, IntentIndex index, Instant loadedAt) {
+}
@@ -0,0 +1,160 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned, checksummed binary form of a compiled {@link IntentIndex} (".kbsnap").
+ * <p>
+ * Layout (big-endian): magic "KBSN", format version, payload length, CRC32 of the payload,
+ * then the payload: intents as written in the JSON, the token dictionary, the keyword
+ * automaton arrays and the pattern owners (intent and keyword position). Reading restores
+ * those arrays as they are, so no keyword is normalized or tokenized at startup.
+ */
+public final class KnowledgeBaseSnapshotFile {
+
+    private static final Logger log = LoggerFactory.getLogger(KnowledgeBaseSnapshotFile.class);
+
+    public static final String EXTENSION = ".kbsnap";
+
+    private static final int MAGIC = 0x4B42534E;
+    // 2: pattern owners also record which keyword of the intent they come from.
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+
+    private KnowledgeBaseSnapshotFile() {
+    }
+
+    public static boolean isSnapshot(Path path) {
+        return path != null && path.getFileName() != null && path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * @return snapshot path next to a JSON knowledge base (intents.json -> intents.kbsnap)
+     */
+    public static Path siblingOf(Path jsonPath) {
+        String name = jsonPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return jsonPath.resolveSibling(base + EXTENSION);
+    }
+
+    public static void write(IntentIndex index, Path target) {
+        Path absolutePath = target.toAbsolutePath();
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(1 << 16);
+            try (DataOutputStream out = new DataOutputStream(payload)) {
+                index.writeTo(out);
+            }
+            byte[] bytes = payload.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            try (OutputStream file = Files.newOutputStream(target);
+                 DataOutputStream out = new DataOutputStream(file)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(bytes.length);
+                out.writeLong(crc.getValue());
+                out.write(bytes);
+            }
+            log.info("Knowledge base snapshot written: {} ({} bytes)", absolutePath, HEADER_BYTES + bytes.length);
+        } catch (IOException e) {
+            log.warn("Knowledge base snapshot write failed: {}", absolutePath);
+            throw new IllegalStateException("failed to write knowledge base snapshot: " + absolutePath, e);
+        }
+    }
+
+    public static IntentIndex read(Path path) {
+        return read(path, null);
+    }
+
+    /**
+     * @param shared pool for tokens, intent names and keywords, shared with other knowledge bases
+     */
+    public static IntentIndex read(Path path, TokenInterner shared) {
+        Path absolutePath = path.toAbsolutePath();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            log.warn("Knowledge base snapshot load failed: unreadable file: {}", absolutePath);
+            throw new IllegalStateException("failed to read knowledge base snapshot: " + absolutePath, e);
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (bytes.length < HEADER_BYTES || in.getInt() != MAGIC) {
+                throw new IllegalStateException("not a knowledge base snapshot: " + absolutePath);
+            }
+            int version = in.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("unsupported knowledge base snapshot version " + version
+                        + " (expected " + FORMAT_VERSION + "): " + absolutePath);
+            }
+            long length = in.getLong();
+            long checksum = in.getLong();
+            if (length != bytes.length - HEADER_BYTES) {
+                throw new IllegalStateException("truncated knowledge base snapshot: " + absolutePath);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes, HEADER_BYTES, (int) length);
+            if (crc.getValue() != checksum) {
+                throw new IllegalStateException("corrupted knowledge base snapshot (checksum mismatch): " + absolutePath);
+            }
+
+            IntentIndex index = IntentIndex.readFrom(in, shared);
+            log.info("Knowledge base snapshot loaded: {} intents from {}", index.size(), absolutePath);
+            return index;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IllegalStateException("malformed knowledge base snapshot: " + absolutePath, e);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+        return values;
+    }
+}
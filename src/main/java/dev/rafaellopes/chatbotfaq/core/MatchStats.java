@@ -0,0 +1,101 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Matcher instrumentation, shared by every thread using an {@link IntentMatcher}.
+ * Queries, fallbacks and hits per intent are counted exactly. Stage latencies are timed
+ * on one query out of {@code sampleEvery}: reading the clock costs about as much as a
+ * small part of a match, so sampling keeps the overhead within a few percent.
+ * <p>
+ * Stages: {@link Stage#TOKENIZE} (normalization fused with tokenization),
+ * {@link Stage#SCORE} (dictionary lookup, automaton scan, scoring and selection, or
+ * the cache lookup when caching) and {@link Stage#TOTAL}.
+ */
+public final class MatchStats {
+
+    public static final int DEFAULT_SAMPLE_EVERY = 16;
+
+    public enum Stage {
+        TOKENIZE, SCORE, TOTAL
+    }
+
+    private final int sampleMask;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> intentHits = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleEvery time one query out of this many (power of two; 1 = every query)
+     */
+    public MatchStats(int sampleEvery) {
+        if (sampleEvery < 1 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("sampleEvery must be a power of two");
+        }
+        this.sampleMask = sampleEvery - 1;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    boolean sampleNext() {
+        return sampleMask == 0 || (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+    }
+
+    void recordTimings(long tokenizeNanos, long scoreNanos, long totalNanos) {
+        histograms[Stage.TOKENIZE.ordinal()].record(tokenizeNanos);
+        histograms[Stage.SCORE.ordinal()].record(scoreNanos);
+        histograms[Stage.TOTAL.ordinal()].record(totalNanos);
+    }
+
+    void recordResult(Optional<ScoredIntent> match) {
+        queries.increment();
+        if (match.isEmpty()) {
+            fallbacks.increment();
+            return;
+        }
+
+        String name = String.valueOf(match.get().intent().getIntent());
+        LongAdder hits = intentHits.get(name);
+        if (hits == null) {
+            hits = intentHits.computeIfAbsent(name, k -> new LongAdder());
+        }
+        hits.increment();
+    }
+
+    public int sampleEvery() {
+        return sampleMask + 1;
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public long queries() {
+        return queries.sum();
+    }
+
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * @return hits per intent name, most used first
+     */
+    public Map<String, Long> intentHits() {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        intentHits.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+}
@@ -0,0 +1,45 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+/**
+ * Shallow heap size estimates for a 64-bit JVM with compressed oops (the default below
+ * 32 GiB heaps): 12-byte object headers, 16-byte array headers, 4-byte references,
+ * 8-byte alignment. Good enough to compare tenants, not an exact measurement.
+ */
+final class MemoryEstimate {
+
+    static final int REFERENCE = 4;
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+
+    private MemoryEstimate() {
+    }
+
+    static long object(int fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    static long intArray(int length) {
+        return align(ARRAY_HEADER + (long) length * Integer.BYTES);
+    }
+
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * @return String object plus its compact (Latin-1) or UTF-16 byte array
+     */
+    static long string(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        long coder = latin1 ? value.length() : 2L * value.length();
+        return object(Integer.BYTES + 1 + 1 + REFERENCE) + align(ARRAY_HEADER + coder);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
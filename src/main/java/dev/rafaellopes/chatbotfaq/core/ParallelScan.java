@@ -0,0 +1,76 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Sums the owners of the keywords found in a message in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Chat messages are short and the keyword automaton reads each token once, so the scan is
+ * never the cost that grows. What grows with the knowledge base is walking the owners of the
+ * phrases found: a generic keyword ("preco", "como") can be owned by thousands of intents.
+ * So shards are ranges of intents. Owners of a phrase are stored in JSON order, so each shard
+ * binary-searches its slice of every phrase and sums it; the shards' sums, concatenated in
+ * range order, are exactly the sequential ones, and score, priority and JSON-order
+ * tie-breaks do not change.
+ * <p>
+ * Queries touching fewer owner entries than the threshold are summed sequentially: forking
+ * costs more than adding a few thousand contributions.
+ */
+public final class ParallelScan {
+
+    public static final int DEFAULT_THRESHOLD_OWNERS = 4096;
+
+    private final ForkJoinPool pool;
+    private final int thresholdOwners;
+
+    /**
+     * @param pool pool running the shards
+     * @param thresholdOwners queries touching fewer owner entries are summed sequentially (at least 2)
+     */
+    public ParallelScan(ForkJoinPool pool, int thresholdOwners) {
+        if (thresholdOwners < 2) {
+            throw new IllegalArgumentException("thresholdOwners must be at least 2");
+        }
+        this.pool = pool;
+        this.thresholdOwners = thresholdOwners;
+    }
+
+    public int thresholdOwners() {
+        return thresholdOwners;
+    }
+
+    boolean appliesTo(long ownerEntries) {
+        return ownerEntries >= thresholdOwners && pool.getParallelism() > 1;
+    }
+
+    /**
+     * @param phrases phrases found, as {@link IntentMatcher#sumIntentRange} takes them
+     * @param ownerEntries owner entries of those phrases
+     * @return {@code (intent << 32) | score}, one per intent touched, ascending
+     */
+    long[] sumByIntentRange(long[] phrases, IntentIndex index, Bm25Weights bm25, FuzzyMatching fuzzy,
+                            long ownerEntries) {
+        int intents = index.size();
+        // Each shard gets about half the threshold of owner entries, if they are spread evenly.
+        int shards = (int) Math.max(2, Math.min(pool.getParallelism(), ownerEntries * 2 / thresholdOwners));
+
+        List<ForkJoinTask<long[]>> tasks = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            int from = (int) ((long) intents * s / shards);
+            int to = (int) ((long) intents * (s + 1) / shards);
+            tasks.add(ForkJoinTask.adapt(() -> IntentMatcher.sumIntentRange(phrases, index, bm25, fuzzy, from, to)));
+        }
+
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(tasks);
+            IntentMatcher.LongBuffer sums = new IntentMatcher.LongBuffer();
+            for (ForkJoinTask<long[]> task : tasks) {
+                sums.addAll(task.join());
+            }
+            return sums.toArray();
+        }));
+    }
+}
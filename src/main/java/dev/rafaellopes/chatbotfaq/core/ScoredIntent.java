@@ -0,0 +1,10 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+/**
+ * An intent selected by {@link IntentMatcher} together with its score.
+ *
+ * @param intent matched intent
+ * @param score score under the matcher's {@link ScoringEngine} (always > 0)
+ */
+public record ScoredIntent(Intent intent, int score) {
+}
@@ -0,0 +1,23 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+/**
+ * How {@link IntentMatcher} turns keyword occurrences found in a message into intent scores.
+ * Both engines find keywords with the same automaton scan and break ties the same way
+ * (higher priority, then JSON order); they only differ in what a found keyword is worth.
+ */
+public enum ScoringEngine {
+
+    /**
+     * Every non-overlapping keyword occurrence counts one point (PROJECT_SCOPE.md rules).
+     * Intents listing many variants of the same words collect more points.
+     */
+    OCCURRENCES,
+
+    /**
+     * Okapi BM25 with each keyword phrase as a term and each intent as a document of its keywords:
+     * rare keywords weigh more than keywords shared by many intents, and long keyword lists are
+     * normalized so adding variants does not inflate an intent. A keyword found in the message
+     * counts once, however often it is repeated. Scores are in thousandths of a BM25 point.
+     */
+    BM25
+}
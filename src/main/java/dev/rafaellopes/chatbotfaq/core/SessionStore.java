@@ -0,0 +1,299 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user conversation state for serving many users from one process: turn count and the
+ * last two matched intents, as context for follow-up questions.
+ * <p>
+ * Sessions are spread over {@value #STRIPES} stripes by id hash, each with its own lock, map
+ * and hashed timer wheel, so users only contend when they share a stripe. A session idle for
+ * the TTL is evicted; the wheel has {@value #TTL_TICKS} ticks per TTL, so expiry is exact to
+ * 1/{@value #TTL_TICKS} of the TTL and costs O(1) per touch and per eviction. Stripes expire
+ * their sessions whenever they are used, and {@link #evictExpired()} (run periodically after
+ * {@link #startEvicting()}) covers stripes nobody touches. Memory is bounded by
+ * {@code maxSessions}: a full stripe evicts the session closest to expiry.
+ * <p>
+ * A session holds references to the matched intents' names, not copies: about 110 bytes plus
+ * its id string.
+ */
+public final class SessionStore implements AutoCloseable {
+
+    static final int STRIPES = 64;
+    static final int TTL_TICKS = 64;
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+    public static final int DEFAULT_MAX_SESSIONS = 500_000;
+
+    // Twice the TTL in ticks: a bucket only ever holds sessions due at the same tick.
+    private static final int WHEEL_SLOTS = 2 * TTL_TICKS;
+
+    /**
+     * @param turns questions answered in this session
+     * @param lastIntent intent matched by the last question, null for a fallback or no question yet
+     * @param previousIntent intent matched by the question before it
+     */
+    public record SessionState(int turns, String lastIntent, String previousIntent) {
+
+        static final SessionState EMPTY = new SessionState(0, null, null);
+    }
+
+    private static final class Session {
+        final String id;
+        int turns;
+        String lastIntent;
+        String previousIntent;
+        long expiresTick;
+        Session prev;
+        Session next;
+
+        Session(String id) {
+            this.id = id;
+        }
+
+        SessionState state() {
+            return new SessionState(turns, lastIntent, previousIntent);
+        }
+    }
+
+    private final class Stripe {
+        final Map<String, Session> sessions = new HashMap<>();
+        final Session[] wheel = new Session[WHEEL_SLOTS];
+        long cursor;
+
+        /**
+         * Evicts every session due up to {@code now}. Caller holds the stripe lock.
+         */
+        void advance(long now) {
+            // Idle for more than a lap: every bucket is visited once.
+            if (now - cursor > WHEEL_SLOTS) {
+                cursor = now - WHEEL_SLOTS;
+            }
+            while (cursor < now) {
+                cursor++;
+                Session session = wheel[slot(cursor)];
+                while (session != null) {
+                    Session next = session.next;
+                    if (session.expiresTick <= now) {
+                        evict(session);
+                    }
+                    session = next;
+                }
+            }
+        }
+
+        Session touch(String id, long now) {
+            advance(now);
+            Session session = sessions.get(id);
+            if (session == null) {
+                if (sessions.size() >= maxPerStripe) {
+                    evictClosestToExpiry();
+                }
+                session = new Session(id);
+                sessions.put(id, session);
+                size.incrementAndGet();
+            } else {
+                unlink(session);
+            }
+            session.expiresTick = now + TTL_TICKS + 1;
+            link(session);
+            return session;
+        }
+
+        void evict(Session session) {
+            unlink(session);
+            sessions.remove(session.id);
+            size.decrementAndGet();
+            evictions.increment();
+        }
+
+        void evictClosestToExpiry() {
+            for (long tick = cursor + 1; tick <= cursor + WHEEL_SLOTS; tick++) {
+                Session head = wheel[slot(tick)];
+                if (head != null) {
+                    evict(head);
+                    return;
+                }
+            }
+        }
+
+        void link(Session session) {
+            int slot = slot(session.expiresTick);
+            Session head = wheel[slot];
+            session.prev = null;
+            session.next = head;
+            if (head != null) {
+                head.prev = session;
+            }
+            wheel[slot] = session;
+        }
+
+        void unlink(Session session) {
+            if (session.prev != null) {
+                session.prev.next = session.next;
+            } else {
+                wheel[slot(session.expiresTick)] = session.next;
+            }
+            if (session.next != null) {
+                session.next.prev = session.prev;
+            }
+            session.prev = null;
+            session.next = null;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long tickNanos;
+    private final long originNanos;
+    private final int maxPerStripe;
+    private final LongSupplier clock;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile Thread evictor;
+
+    public SessionStore() {
+        this(DEFAULT_TTL, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * @param idleTtl a session unused for this long is evicted
+     * @param maxSessions sessions kept at most (rounded up to a multiple of {@value #STRIPES})
+     */
+    public SessionStore(Duration idleTtl, int maxSessions) {
+        this(idleTtl, maxSessions, System::nanoTime);
+    }
+
+    SessionStore(Duration idleTtl, int maxSessions, LongSupplier clock) {
+        if (idleTtl.isNegative() || idleTtl.isZero()) {
+            throw new IllegalArgumentException("idleTtl must be positive");
+        }
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.tickNanos = Math.max(1, (idleTtl.toNanos() + TTL_TICKS - 1) / TTL_TICKS);
+        this.maxPerStripe = (maxSessions + STRIPES - 1) / STRIPES;
+        this.clock = clock;
+        this.originNanos = clock.getAsLong();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Counts one answered question, creating the session on its first one.
+     *
+     * @return state after this turn
+     */
+    public SessionState recordTurn(String sessionId, Optional<Intent> bestIntent) {
+        Stripe stripe = stripe(sessionId);
+        synchronized (stripe) {
+            Session session = stripe.touch(sessionId, tick());
+            session.turns++;
+            session.previousIntent = session.lastIntent;
+            session.lastIntent = bestIntent.map(Intent::getIntent).orElse(null);
+            return session.state();
+        }
+    }
+
+    /**
+     * @return current state, or an empty state for an unknown or expired session
+     */
+    public SessionState get(String sessionId) {
+        Stripe stripe = stripe(sessionId);
+        synchronized (stripe) {
+            stripe.advance(tick());
+            Session session = stripe.sessions.get(sessionId);
+            return session == null ? SessionState.EMPTY : session.state();
+        }
+    }
+
+    /**
+     * Forgets the session ({@code /reiniciar}); its next question starts a new one.
+     *
+     * @return true when the session existed
+     */
+    public boolean clear(String sessionId) {
+        Stripe stripe = stripe(sessionId);
+        synchronized (stripe) {
+            stripe.advance(tick());
+            Session session = stripe.sessions.get(sessionId);
+            if (session == null) {
+                return false;
+            }
+            stripe.unlink(session);
+            stripe.sessions.remove(sessionId);
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return sessions evicted so far, idle or over capacity
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Evicts the idle sessions of every stripe.
+     */
+    public void evictExpired() {
+        long now = tick();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.advance(now);
+            }
+        }
+    }
+
+    /**
+     * Starts a daemon thread running {@link #evictExpired()} once per tick.
+     */
+    public synchronized void startEvicting() {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Thread.ofPlatform().name("session-evictor").daemon().start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(Duration.ofNanos(tickNanos));
+                    evictExpired();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.interrupt();
+            evictor = null;
+        }
+    }
+
+    private long tick() {
+        return (clock.getAsLong() - originNanos) / tickNanos;
+    }
+
+    private Stripe stripe(String sessionId) {
+        int h = sessionId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static int slot(long tick) {
+        return (int) tick & (WHEEL_SLOTS - 1);
+    }
+}
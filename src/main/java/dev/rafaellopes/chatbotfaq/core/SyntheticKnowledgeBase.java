@@ -0,0 +1,208 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded generator of knowledge bases shaped like data/intents.json:
+ * about 11 keywords per intent, phrases of 1 to 5 tokens (mostly 3-4),
+ * drawn from common Portuguese filler words plus a topic vocabulary that
+ * grows with the number of intents. The same seed and shape always give
+ * the same knowledge base and queries, so load test runs can be compared.
+ */
+public final class SyntheticKnowledgeBase {
+
+    private static final String[] COMMON = {
+            "o", "que", "e", "de", "um", "uma", "como", "com", "para", "qual", "quais", "quanto"
+    };
+
+    private static final int[] KEYWORD_COUNTS = {5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+    private static final int[] PHRASE_LENGTHS = {1, 1, 1, 2, 3, 3, 3, 3, 4, 4, 4, 5};
+
+    /**
+     * Structure of the generated intents. Both tables are sampled uniformly, so repeating a
+     * value makes it proportionally more frequent; measured tables reproduce a real distribution.
+     *
+     * @param keywordCounts keyword counts drawn for each intent
+     * @param phraseLengths token counts drawn for each keyword phrase
+     */
+    public record Shape(int[] keywordCounts, int[] phraseLengths) {
+
+        /**
+         * Built-in model of data/intents.json.
+         */
+        public static final Shape DEFAULT = new Shape(KEYWORD_COUNTS, PHRASE_LENGTHS);
+
+        public Shape {
+            if (keywordCounts.length == 0 || Arrays.stream(keywordCounts).anyMatch(count -> count < 1)) {
+                throw new IllegalArgumentException("keyword counts must be at least 1");
+            }
+            if (phraseLengths.length == 0 || Arrays.stream(phraseLengths).anyMatch(length -> length < 1)) {
+                throw new IllegalArgumentException("phrase lengths must be at least 1 token");
+            }
+            keywordCounts = keywordCounts.clone();
+            phraseLengths = phraseLengths.clone();
+        }
+
+        /**
+         * Measures a real knowledge base: keyword count of every intent and token count of every phrase.
+         */
+        public static Shape of(List<Intent> intents) {
+            List<Integer> counts = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            for (Intent intent : intents) {
+                if (intent == null || intent.getKeywords() == null) {
+                    continue;
+                }
+                int keywords = 0;
+                for (String keyword : intent.getKeywords()) {
+                    int tokens = IntentMatcher.tokenize(keyword).size();
+                    if (tokens > 0) {
+                        lengths.add(tokens);
+                        keywords++;
+                    }
+                }
+                if (keywords > 0) {
+                    counts.add(keywords);
+                }
+            }
+            if (counts.isEmpty()) {
+                return DEFAULT;
+            }
+            return new Shape(counts.stream().mapToInt(Integer::intValue).toArray(),
+                    lengths.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        /**
+         * @return the same phrase lengths with exactly {@code keywords} keywords per intent
+         */
+        public Shape withKeywords(int keywords) {
+            return new Shape(new int[]{keywords}, phraseLengths);
+        }
+
+        public double averageKeywords() {
+            return Arrays.stream(keywordCounts).average().orElse(0);
+        }
+
+        public double averagePhraseLength() {
+            return Arrays.stream(phraseLengths).average().orElse(0);
+        }
+    }
+
+    private SyntheticKnowledgeBase() {
+    }
+
+    public static List<Intent> generate(int intentCount, long seed) {
+        return generate(intentCount, Shape.DEFAULT, seed);
+    }
+
+    public static List<Intent> generate(int intentCount, Shape shape, long seed) {
+        Random random = new Random(seed);
+        int topicWords = Math.max(50, intentCount * 3);
+        int[] keywordCounts = shape.keywordCounts();
+        int[] phraseLengths = shape.phraseLengths();
+        List<Intent> intents = new ArrayList<>(intentCount);
+
+        for (int i = 0; i < intentCount; i++) {
+            int keywordCount = keywordCounts[random.nextInt(keywordCounts.length)];
+            List<String> keywords = new ArrayList<>(keywordCount);
+            for (int k = 0; k < keywordCount; k++) {
+                keywords.add(phrase(random, topicWords, phraseLengths));
+            }
+            intents.add(new Intent("intent_" + i, keywords, "Resposta da intent " + i + ".", 10 + random.nextInt(16)));
+        }
+
+        return intents;
+    }
+
+    /**
+     * Queries built from the knowledge base keywords (hits) or random topic words (mostly misses).
+     */
+    public static List<String> queries(List<Intent> intents, int count, long seed) {
+        Random random = new Random(seed);
+        List<String> queries = new ArrayList<>(count);
+
+        for (int q = 0; q < count; q++) {
+            if (random.nextBoolean()) {
+                queries.add(hit(intents, random));
+            } else {
+                queries.add("gostaria de saber sobre " + topicWord(random.nextInt(1_000_000)) + " por favor");
+            }
+        }
+
+        return queries;
+    }
+
+    /**
+     * Query trace with a fixed share of hits: hits contain a keyword phrase of a random intent,
+     * misses only words no generated keyword uses, so they always get the fallback.
+     *
+     * @param hitRatio share of hits, 0..1
+     */
+    public static List<String> queries(List<Intent> intents, int count, double hitRatio, long seed) {
+        if (hitRatio < 0 || hitRatio > 1) {
+            throw new IllegalArgumentException("hitRatio must be between 0 and 1");
+        }
+        Random random = new Random(seed);
+        List<String> queries = new ArrayList<>(count);
+
+        for (int q = 0; q < count; q++) {
+            if (!intents.isEmpty() && random.nextDouble() < hitRatio) {
+                queries.add(hit(intents, random));
+            } else {
+                queries.add("gostaria de saber sobre outro" + Integer.toString(random.nextInt(1_000_000), 36)
+                        + " por favor");
+            }
+        }
+
+        return queries;
+    }
+
+    public static Path writeJson(List<Intent> intents, Path target) throws IOException {
+        List<Map<String, Object>> entries = new ArrayList<>(intents.size());
+        for (Intent intent : intents) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("intent", intent.getIntent());
+            entry.put("keywords", intent.getKeywords());
+            entry.put("response", intent.getResponse());
+            entry.put("priority", intent.getPriority());
+            entries.add(entry);
+        }
+        new ObjectMapper().writeValue(target.toFile(), entries);
+        return target;
+    }
+
+    private static String hit(List<Intent> intents, Random random) {
+        Intent intent = intents.get(random.nextInt(intents.size()));
+        String keyword = intent.getKeywords().get(random.nextInt(intent.getKeywords().size()));
+        return "Olá, " + keyword.toUpperCase() + "?";
+    }
+
+    private static String phrase(Random random, int topicWords, int[] phraseLengths) {
+        int length = phraseLengths[random.nextInt(phraseLengths.length)];
+        StringBuilder sb = new StringBuilder();
+
+        for (int t = 0; t < length; t++) {
+            if (t > 0) {
+                sb.append(' ');
+            }
+            // Last token is always a topic word, earlier ones are mostly filler.
+            boolean topic = t == length - 1 || random.nextInt(3) == 0;
+            sb.append(topic ? topicWord(random.nextInt(topicWords)) : COMMON[random.nextInt(COMMON.length)]);
+        }
+
+        return sb.toString();
+    }
+
+    private static String topicWord(int id) {
+        return "tema" + Integer.toString(id, 36) + (id % 3 == 0 ? "ção" : "");
+    }
+}
@@ -0,0 +1,122 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Knowledge bases served by one process, one per tenant (brand), routed by tenant id.
+ * <p>
+ * Each tenant has its own {@link KnowledgeBaseReloader} (own file, own versions, own hot
+ * reload) and its own {@link IntentMatcher}, so a response cache only ever sees one
+ * knowledge base. Tenants built with the same {@link TokenInterner} share the strings of
+ * their common vocabulary.
+ */
+public final class TenantRegistry implements AutoCloseable {
+
+    /**
+     * @param id routing key, e.g. the knowledge base file name without extension
+     * @param knowledgeBase current snapshot and reloads of the tenant's file
+     * @param matcher matcher used for this tenant only
+     */
+    public record Tenant(String id, KnowledgeBaseReloader knowledgeBase, IntentMatcher matcher) {
+
+        public Tenant {
+            Objects.requireNonNull(id, "id must not be null");
+            Objects.requireNonNull(knowledgeBase, "knowledgeBase must not be null");
+            Objects.requireNonNull(matcher, "matcher must not be null");
+        }
+    }
+
+    private record MemoryEntry(IntentIndex index, IntentIndex.MemoryUsage usage) {
+    }
+
+    private final Map<String, Tenant> tenants;
+    private final TokenInterner shared;
+    private final Tenant defaultTenant;
+
+    // Estimates walk the whole index: computed once per published snapshot.
+    private final Map<String, MemoryEntry> memory = new ConcurrentHashMap<>();
+
+    /**
+     * @param tenants tenants in display order; ids must be unique
+     * @param shared pool the tenants were built with (null = none)
+     * @param defaultId tenant answering requests that name none; null = the only tenant, if there is one
+     */
+    public TenantRegistry(List<Tenant> tenants, TokenInterner shared, String defaultId) {
+        Map<String, Tenant> byId = new LinkedHashMap<>();
+        for (Tenant tenant : tenants) {
+            if (byId.putIfAbsent(tenant.id(), tenant) != null) {
+                throw new IllegalArgumentException("duplicate tenant: " + tenant.id());
+            }
+        }
+        if (defaultId != null && !byId.containsKey(defaultId)) {
+            throw new IllegalArgumentException("unknown tenant: " + defaultId);
+        }
+
+        this.tenants = Collections.unmodifiableMap(byId);
+        this.shared = shared;
+        this.defaultTenant = defaultId != null ? byId.get(defaultId)
+                : byId.size() == 1 ? byId.values().iterator().next() : null;
+    }
+
+    /**
+     * @return registry serving a single knowledge base, which is also the default tenant
+     */
+    public static TenantRegistry single(String id, KnowledgeBaseReloader knowledgeBase, IntentMatcher matcher) {
+        return new TenantRegistry(List.of(new Tenant(id, knowledgeBase, matcher)), knowledgeBase.shared(), id);
+    }
+
+    /**
+     * @return the tenant, or null when no tenant has this id
+     */
+    public Tenant tenant(String id) {
+        return id == null ? null : tenants.get(id);
+    }
+
+    /**
+     * @return tenant for requests without a tenant id, or null when several are loaded and none was chosen
+     */
+    public Tenant defaultTenant() {
+        return defaultTenant;
+    }
+
+    public Collection<Tenant> tenants() {
+        return tenants.values();
+    }
+
+    public int size() {
+        return tenants.size();
+    }
+
+    /**
+     * @return pool shared by the tenants, null when they do not share one
+     */
+    public TokenInterner shared() {
+        return shared;
+    }
+
+    /**
+     * @return estimated heap footprint of the tenant's current knowledge base
+     */
+    public IntentIndex.MemoryUsage memoryUsage(Tenant tenant) {
+        IntentIndex index = tenant.knowledgeBase().index();
+        MemoryEntry entry = memory.get(tenant.id());
+        if (entry == null || entry.index() != index) {
+            entry = new MemoryEntry(index, index.memoryUsage(tenant.knowledgeBase().shared()));
+            memory.put(tenant.id(), entry);
+        }
+        return entry.usage();
+    }
+
+    @Override
+    public void close() {
+        for (Tenant tenant : tenants.values()) {
+            tenant.knowledgeBase().close();
+        }
+    }
+}
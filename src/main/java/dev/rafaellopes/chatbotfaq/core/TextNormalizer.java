@@ -9,6 +9,11 @@ import java.util.Locale;
  * - Unicode NFD normalization
  * - Remove combining marks (accents)
  * - Collapse whitespace
+ * <p>
+ * {@link #tokenize(CharSequence, TokenBuffer)} fuses normalization with the matcher's
+ * tokenization (runs of [a-z0-9]) in one pass, using a per-char lookup table derived
+ * from the same steps. ASCII takes a branch-only fast path; other chars are folded
+ * once on first sight and memoized.
  */
 public class TextNormalizer {
 
@@ -18,20 +23,173 @@ public class TextNormalizer {
     private static final String UNACCENTED =
             "aaaaaeeeeiiiiooooouuuucnAAAAAEEEEIIIIOOOOOUUUUCN";
 
+    // Lookup table codes; any other value is the single [a-z0-9] char the input folds to.
+    private static final char NOT_COMPUTED = 0;
+    private static final char SEPARATOR = 1;
+    private static final char REMOVED = 2;
+    private static final char MULTI_CHAR = 3;
+
+    private static final char[] FOLD_TABLE = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (char c = 0; c < 256; c++) {
+            FOLD_TABLE[c] = computeFoldCode(c);
+        }
+    }
+
     public static String normalize(String text) {
         if (text == null) {
             return "";
         }
 
+        if (isAscii(text)) {
+            return normalizeAscii(text);
+        }
+
+        String normalized = fold(text);
+
+        normalized = normalized.trim().replaceAll("\\s+", " ");
+        return normalized;
+    }
+
+    /**
+     * Emits the tokens of {@code tokenize(normalize(text))} into {@code out}:
+     * maximal runs of [a-z0-9] after lowercasing and accent removal.
+     * Appends to whatever {@code out} already holds; clear it first to reuse it.
+     */
+    static void tokenize(CharSequence text, TokenBuffer out) {
+        if (text == null) {
+            return;
+        }
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c < 128) {
+                if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                    out.append(c);
+                } else if (c >= 'A' && c <= 'Z') {
+                    out.append((char) (c + ('a' - 'A')));
+                } else {
+                    out.endToken();
+                }
+                continue;
+            }
+
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                appendFolded(fold(text.subSequence(i, i + 2).toString()), out);
+                i++;
+                continue;
+            }
+
+            char code = foldCode(c);
+            if (code == SEPARATOR) {
+                out.endToken();
+            } else if (code == MULTI_CHAR) {
+                appendFolded(fold(String.valueOf(c)), out);
+            } else if (code != REMOVED) {
+                out.append(code);
+            }
+        }
+        out.endToken();
+    }
+
+    private static char foldCode(char c) {
+        char code = FOLD_TABLE[c];
+        if (code == NOT_COMPUTED) {
+            // Racy but idempotent: every thread computes the same value.
+            code = computeFoldCode(c);
+            FOLD_TABLE[c] = code;
+        }
+        return code;
+    }
+
+    private static char computeFoldCode(char c) {
+        if (Character.isSurrogate(c)) {
+            return SEPARATOR;
+        }
+
+        String folded = fold(String.valueOf(c));
+        if (folded.isEmpty()) {
+            return REMOVED;
+        }
+        if (folded.length() == 1) {
+            char f = folded.charAt(0);
+            return isTokenChar(f) ? f : SEPARATOR;
+        }
+        return MULTI_CHAR;
+    }
+
+    private static void appendFolded(String folded, TokenBuffer out) {
+        for (int i = 0; i < folded.length(); i++) {
+            char f = folded.charAt(i);
+            if (isTokenChar(f)) {
+                out.append(f);
+            } else {
+                out.endToken();
+            }
+        }
+    }
+
+    private static boolean isTokenChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Lowercase, NFD, strip combining marks and map leftover accented chars.
+     */
+    private static String fold(String text) {
         String normalized = text.toLowerCase(Locale.ROOT);
 
         normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
         normalized = normalized.replaceAll("\\p{M}+", "");
 
-        normalized = removeAccentsByMapping(normalized);
+        return removeAccentsByMapping(normalized);
+    }
 
-        normalized = normalized.trim().replaceAll("\\s+", " ");
-        return normalized;
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as the general path for ASCII input: lowercase A-Z, trim chars
+     * up to ' ' at both ends and collapse runs of regex {@code \s} into one space.
+     */
+    private static String normalizeAscii(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+        boolean inWhitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isRegexWhitespace(c)) {
+                if (!inWhitespace) {
+                    sb.append(' ');
+                    inWhitespace = true;
+                }
+                continue;
+            }
+            inWhitespace = false;
+            sb.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
     }
 
     private static String removeAccentsByMapping(String text) {
@@ -0,0 +1,97 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable output of {@link TextNormalizer#tokenize(CharSequence, TokenBuffer)}.
+ * Token characters are appended to one shared char array; each token is a span
+ * {@code [start(i), start(i) + length(i))} of it. Call {@link #clear()} before reuse.
+ */
+final class TokenBuffer {
+
+    private char[] chars = new char[128];
+    private int charCount;
+
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private int count;
+
+    private boolean inToken;
+
+    void clear() {
+        charCount = 0;
+        count = 0;
+        inToken = false;
+    }
+
+    int count() {
+        return count;
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int start(int token) {
+        return starts[token];
+    }
+
+    int length(int token) {
+        return lengths[token];
+    }
+
+    String token(int token) {
+        return new String(chars, starts[token], lengths[token]);
+    }
+
+    /**
+     * @return tokens separated by single spaces, e.g. {@code "quanto custa"}
+     */
+    String joined() {
+        if (count == 0) {
+            return "";
+        }
+        char[] joined = new char[charCount + count - 1];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                joined[position++] = ' ';
+            }
+            System.arraycopy(chars, starts[i], joined, position, lengths[i]);
+            position += lengths[i];
+        }
+        return new String(joined);
+    }
+
+    List<String> toList() {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add(token(i));
+        }
+        return tokens;
+    }
+
+    void append(char c) {
+        if (!inToken) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            starts[count] = charCount;
+            lengths[count] = 0;
+            count++;
+            inToken = true;
+        }
+        if (charCount == chars.length) {
+            chars = Arrays.copyOf(chars, charCount * 2);
+        }
+        chars[charCount++] = c;
+        lengths[count - 1]++;
+    }
+
+    void endToken() {
+        inToken = false;
+    }
+}
@@ -0,0 +1,176 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Corrects misspelled message tokens to knowledge base tokens with a SymSpell
+ * symmetric-delete index. At build time every dictionary token is filed under each string
+ * obtained by deleting up to {@code maxDistance} of its characters. A message token is looked
+ * up under its own deletes: that is O(length^maxDistance) map probes whatever the vocabulary
+ * size, and only the few tokens sharing a delete are verified with the (restricted)
+ * Damerau-Levenshtein distance, so a transposition costs 1.
+ * <p>
+ * Users repeat the same unknown words (fillers, the same typos), so results are memoized
+ * per token and distance; the memo is cleared when it reaches {@link #MAX_MEMO_ENTRIES}.
+ */
+final class TokenCorrector {
+
+    static final int MAX_MEMO_ENTRIES = 16_384;
+
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private final TokenDictionary dictionary;
+    private final int maxDistance;
+    private final Map<String, int[]> candidatesByDelete;
+    private final List<ConcurrentHashMap<String, Integer>> memo;
+
+    private TokenCorrector(TokenDictionary dictionary, int maxDistance, Map<String, int[]> candidatesByDelete) {
+        this.dictionary = dictionary;
+        this.maxDistance = maxDistance;
+        this.candidatesByDelete = candidatesByDelete;
+        List<ConcurrentHashMap<String, Integer>> memo = new ArrayList<>(maxDistance + 1);
+        for (int d = 0; d <= maxDistance; d++) {
+            memo.add(new ConcurrentHashMap<>());
+        }
+        this.memo = List.copyOf(memo);
+    }
+
+    /**
+     * @param dictionary knowledge base tokens to correct to
+     * @param maxDistance largest edit distance any correction may have (1 or 2)
+     */
+    static TokenCorrector build(TokenDictionary dictionary, int maxDistance) {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            for (String delete : deletesOf(dictionary.tokenOf(id), maxDistance)) {
+                lists.computeIfAbsent(delete, k -> new ArrayList<>(1)).add(id);
+            }
+        }
+
+        Map<String, int[]> candidatesByDelete = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            candidatesByDelete.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new TokenCorrector(dictionary, maxDistance, candidatesByDelete);
+    }
+
+    int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * @param token message token unknown to the dictionary
+     * @param distance largest edit distance accepted for this token (at most {@link #maxDistance()})
+     * @return id of the closest dictionary token (lowest id on ties), or {@link TokenDictionary#UNKNOWN}
+     */
+    int correct(String token, int distance) {
+        int limit = Math.min(distance, maxDistance);
+        if (limit <= 0) {
+            return TokenDictionary.UNKNOWN;
+        }
+
+        ConcurrentHashMap<String, Integer> corrections = memo.get(limit);
+        Integer known = corrections.get(token);
+        if (known != null) {
+            return known;
+        }
+
+        int corrected = lookup(token, limit);
+        if (corrections.size() >= MAX_MEMO_ENTRIES) {
+            corrections.clear();
+        }
+        corrections.put(token, corrected);
+        return corrected;
+    }
+
+    private int lookup(String token, int limit) {
+        int bestId = TokenDictionary.UNKNOWN;
+        int bestDistance = limit + 1;
+        for (String delete : deletesOf(token, limit)) {
+            for (int id : candidatesByDelete.getOrDefault(delete, NO_CANDIDATES)) {
+                String candidate = dictionary.tokenOf(id);
+                if (Math.abs(candidate.length() - token.length()) > limit) {
+                    continue;
+                }
+                int d = distance(token, candidate, bestDistance);
+                if (d < bestDistance || (d == bestDistance && id < bestId)) {
+                    bestDistance = d;
+                    bestId = id;
+                }
+            }
+        }
+        return bestId;
+    }
+
+    /**
+     * @return the token and every string obtained by deleting 1..{@code maxDeletes} of its characters
+     */
+    static Set<String> deletesOf(String token, int maxDeletes) {
+        Set<String> deletes = new HashSet<>();
+        deletes.add(token);
+        List<String> frontier = List.of(token);
+        for (int round = 0; round < maxDeletes; round++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                if (word.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < word.length(); i++) {
+                    String delete = word.substring(0, i) + word.substring(i + 1);
+                    if (deletes.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return deletes;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions).
+     *
+     * @return the distance, or any value {@code > bound} once it is known to exceed {@code bound}
+     */
+    static int distance(String a, String b, int bound) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, previous2[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+            Arrays.fill(current, 0);
+        }
+        return previous[m];
+    }
+}
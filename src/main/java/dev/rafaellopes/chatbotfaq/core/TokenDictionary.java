@@ -0,0 +1,210 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns every keyword token of the knowledge base into a dense int id (0..size-1).
+ * Message tokens unknown to the knowledge base map to {@link #UNKNOWN}, which no
+ * keyword phrase contains, so they can never match.
+ */
+public final class TokenDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private final String[] tokens;
+    private final int[] slots;
+    private final int mask;
+
+    private TokenDictionary(String[] tokens) {
+        this.tokens = tokens;
+
+        int capacity = Integer.highestOneBit(Math.max(2, tokens.length * 2 - 1)) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+
+        // Open addressing with linear probing; a slot holds id + 1 (0 = empty).
+        for (int id = 0; id < tokens.length; id++) {
+            int slot = spread(tokens[id].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    /**
+     * @return id of the token, or {@link #UNKNOWN} when the knowledge base never uses it
+     */
+    public int idOf(String token) {
+        if (token == null) {
+            return UNKNOWN;
+        }
+
+        int slot = spread(token.hashCode()) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (tokens[entry - 1].equals(token)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Looks up {@code chars[start .. start + length)} without creating a String.
+     *
+     * @return id of the token, or {@link #UNKNOWN} when the knowledge base never uses it
+     */
+    int idOf(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int slot = spread(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (spanEquals(tokens[entry - 1], chars, start, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * String hashes of similar tokens ("tema1", "tema2", ...) differ mostly in the
+     * low bits by small steps; mixing keeps linear probing from forming long runs.
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean spanEquals(String token, char[] chars, int start, int length) {
+        if (token.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (token.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return token text for a valid id
+     */
+    public String tokenOf(int id) {
+        return tokens[id];
+    }
+
+    public int size() {
+        return tokens.length;
+    }
+
+    /**
+     * Encodes tokens to ids, keeping positions (unknown tokens become {@link #UNKNOWN}).
+     */
+    int[] encode(List<String> messageTokens) {
+        int[] ids = new int[messageTokens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(messageTokens.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Encodes buffered tokens to ids, keeping positions (unknown tokens become {@link #UNKNOWN}).
+     */
+    int[] encode(TokenBuffer messageTokens) {
+        int[] ids = new int[messageTokens.count()];
+        char[] chars = messageTokens.chars();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(chars, messageTokens.start(i), messageTokens.length(i));
+        }
+        return ids;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(tokens.length);
+        for (String token : tokens) {
+            KnowledgeBaseSnapshotFile.writeString(out, token);
+        }
+    }
+
+    /**
+     * @param shared pool the token strings are taken from, null = keep the decoded strings
+     */
+    static TokenDictionary readFrom(ByteBuffer in, TokenInterner shared) {
+        String[] tokens = new String[in.getInt()];
+        for (int i = 0; i < tokens.length; i++) {
+            String token = KnowledgeBaseSnapshotFile.readString(in);
+            tokens[i] = shared == null ? token : shared.intern(token);
+        }
+        return new TokenDictionary(tokens);
+    }
+
+    /**
+     * @return estimated heap bytes of the lookup arrays; the token strings are counted by the caller
+     */
+    long estimatedBytes() {
+        return MemoryEstimate.object(3 * MemoryEstimate.REFERENCE + Integer.BYTES)
+                + MemoryEstimate.referenceArray(tokens.length) + MemoryEstimate.intArray(slots.length);
+    }
+
+    static Builder builder() {
+        return new Builder(null);
+    }
+
+    /**
+     * @param shared pool the token strings are taken from, null = keep the caller's strings
+     */
+    static Builder builder(TokenInterner shared) {
+        return new Builder(shared);
+    }
+
+    /**
+     * Assigns ids in first-seen order.
+     */
+    static final class Builder {
+
+        private final TokenInterner shared;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> tokens = new ArrayList<>();
+
+        private Builder(TokenInterner shared) {
+            this.shared = shared;
+        }
+
+        int intern(String token) {
+            Integer id = ids.get(token);
+            if (id == null) {
+                id = tokens.size();
+                ids.put(token, id);
+                tokens.add(shared == null ? token : shared.intern(token));
+            }
+            return id;
+        }
+
+        int[] internAll(List<String> phraseTokens) {
+            int[] phrase = new int[phraseTokens.size()];
+            for (int i = 0; i < phrase.length; i++) {
+                phrase[i] = intern(phraseTokens.get(i));
+            }
+            return phrase;
+        }
+
+        TokenDictionary build() {
+            return new TokenDictionary(tokens.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of canonical strings shared by several knowledge bases (tenants) in one JVM.
+ * Indexes built with the same interner keep one {@link String} instance per distinct
+ * normalized token and keyword, so vocabulary common to every tenant ("o", "que",
+ * "preco", ...) is stored once; only the per-tenant ids and arrays are duplicated.
+ * <p>
+ * The pool only holds its strings weakly: a word that a reload or an edit dropped from
+ * every knowledge base is collected with the last index using it, so reloading for a
+ * long time does not grow the pool. Thread-safe, so tenants can be reloaded
+ * concurrently; interning only happens while building an index, never per query, so
+ * one lock is enough.
+ */
+public final class TokenInterner {
+
+    // WeakHashMap.Entry: the Reference fields (referent, queue, next, discovered) plus value, next and hash.
+    private static final long ENTRY_BYTES = MemoryEstimate.object(6 * MemoryEstimate.REFERENCE + Integer.BYTES);
+    // The WeakReference value pointing back at the key.
+    private static final long VALUE_BYTES = MemoryEstimate.object(4 * MemoryEstimate.REFERENCE);
+    private static final int MIN_TABLE_LENGTH = 16;
+
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    /**
+     * @return the pooled instance equal to {@code value} (null stays null)
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        WeakReference<String> reference = pool.get(value);
+        String pooled = reference == null ? null : reference.get();
+        if (pooled == null) {
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+        return pooled;
+    }
+
+    /**
+     * @return true when {@code value} is the pooled instance itself
+     */
+    synchronized boolean holds(String value) {
+        if (value == null) {
+            return false;
+        }
+        WeakReference<String> reference = pool.get(value);
+        return reference != null && reference.get() == value;
+    }
+
+    /**
+     * @return number of distinct strings pooled and still used by some knowledge base
+     */
+    public synchronized int size() {
+        return pool.size();
+    }
+
+    /**
+     * @return estimated heap bytes of the pool: the pooled strings plus, per string, the
+     *         table entry and weak reference that keep it findable, and the table itself
+     */
+    public synchronized long estimatedBytes() {
+        long bytes = 0;
+        int size = 0;
+        for (String value : pool.keySet()) {
+            bytes += MemoryEstimate.string(value) + ENTRY_BYTES + VALUE_BYTES;
+            size++;
+        }
+        // Load factor 0.75, power-of-two table.
+        int tableLength = MIN_TABLE_LENGTH;
+        while (tableLength * 3L / 4 < size) {
+            tableLength <<= 1;
+        }
+        return bytes + MemoryEstimate.object(6 * MemoryEstimate.REFERENCE + 4 * Integer.BYTES)
+                + MemoryEstimate.referenceArray(tableLength);
+    }
+}
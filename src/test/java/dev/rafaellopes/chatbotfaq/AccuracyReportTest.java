@@ -0,0 +1,69 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.ScoringEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccuracyReportTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("variantes", List.of("preco", "valor", "custo", "orcamento", "cotacao"), "r1", 1),
+            new Intent("planos", List.of("preco", "planos"), "r2", 1)));
+
+    @Test
+    void shouldReadLabelledQueries(@TempDir Path dir) throws Exception {
+        Path input = Files.writeString(dir.resolve("labelled.jsonl"), """
+                {"message":"preco valor planos","intent":"planos"}
+
+                {"message":"oi","intent":null}
+                {"message":"tchau"}
+                """);
+
+        List<AccuracyReport.LabelledQuery> queries = AccuracyReport.read(input, objectMapper);
+
+        assertEquals(List.of(
+                new AccuracyReport.LabelledQuery("preco valor planos", "planos"),
+                new AccuracyReport.LabelledQuery("oi", null),
+                new AccuracyReport.LabelledQuery("tchau", null)), queries);
+    }
+
+    @Test
+    void shouldRejectEntriesWithoutMessage(@TempDir Path dir) throws Exception {
+        Path input = Files.writeString(dir.resolve("labelled.jsonl"), "{\"message\":\"oi\"}\n{\"intent\":\"x\"}\n");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> AccuracyReport.read(input, objectMapper));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    void shouldCompareEnginesSideBySide() {
+        List<AccuracyReport.LabelledQuery> queries = List.of(
+                new AccuracyReport.LabelledQuery("preco valor planos", "planos"),
+                new AccuracyReport.LabelledQuery("cotacao", "variantes"),
+                new AccuracyReport.LabelledQuery("bom dia", null));
+
+        List<AccuracyReport.EngineResult> results = Arrays.stream(ScoringEngine.values())
+                .map(engine -> AccuracyReport.run(engine.name().toLowerCase(), queries, index,
+                        new IntentMatcher(null, null, null, engine)))
+                .toList();
+        String report = AccuracyReport.format(queries, results);
+
+        assertTrue(report.contains("Acurácia em 3 perguntas rotuladas"), report);
+        assertTrue(report.matches("(?s).*occurrences +2 +66,7% +1.*"), report);
+        assertTrue(report.matches("(?s).*bm25 +3 +100,0% +1.*"), report);
+        assertTrue(report.contains("Divergências entre motores: 1"), report);
+        assertTrue(report.contains("\"preco valor planos\" esperado=planos occurrences=variantes bm25=planos"), report);
+    }
+}
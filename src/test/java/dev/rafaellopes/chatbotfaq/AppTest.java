@@ -3,13 +3,22 @@ package dev.rafaellopes.chatbotfaq;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentLoader;
 import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseSnapshotFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -91,6 +100,24 @@ class AppTest {
         assertEquals("Resposta sobre agendamento", response4);
     }
 
+    @Test
+    void shouldStartFromFreshSnapshotButKeepWatchingTheJson(@TempDir Path dir) throws Exception {
+        Path json = Files.writeString(dir.resolve("intents.json"), """
+                [{"intent":"orcamento","keywords":["preco"],"response":"json","priority":1}]
+                """);
+        Path snapshot = KnowledgeBaseSnapshotFile.siblingOf(json);
+        KnowledgeBaseSnapshotFile.write(IntentIndex.build(List.of(
+                new Intent("orcamento", List.of("preco"), "snapshot", 1))), snapshot);
+        Files.setLastModifiedTime(snapshot, FileTime.from(Instant.now().plusSeconds(60)));
+
+        KnowledgeBaseReloader knowledgeBase = App.openKnowledgeBase(json, new IntentLoader(new ObjectMapper()), null);
+
+        assertEquals(json.toAbsolutePath(), knowledgeBase.path());
+        assertEquals("snapshot", matcher.findBestIntent("preco", knowledgeBase.index()).orElseThrow().getResponse());
+        assertTrue(knowledgeBase.reload());
+        assertEquals("json", matcher.findBestIntent("preco", knowledgeBase.index()).orElseThrow().getResponse());
+    }
+
     private List<Intent> createTestIntents() {
         try {
             ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,82 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("orcamento", List.of("preco", "quanto custa"), "Resposta sobre orçamento", 10),
+            new Intent("agendamento", List.of("agendar", "horario"), "Resposta sobre agendamento", 10)
+    ));
+
+    @Test
+    void shouldWriteOneOrderedJsonLinePerInputLine(@TempDir Path dir) throws Exception {
+        List<String> questions = new ArrayList<>();
+        for (int i = 0; i < BatchRunner.CHUNK_LINES * 5 + 7; i++) {
+            questions.add(switch (i % 4) {
+                case 0 -> "quanto custa o preço " + i;
+                case 1 -> "quero agendar um horário " + i;
+                case 2 -> "   ";
+                default -> "\"nada\" a ver " + i;
+            });
+        }
+        Path input = Files.write(dir.resolve("questions.txt"), questions, StandardCharsets.UTF_8);
+        Path output = dir.resolve("results.jsonl");
+
+        BatchRunner.Summary summary = new BatchRunner(index, new IntentMatcher(), 4).run(input, output);
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(questions.size(), lines.size());
+        assertEquals(questions.size(), summary.lines());
+        assertEquals(questions.size() / 2, summary.fallbacks());
+
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode result = OBJECT_MAPPER.readTree(lines.get(i));
+            assertEquals(questions.get(i), result.get("input").asText());
+
+            switch (i % 4) {
+                case 0 -> {
+                    assertEquals("orcamento", result.get("intent").asText());
+                    assertEquals(2, result.get("score").asInt());
+                    assertFalse(result.get("fallback").asBoolean());
+                }
+                case 1 -> {
+                    assertEquals("agendamento", result.get("intent").asText());
+                    assertEquals(2, result.get("score").asInt());
+                }
+                default -> {
+                    assertTrue(result.get("intent").isNull());
+                    assertEquals(0, result.get("score").asInt());
+                    assertTrue(result.get("fallback").asBoolean());
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteEmptyOutputForEmptyInput(@TempDir Path dir) throws Exception {
+        Path input = Files.writeString(dir.resolve("empty.txt"), "");
+        Path output = dir.resolve("results.jsonl");
+
+        BatchRunner.Summary summary = new BatchRunner(index, new IntentMatcher(), 2).run(input, output);
+
+        assertEquals(0, summary.lines());
+        assertEquals("", Files.readString(output));
+    }
+}
@@ -0,0 +1,103 @@
+package dev.rafaellopes.chatbotfaq;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleLineReaderTest {
+
+    @Test
+    void shouldSplitLinesAndDropCarriageReturns() throws Exception {
+        assertEquals(List.of("quanto custa", "", "o que é chatbot?", "sem quebra final"),
+                readAll("quanto custa\r\n\r\no que é chatbot?\nsem quebra final".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of(), readAll(new byte[0]));
+        assertEquals(List.of(""), readAll("\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldJoinLinesCrossingBufferRefills() throws Exception {
+        String longLine = "automação ".repeat(3000).trim();
+        byte[] input = (longLine + "\r\nfim\n").getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(List.of(longLine, "fim"), readAll(input));
+        // Same result when the stream hands out a few bytes per read, splitting multi-byte chars.
+        assertEquals(List.of(longLine, "fim"), readAll(new TrickleInputStream(input, 7)));
+    }
+
+    @Test
+    void shouldKeepUtf8AndDecodeOtherLinesWithoutMojibake() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("preço\n".getBytes(StandardCharsets.UTF_8));
+        out.writeBytes("plain ascii\n".getBytes(StandardCharsets.UTF_8));
+        out.writeBytes("automação\n".getBytes(StandardCharsets.UTF_8));
+
+        List<String> lines = readAll(out.toByteArray());
+
+        assertEquals(List.of("preço", "plain ascii", "automação"), lines);
+        assertTrue(lines.stream().noneMatch(line -> line.contains("Ã")));
+    }
+
+    @Test
+    void shouldFallBackToDefaultCharsetWhenBytesAreNotUtf8() throws Exception {
+        byte[] latin1 = "preço\n".getBytes(StandardCharsets.ISO_8859_1);
+        String expected = new String(latin1, 0, latin1.length - 1, Charset.defaultCharset());
+
+        assertEquals(List.of(expected, "ok", "ação"), readAll(concat(latin1,
+                "ok\n".getBytes(StandardCharsets.UTF_8), "ação".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String> readAll(byte[] input) throws IOException {
+        return readAll(new ByteArrayInputStream(input));
+    }
+
+    private static List<String> readAll(InputStream input) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ConsoleLineReader reader = new ConsoleLineReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns at most {@code chunk} bytes per read, like a slow pipe.
+     */
+    private static final class TrickleInputStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+        private final int chunk;
+
+        TrickleInputStream(byte[] bytes, int chunk) {
+            this.delegate = new ByteArrayInputStream(bytes);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnowledgeBaseOptimizerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldDropVariantsThatNormalizeToTheSameKeyword() {
+        List<Intent> source = List.of(
+                new Intent("automacao", List.of("O que é automação?", "o que e automacao", "automação", "!!!"),
+                        "Automação é...", 10),
+                new Intent("preco", List.of("preço", "quanto custa"), "Depende.", 5));
+
+        KnowledgeBaseOptimizer.Result result = KnowledgeBaseOptimizer.optimize(source, List.of());
+
+        assertEquals(List.of("o que e automacao", "automacao"), result.intents().get(0).getKeywords());
+        assertEquals(List.of("preco", "quanto custa"), result.intents().get(1).getKeywords());
+        assertEquals("Automação é...", result.intents().get(0).getResponse());
+        assertEquals(6, result.keywordsBefore());
+        assertEquals(4, result.keywordsAfter());
+        assertEquals(List.of(
+                new KnowledgeBaseOptimizer.Removal("automacao", "o que e automacao", "o que e automacao"),
+                new KnowledgeBaseOptimizer.Removal("automacao", "!!!", null)), result.removals());
+        assertTrue(result.restoredIntents().isEmpty());
+        assertEquals(List.of(new KnowledgeBaseOptimizer.Subsumption("automacao", "automacao", "o que e automacao",
+                "automacao")), result.subsumptions());
+    }
+
+    @Test
+    void shouldKeepRepeatsWhoseRemovalWouldChangeAnAnswer() {
+        // The repeat makes "precos" win "preço" against a higher-priority intent.
+        List<Intent> source = List.of(
+                new Intent("precos", List.of("preço", "preco"), "Tabela.", 1),
+                new Intent("orcamento", List.of("preco", "orçamento"), "Orçamento.", 10));
+
+        KnowledgeBaseOptimizer.Result result = KnowledgeBaseOptimizer.optimize(source, List.of());
+
+        assertEquals(List.of("preco", "preco"), result.intents().get(0).getKeywords());
+        assertEquals(List.of("precos"), result.restoredIntents());
+        assertTrue(result.removals().isEmpty());
+        assertEquals(List.of(new KnowledgeBaseOptimizer.Collision("preco", List.of("precos", "orcamento"))),
+                result.collisions());
+
+        String report = KnowledgeBaseOptimizer.format(result);
+        assertTrue(report.contains("Intents que mantêm repetições"), report);
+        assertTrue(report.contains("\"preco\": precos, orcamento"), report);
+    }
+
+    @Test
+    void shouldWriteALoadableKnowledgeBaseAndNameTheReport() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Intent> source = List.of(new Intent("preco", List.of("Preço", "preco"), "Depende.", 5));
+        Path output = dir.resolve("intents.optimized.json");
+
+        KnowledgeBaseOptimizer.writeJson(KnowledgeBaseOptimizer.optimize(source, List.of("qual o preço?")).intents(),
+                output, objectMapper);
+
+        List<Intent> loaded = new IntentLoader(objectMapper).load(output);
+        assertEquals(1, loaded.size());
+        assertEquals(List.of("preco"), loaded.get(0).getKeywords());
+        assertEquals(5, loaded.get(0).getPriority());
+        assertEquals(dir.resolve("intents.optimized.report.txt"), KnowledgeBaseOptimizer.reportPathFor(output));
+    }
+}
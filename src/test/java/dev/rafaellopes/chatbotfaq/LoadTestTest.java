@@ -0,0 +1,73 @@
+package dev.rafaellopes.chatbotfaq;
+
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.SyntheticKnowledgeBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestTest {
+
+    @Test
+    void shouldDriveTheMatcherFromSeveralThreadsForTheDuration() throws Exception {
+        LoadTest.Config config = new LoadTest.Config(200, SyntheticKnowledgeBase.Shape.DEFAULT, 100, 0.0, 2, 0, 1, 42);
+        List<Intent> intents = SyntheticKnowledgeBase.generate(config.intents(), config.shape(), config.seed());
+
+        long start = System.nanoTime();
+        LoadTest.Result result = LoadTest.run(config, IntentIndex.build(intents), LoadTest.trace(config, intents),
+                new IntentMatcher());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 1000 && elapsedMillis < 5000, String.valueOf(elapsedMillis));
+        assertTrue(result.operations() > 0);
+        assertEquals(result.operations(), result.latency().count());
+        // Hit ratio 0: every query is a guaranteed miss.
+        assertEquals(result.operations(), result.fallbacks());
+        assertTrue(result.throughput() > 0);
+        assertTrue(result.elapsedNanos() >= 1_000_000_000L && result.elapsedNanos() <= elapsedMillis * 1_000_000L);
+
+        String report = LoadTest.format(config, result, "occurrences");
+        assertTrue(report.contains("semente 42"), report);
+        assertTrue(report.contains("p99,9"), report);
+        assertTrue(report.contains("100,0% sem resposta"), report);
+    }
+
+    @Test
+    void shouldMeasureUntilTheLastCountedCallEnds() throws Exception {
+        LoadTest.Config config = new LoadTest.Config(10, SyntheticKnowledgeBase.Shape.DEFAULT, 10, 0.5, 1, 0, 1, 7);
+        List<Intent> intents = SyntheticKnowledgeBase.generate(config.intents(), config.shape(), config.seed());
+        IntentMatcher slow = new IntentMatcher() {
+            @Override
+            public Optional<Intent> findBestIntent(String userMessage, IntentIndex index) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findBestIntent(userMessage, index);
+            }
+        };
+
+        LoadTest.Result result = LoadTest.run(config, IntentIndex.build(intents), LoadTest.trace(config, intents), slow);
+
+        // The call started just before the end of the second still counts, so it extends the window.
+        assertTrue(result.elapsedNanos() >= result.operations() * 300_000_000L,
+                result.operations() + " calls in " + result.elapsedNanos() + " ns");
+        assertTrue(result.elapsedNanos() > 1_000_000_000L);
+    }
+
+    @Test
+    void shouldRejectInvalidConfigurations() {
+        SyntheticKnowledgeBase.Shape shape = SyntheticKnowledgeBase.Shape.DEFAULT;
+
+        assertThrows(IllegalArgumentException.class, () -> new LoadTest.Config(0, shape, 10, 0.5, 1, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadTest.Config(10, shape, 10, 1.5, 1, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadTest.Config(10, shape, 10, 0.5, 0, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadTest.Config(10, shape, 10, 0.5, 1, 0, 0, 1));
+    }
+}
@@ -0,0 +1,49 @@
+package dev.rafaellopes.chatbotfaq;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.Configurator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggingConfiguratorTest {
+
+    @Test
+    void shouldTurnLoggingOffWithoutReadingXml() {
+        String previous = System.clearProperty(LoggingConfigurator.CONFIGURATION_FILE_PROPERTY);
+        try {
+            LoggerContext context = new LoggerContext();
+
+            Configurator.ExecutionStatus status = new LoggingConfigurator().configure(context);
+
+            assertEquals(Configurator.ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY, status);
+            assertEquals(Level.OFF, context.getLogger(Logger.ROOT_LOGGER_NAME).getLevel());
+        } finally {
+            if (previous != null) {
+                System.setProperty(LoggingConfigurator.CONFIGURATION_FILE_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    void shouldLeaveAnExplicitConfigurationFileToLogback() {
+        String previous = System.setProperty(LoggingConfigurator.CONFIGURATION_FILE_PROPERTY, "logback-dev.xml");
+        try {
+            LoggerContext context = new LoggerContext();
+            Level before = context.getLogger(Logger.ROOT_LOGGER_NAME).getLevel();
+
+            Configurator.ExecutionStatus status = new LoggingConfigurator().configure(context);
+
+            assertEquals(Configurator.ExecutionStatus.INVOKE_NEXT_IF_ANY, status);
+            assertEquals(before, context.getLogger(Logger.ROOT_LOGGER_NAME).getLevel());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LoggingConfigurator.CONFIGURATION_FILE_PROPERTY);
+            } else {
+                System.setProperty(LoggingConfigurator.CONFIGURATION_FILE_PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentLoader;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import dev.rafaellopes.chatbotfaq.core.TenantRegistry;
+import dev.rafaellopes.chatbotfaq.core.TokenInterner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchHttpServerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String FALLBACK = "fallback";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MatchHttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Intent> intents = List.of(
+                new Intent("orcamento", List.of("preco", "quanto custa"), "Resposta sobre orçamento", 10),
+                new Intent("agendamento", List.of("agendar", "horario"), "Resposta sobre agenda", 1)
+        );
+        KnowledgeBaseReloader knowledgeBase =
+                new KnowledgeBaseReloader(Path.of("intents.json"), new IntentLoader(OBJECT_MAPPER), intents);
+        server = new MatchHttpServer(0, OBJECT_MAPPER, knowledgeBase, new IntentMatcher(), FALLBACK);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldReturnMatchedIntentAndResponse() throws Exception {
+        HttpResponse<String> response = post("/match", "{\"message\":\"Quanto custa?\"}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = OBJECT_MAPPER.readTree(response.body());
+        assertEquals("orcamento", body.get("intent").asText());
+        assertEquals("Resposta sobre orçamento", body.get("response").asText());
+        assertFalse(body.get("fallback").asBoolean());
+    }
+
+    @Test
+    void shouldReturnFallbackWhenNothingMatches() throws Exception {
+        HttpResponse<String> response = post("/match", "{\"message\":\"   \"}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = OBJECT_MAPPER.readTree(response.body());
+        assertTrue(body.get("intent").isNull());
+        assertEquals(FALLBACK, body.get("response").asText());
+        assertTrue(body.get("fallback").asBoolean());
+    }
+
+    @Test
+    void shouldReturnTopCandidatesWhenRequested() throws Exception {
+        HttpResponse<String> response = post("/match", "{\"message\":\"quanto custa agendar horario?\",\"top\":3}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = OBJECT_MAPPER.readTree(response.body());
+        assertEquals("agendamento", body.get("intent").asText());
+        JsonNode candidates = body.get("candidates");
+        assertEquals(2, candidates.size());
+        assertEquals("agendamento", candidates.get(0).get("intent").asText());
+        assertEquals(2, candidates.get(0).get("score").asInt());
+        assertEquals("agendar", candidates.get(0).get("matchedKeywords").get(0).asText());
+        assertEquals("orcamento", candidates.get(1).get("intent").asText());
+        assertEquals(10, candidates.get(1).get("priority").asInt());
+
+        assertNull(OBJECT_MAPPER.readTree(post("/match", "{\"message\":\"preco\"}").body()).get("candidates"));
+        assertEquals(400, post("/match", "{\"message\":\"preco\",\"top\":0}").statusCode());
+        assertEquals(400, post("/match", "{\"message\":\"preco\",\"top\":\"3\"}").statusCode());
+    }
+
+    @Test
+    void shouldKeepSessionStateUntilRestarted() throws Exception {
+        assertNull(OBJECT_MAPPER.readTree(post("/match", "{\"message\":\"preco\"}").body()).get("session"));
+
+        post("/match", "{\"message\":\"preco\",\"session\":\"u1\"}");
+        JsonNode second = OBJECT_MAPPER.readTree(
+                post("/match", "{\"message\":\"agendar\",\"session\":\"u1\"}").body()).get("session");
+        assertEquals("u1", second.get("id").asText());
+        assertEquals(2, second.get("turns").asInt());
+        assertEquals("orcamento", second.get("previousIntent").asText());
+
+        JsonNode restart = OBJECT_MAPPER.readTree(
+                post("/match", "{\"message\":\" /reiniciar \",\"session\":\"u1\"}").body());
+        assertEquals(App.RESTART_MESSAGE, restart.get("response").asText());
+        assertEquals(0, restart.get("session").get("turns").asInt());
+
+        JsonNode afterRestart = OBJECT_MAPPER.readTree(
+                post("/match", "{\"message\":\"agendar\",\"session\":\"u1\"}").body()).get("session");
+        assertEquals(1, afterRestart.get("turns").asInt());
+        assertTrue(afterRestart.get("previousIntent").isNull());
+
+        assertEquals(400, post("/match", "{\"message\":\"preco\",\"session\":7}").statusCode());
+        assertEquals(1, OBJECT_MAPPER.readTree(client.send(HttpRequest.newBuilder(uri("/status")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body()).get("sessions").get("active").asInt());
+    }
+
+    @Test
+    void shouldRejectInvalidRequests() throws Exception {
+        assertEquals(400, post("/match", "{ invalid").statusCode());
+        assertEquals(400, post("/match", "{\"text\":\"x\"}").statusCode());
+        assertEquals(404, post("/match/extra", "{\"message\":\"x\"}").statusCode());
+
+        HttpResponse<String> get = client.send(
+                HttpRequest.newBuilder(uri("/match")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+    }
+
+    @Test
+    void shouldReportKnowledgeBaseStatus() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(uri("/status")).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = OBJECT_MAPPER.readTree(response.body());
+        assertEquals(1, body.get("version").asLong());
+        assertEquals(2, body.get("intents").asInt());
+        assertNull(body.get("lastReload"));
+        assertEquals(2, body.get("tenants").get("default").get("intents").asInt());
+        assertTrue(body.get("tenants").get("default").get("privateBytes").asLong() > 0);
+    }
+
+    @Test
+    void shouldRouteRequestsByTenant() throws Exception {
+        TokenInterner shared = new TokenInterner();
+        IntentLoader loader = new IntentLoader(OBJECT_MAPPER);
+        TenantRegistry tenants = new TenantRegistry(List.of(
+                tenant("marca-a", new Intent("preco_a", List.of("preco"), "Preço da marca A", 1), shared, loader),
+                tenant("marca-b", new Intent("preco_b", List.of("preco"), "Preço da marca B", 1), shared, loader)
+        ), shared, null);
+
+        server.close();
+        server = new MatchHttpServer(0, OBJECT_MAPPER, tenants, FALLBACK);
+        server.start();
+
+        assertEquals("preco_a", OBJECT_MAPPER.readTree(
+                post("/match", "{\"message\":\"preco\",\"tenant\":\"marca-a\"}").body()).get("intent").asText());
+        assertEquals("preco_b", OBJECT_MAPPER.readTree(
+                post("/match", "{\"message\":\"preco\",\"tenant\":\"marca-b\"}").body()).get("intent").asText());
+        assertEquals(400, post("/match", "{\"message\":\"preco\"}").statusCode());
+        assertEquals(400, post("/match", "{\"message\":\"preco\",\"tenant\":1}").statusCode());
+        assertEquals(404, post("/match", "{\"message\":\"preco\",\"tenant\":\"marca-c\"}").statusCode());
+
+        JsonNode status = OBJECT_MAPPER.readTree(client.send(
+                HttpRequest.newBuilder(uri("/status")).GET().build(), HttpResponse.BodyHandlers.ofString()).body());
+        assertNull(status.get("version"));
+        assertEquals(2, status.get("tenants").size());
+        assertTrue(status.get("tenants").get("marca-b").get("sharedBytes").asLong() > 0);
+        assertEquals(shared.size(), status.get("sharedVocabulary").get("strings").asInt());
+    }
+
+    private static TenantRegistry.Tenant tenant(String id, Intent intent, TokenInterner shared, IntentLoader loader) {
+        IntentIndex index = IntentIndex.builder(shared).add(intent).build();
+        return new TenantRegistry.Tenant(id,
+                new KnowledgeBaseReloader(Path.of(id + ".json"), loader, index, shared), new IntentMatcher());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+}
@@ -0,0 +1,147 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentLoader;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.KnowledgeBaseReloader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchSocketServerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String FALLBACK = "fallback";
+
+    @TempDir
+    Path dir;
+
+    private MatchSocketServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Intent> intents = List.of(
+                new Intent("orcamento", List.of("preco", "quanto custa"), "Resposta sobre orçamento", 10),
+                new Intent("agendamento", List.of("agendar"), "Resposta sobre agenda", 1)
+        );
+        KnowledgeBaseReloader knowledgeBase =
+                new KnowledgeBaseReloader(Path.of("intents.json"), new IntentLoader(OBJECT_MAPPER), intents);
+        server = new MatchSocketServer(dir.resolve("faq.sock"), OBJECT_MAPPER, knowledgeBase, new IntentMatcher(), FALLBACK);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldAnswerLikeTheHttpEndpoint() throws Exception {
+        try (MatchSocketClient client = new MatchSocketClient(server.path())) {
+            JsonNode match = OBJECT_MAPPER.readTree(client.match("Quanto custa?"));
+            assertEquals("orcamento", match.get("intent").asText());
+            assertEquals("Resposta sobre orçamento", match.get("response").asText());
+            assertFalse(match.get("fallback").asBoolean());
+
+            JsonNode fallback = OBJECT_MAPPER.readTree(client.match("   "));
+            assertTrue(fallback.get("intent").isNull());
+            assertEquals(FALLBACK, fallback.get("response").asText());
+            assertTrue(fallback.get("fallback").asBoolean());
+        }
+    }
+
+    @Test
+    void shouldAnswerPipelinedRequestsInOrder() throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            messages.add(i % 3 == 0 ? "preco " + i : i % 3 == 1 ? "quero agendar" : "nada " + "x".repeat(i));
+        }
+
+        try (MatchSocketClient client = new MatchSocketClient(server.path())) {
+            List<String> responses = client.matchAll(messages);
+
+            assertEquals(messages.size(), responses.size());
+            for (int i = 0; i < messages.size(); i++) {
+                JsonNode intent = OBJECT_MAPPER.readTree(responses.get(i)).get("intent");
+                String expected = i % 3 == 0 ? "orcamento" : i % 3 == 1 ? "agendamento" : null;
+                assertEquals(expected, intent.isNull() ? null : intent.asText(), messages.get(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldServeConcurrentConnections() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> tasks = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                tasks.add(pool.submit(() -> {
+                    int matched = 0;
+                    try (MatchSocketClient client = new MatchSocketClient(server.path())) {
+                        for (int i = 0; i < 200; i++) {
+                            if (!OBJECT_MAPPER.readTree(client.match("agendar")).get("fallback").asBoolean()) {
+                                matched++;
+                            }
+                        }
+                    }
+                    return matched;
+                }));
+            }
+            for (Future<Integer> task : tasks) {
+                assertEquals(200, task.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRejectOversizedFramesAndCloseTheConnection() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(server.path()));
+            channel.write(ByteBuffer.allocate(4).putInt(0, MatchSocketServer.MAX_FRAME_BYTES + 1));
+
+            ByteBuffer response = ByteBuffer.allocate(256);
+            while (channel.read(response) >= 0) {
+                // Read until the server closes the connection.
+            }
+            response.flip();
+            int length = response.getInt();
+            byte[] payload = new byte[length];
+            response.get(payload);
+            assertEquals("frame too large", OBJECT_MAPPER.readTree(payload).get("error").asText());
+        }
+    }
+
+    @Test
+    void shouldReplaceStaleSocketFileButNotOtherFiles() throws Exception {
+        Path stale = server.path();
+        server.close();
+        assertFalse(Files.exists(stale));
+
+        Path regular = Files.writeString(dir.resolve("not-a-socket"), "x");
+        MatchSocketServer other = new MatchSocketServer(regular, OBJECT_MAPPER,
+                new KnowledgeBaseReloader(Path.of("intents.json"), new IntentLoader(OBJECT_MAPPER), List.of()),
+                new IntentMatcher(), FALLBACK);
+        assertThrows(IOException.class, other::start);
+        assertEquals("x", Files.readString(regular));
+    }
+}
@@ -0,0 +1,75 @@
+package dev.rafaellopes.chatbotfaq;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void shouldDrainInOfferOrderAndRejectWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertTrue(buffer.offer(5));
+        assertEquals(3, buffer.drain(drained::add, 10));
+        assertEquals(0, buffer.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 5), drained);
+    }
+
+    @Test
+    void shouldDeliverEveryAcceptedElementFromConcurrentProducers() throws Exception {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        int[] accepted = new int[producers];
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(producer * perProducer + i)) {
+                        accepted[producer]++;
+                    }
+                }
+            }));
+        }
+
+        Set<Integer> received = new HashSet<>();
+        int[] lastPerProducer = {-1, -1, -1, -1};
+        boolean[] ordered = {true};
+        Consumer<Integer> consumer = value -> {
+            received.add(value);
+            int producer = value / perProducer;
+            ordered[0] &= value > lastPerProducer[producer];
+            lastPerProducer[producer] = value;
+        };
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            buffer.drain(consumer, 128);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drain(consumer, Integer.MAX_VALUE);
+
+        int total = 0;
+        for (int count : accepted) {
+            total += count;
+        }
+        assertEquals(total, received.size());
+        assertTrue(ordered[0], "elements of one producer must keep their order");
+    }
+}
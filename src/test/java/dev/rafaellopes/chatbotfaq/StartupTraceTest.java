@@ -0,0 +1,46 @@
+package dev.rafaellopes.chatbotfaq;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTraceTest {
+
+    @Test
+    void shouldIgnoreMarksWhenDisabled() {
+        StartupTrace trace = StartupTrace.disabled();
+
+        trace.mark("Jackson (ObjectMapper)");
+
+        assertFalse(trace.enabled());
+        assertTrue(trace.phases().isEmpty());
+    }
+
+    @Test
+    void shouldTimeEachPhaseFromThePreviousMark() throws Exception {
+        long appInit = System.nanoTime();
+        long loggingReady = appInit + 5_000_000;
+        StartupTrace trace = StartupTrace.begin(appInit, loggingReady);
+
+        Thread.sleep(20);
+        trace.mark("base de conhecimento");
+        trace.mark("até o prompt");
+
+        List<StartupTrace.Phase> phases = trace.phases();
+        assertEquals(List.of("JVM e classes até o main", "logging (Logback)", "base de conhecimento", "até o prompt"),
+                phases.stream().map(StartupTrace.Phase::name).toList());
+        assertEquals(5_000_000, phases.get(1).nanos());
+        assertTrue(phases.get(2).nanos() >= 20_000_000, String.valueOf(phases.get(2).nanos()));
+        assertTrue(phases.get(3).nanos() < phases.get(2).nanos());
+        // Loaded before the trace began: no class count for the first phases.
+        assertEquals(-1, phases.get(0).classes());
+        assertTrue(phases.get(2).classes() >= 0);
+
+        String report = trace.format();
+        assertTrue(report.startsWith("Tempo de inicialização por fase:"), report);
+        assertTrue(report.contains("base de conhecimento"), report);
+        assertTrue(report.contains("classes carregadas"), report);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.CachingIntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import dev.rafaellopes.chatbotfaq.core.IntentIndex;
+import dev.rafaellopes.chatbotfaq.core.IntentMatcher;
+import dev.rafaellopes.chatbotfaq.core.MatchStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsReportTest {
+
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("orcamento", List.of("preco"), "r1", 1)));
+
+    @Test
+    void shouldFormatCountersForConsole() {
+        IntentMatcher matcher = new CachingIntentMatcher(10, new MatchStats(1));
+        matcher.findBestIntent("preco", index);
+        matcher.findBestIntent("nada", index);
+
+        String report = StatsReport.format(matcher);
+
+        assertTrue(report.contains("Perguntas: 2 (1 sem resposta"), report);
+        assertTrue(report.contains("orcamento: 1"), report);
+        assertTrue(report.contains("tokenize"), report);
+        assertTrue(report.contains("Cache: 0 acertos, 2 falhas"), report);
+    }
+
+    @Test
+    void shouldExportJson(@TempDir Path dir) throws Exception {
+        IntentMatcher matcher = new IntentMatcher(new MatchStats(1));
+        matcher.findBestIntent("preco", index);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path target = dir.resolve("out").resolve("stats.json");
+
+        StatsReport.export(matcher, objectMapper, target);
+
+        JsonNode report = objectMapper.readTree(target.toFile());
+        assertEquals(1, report.get("queries").asLong());
+        assertEquals(0, report.get("fallbacks").asLong());
+        assertEquals(1, report.get("intents").get("orcamento").asLong());
+        assertEquals(1, report.get("latencyNanos").get("total").get("count").asLong());
+        assertFalse(report.has("cache"));
+    }
+}
@@ -0,0 +1,99 @@
+package dev.rafaellopes.chatbotfaq;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rafaellopes.chatbotfaq.core.Intent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteEveryExchangeAsJsonLines() throws Exception {
+        Intent price = new Intent("preco", List.of("preço"), "Depende do projeto.", 10);
+        TranscriptWriter transcript = new TranscriptWriter(dir, objectMapper);
+        transcript.start();
+
+        assertTrue(transcript.record(TranscriptWriter.CONSOLE, "intents", "qual o preço?", Optional.of(price),
+                price.getResponse()));
+        assertTrue(transcript.record(TranscriptWriter.HTTP, "intents", "bom dia", Optional.empty(), "Não sei."));
+        transcript.close();
+
+        List<JsonNode> lines = readAll();
+        assertEquals(2, lines.size());
+        assertEquals(2, transcript.written());
+        assertEquals(0, transcript.dropped());
+
+        JsonNode first = lines.get(0);
+        assertEquals("console", first.get("channel").asText());
+        assertEquals("intents", first.get("tenant").asText());
+        assertEquals("qual o preço?", first.get("message").asText());
+        assertEquals("preco", first.get("intent").asText());
+        assertEquals("Depende do projeto.", first.get("response").asText());
+        assertFalse(first.get("fallback").asBoolean());
+        assertFalse(first.get("at").asText().isEmpty());
+
+        JsonNode second = lines.get(1);
+        assertTrue(second.get("intent").isNull());
+        assertTrue(second.get("fallback").asBoolean());
+    }
+
+    @Test
+    void shouldDropInsteadOfBlockingWhenTheBufferIsFull() {
+        // Not started: nothing drains the buffer.
+        TranscriptWriter transcript = new TranscriptWriter(dir, objectMapper, 2, 1024, Duration.ofHours(1));
+
+        assertTrue(transcript.record(TranscriptWriter.SOCKET, "t", "a", Optional.empty(), "x"));
+        assertTrue(transcript.record(TranscriptWriter.SOCKET, "t", "b", Optional.empty(), "x"));
+        assertFalse(transcript.record(TranscriptWriter.SOCKET, "t", "c", Optional.empty(), "x"));
+        assertEquals(1, transcript.dropped());
+    }
+
+    @Test
+    void shouldRotateFilesBySize() throws Exception {
+        TranscriptWriter transcript = new TranscriptWriter(dir, objectMapper, 1024, 1, Duration.ofHours(1));
+        transcript.start();
+
+        for (int i = 0; i < 3; i++) {
+            transcript.record(TranscriptWriter.HTTP, "t", "pergunta " + i, Optional.empty(), "x");
+            // Let each entry land in its own batch.
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (transcript.written() <= i && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        transcript.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(3, files.count());
+        }
+        assertEquals(3, readAll().size());
+    }
+
+    private List<JsonNode> readAll() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir).sorted()) {
+            for (Path file : files.toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    lines.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,127 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25WeightsTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final IntentMatcher occurrences = new IntentMatcher();
+    private final IntentMatcher bm25 = new IntentMatcher(null, null, null, ScoringEngine.BM25);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    void shouldWeighRareKeywordsAboveSharedOnes() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("geral", List.of("chatbot"), "r1", 1),
+                new Intent("preco", List.of("chatbot", "valor"), "r2", 1),
+                new Intent("limites", List.of("chatbot", "erros"), "r3", 1)));
+        Bm25Weights weights = index.bm25();
+
+        int shared = weightOf(index, weights, "chatbot", 0);
+        int rare = weightOf(index, weights, "valor", 1);
+        assertTrue(rare > shared, rare + " vs " + shared);
+        assertEquals("preco", bm25.findBestIntent("qual o valor do chatbot", index).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldNotRewardIntentsForListingMoreVariants() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("variantes", List.of("preco", "preço", "valor", "custo", "quanto custa", "orcamento",
+                        "cotacao", "tabela", "investimento", "mensalidade"), "r1", 1),
+                new Intent("planos", List.of("preco", "planos"), "r2", 1)));
+
+        // Occurrence counting ties at 2 and the longer list wins on JSON order alone.
+        assertEquals("variantes", occurrences.findBestIntent("preco valor planos", index).orElseThrow().getIntent());
+        assertEquals("planos", bm25.findBestIntent("preco valor planos", index).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldCountARepeatedKeywordOnce() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("preco", List.of("preco"), "r1", 1),
+                new Intent("agenda", List.of("agendar"), "r2", 1)));
+
+        assertEquals(bm25.findBestMatch("preco", index).orElseThrow().score(),
+                bm25.findBestMatch("preco preco preco", index).orElseThrow().score());
+        assertEquals(3, occurrences.findBestMatch("preco preco preco", index).orElseThrow().score());
+    }
+
+    @Test
+    void shouldBreakTiesByPriorityThenJsonOrder() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("primeira", List.of("chatbot"), "r1", 1),
+                new Intent("prioritaria", List.of("chatbot"), "r2", 5),
+                new Intent("ultima", List.of("chatbot"), "r3", 5)));
+
+        assertEquals("prioritaria", bm25.findBestIntent("chatbot", index).orElseThrow().getIntent());
+        assertTrue(bm25.findBestIntent("nada a ver", index).isEmpty());
+    }
+
+    @Test
+    void shouldScaleCorrectedHitsByFuzzyWeights() {
+        IntentIndex index = IntentIndex.build(List.of(new Intent("chatbot", List.of("chatbot"), "r1", 1)));
+        IntentMatcher fuzzy = new IntentMatcher(null, null, FuzzyMatching.withMaxDistance(2), ScoringEngine.BM25);
+
+        int exact = fuzzy.findBestMatch("chatbot", index).orElseThrow().score();
+        int corrected = fuzzy.findBestMatch("chatbo", index).orElseThrow().score();
+        assertEquals(Math.max(1, exact * FuzzyMatching.DEFAULT_CORRECTED_WEIGHT / FuzzyMatching.DEFAULT_EXACT_WEIGHT),
+                corrected);
+        // One exact occurrence among corrected ones keeps the full weight.
+        assertEquals(exact, fuzzy.findBestMatch("chatbo chatbot", index).orElseThrow().score());
+    }
+
+    @Test
+    void shouldScoreLikeSequentialScanWhenSharded() {
+        Random random = new Random(3);
+        String[] vocabulary = {"a", "b", "c", "d"};
+        IntentMatcher parallel = new IntentMatcher(null, new ParallelScan(POOL, 2), null, ScoringEngine.BM25);
+
+        for (int round = 0; round < 50; round++) {
+            List<Intent> intents = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                List<String> keywords = new ArrayList<>();
+                for (int k = 0; k < 1 + random.nextInt(4); k++) {
+                    keywords.add(vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                intents.add(new Intent("i" + i, keywords, "r" + i, random.nextInt(3)));
+            }
+            IntentIndex index = IntentIndex.build(intents);
+
+            StringBuilder message = new StringBuilder();
+            for (int t = 0; t < 40; t++) {
+                message.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            assertEquals(describe(bm25.findTopIntents(message.toString(), index, 3)),
+                    describe(parallel.findTopIntents(message.toString(), index, 3)));
+        }
+    }
+
+    private static int weightOf(IntentIndex index, Bm25Weights weights, String keyword, int intent) {
+        int[] patternIds = new int[1];
+        index.automaton().scan(index.dictionary().encode(List.of(keyword)), (p, start) -> patternIds[0] = p);
+        int patternId = patternIds[0];
+        for (int o = weights.postingsFrom(patternId); o < weights.postingsTo(patternId); o++) {
+            if (weights.intentAt(o) == intent) {
+                return weights.weightAt(o);
+            }
+        }
+        throw new AssertionError(keyword);
+    }
+
+    private static List<String> describe(List<IntentCandidate> candidates) {
+        return candidates.stream().map(c -> c.intent().getIntent() + ":" + c.score()).toList();
+    }
+}
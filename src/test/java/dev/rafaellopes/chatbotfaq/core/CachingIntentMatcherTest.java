@@ -0,0 +1,124 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingIntentMatcherTest {
+
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("orcamento", List.of("preço", "quanto custa"), "r1", 2),
+            new Intent("agendamento", List.of("agendar", "horario"), "r2", 1)));
+
+    @Test
+    void shouldServeRepeatedNormalizedMessagesFromCache() {
+        CachingIntentMatcher matcher = new CachingIntentMatcher(100);
+
+        assertEquals("orcamento", matcher.findBestIntent("Quanto custa?", index).orElseThrow().getIntent());
+        assertEquals("orcamento", matcher.findBestIntent("  quanto   CUSTA? ", index).orElseThrow().getIntent());
+        assertTrue(matcher.findBestIntent("nada a ver", index).isEmpty());
+        assertTrue(matcher.findBestIntent("Nada, a ver!", index).isEmpty());
+
+        CachingIntentMatcher.CacheStats stats = matcher.cacheStats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWithinBound() {
+        CachingIntentMatcher matcher = new CachingIntentMatcher(1);
+
+        matcher.findBestMatch("agendar", index);
+        matcher.findBestMatch("preco", index);
+        matcher.findBestMatch("agendar", index);
+
+        CachingIntentMatcher.CacheStats stats = matcher.cacheStats();
+        assertEquals(0, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(2, stats.evictions());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void shouldInvalidateWhenKnowledgeBaseChanges() {
+        CachingIntentMatcher matcher = new CachingIntentMatcher(100);
+        IntentIndex next = IntentIndex.build(List.of(new Intent("novo", List.of("agendar"), "r3", 1)));
+
+        assertEquals("agendamento", matcher.findBestIntent("agendar", index).orElseThrow().getIntent());
+        assertEquals("novo", matcher.findBestIntent("agendar", next).orElseThrow().getIntent());
+        // A request still running on the older index bypasses the cache without switching it back.
+        assertEquals("agendamento", matcher.findBestIntent("agendar", index).orElseThrow().getIntent());
+        assertEquals("novo", matcher.findBestIntent("agendar", next).orElseThrow().getIntent());
+
+        CachingIntentMatcher.CacheStats stats = matcher.cacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.invalidations());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void shouldHoldAtMostMaxEntries() {
+        CachingIntentMatcher matcher = new CachingIntentMatcher(100);
+
+        for (int i = 0; i < 5000; i++) {
+            matcher.findBestMatch("agendar " + i, index);
+        }
+
+        // 16 segments: 4 of 7 and 12 of 6.
+        assertEquals(100, matcher.cacheStats().size());
+    }
+
+    @Test
+    void shouldBypassCacheForVeryLongMessages() {
+        CachingIntentMatcher matcher = new CachingIntentMatcher(100);
+        String longMessage = "agendar " + "x".repeat(CachingIntentMatcher.MAX_KEY_LENGTH);
+
+        assertTrue(matcher.findBestIntent(longMessage, index).isPresent());
+        assertEquals(0, matcher.cacheStats().size());
+    }
+
+    @Test
+    void shouldMatchLikeUncachedMatcherUnderConcurrency() throws Exception {
+        IntentMatcher plain = new IntentMatcher();
+        CachingIntentMatcher cached = new CachingIntentMatcher(8);
+        String[] words = {"preço", "Preco", "quanto", "custa", "agendar", "horário", "oi", "tudo?"};
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                tasks.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        String message = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                        Optional<ScoredIntent> expected = plain.findBestMatch(message, index);
+                        Optional<ScoredIntent> actual = cached.findBestMatch(message, index);
+                        assertEquals(expected.map(m -> m.intent().getIntent() + ":" + m.score()),
+                                actual.map(m -> m.intent().getIntent() + ":" + m.score()), message);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        CachingIntentMatcher.CacheStats stats = cached.cacheStats();
+        assertEquals(20_000, stats.hits() + stats.misses());
+        assertTrue(stats.size() <= 8);
+    }
+}
@@ -0,0 +1,82 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyMatchingTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("automacao", List.of("automação", "chatbot"), "r1", 1),
+            new Intent("humano", List.of("falar com humano", "atendente"), "r2", 1),
+            new Intent("orcamento", List.of("orçamento", "preço"), "r3", 1)));
+
+    private final IntentMatcher exact = new IntentMatcher();
+    private final IntentMatcher fuzzy = new IntentMatcher(null, null, FuzzyMatching.withMaxDistance(2));
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    void shouldCorrectMisspelledTokens() {
+        for (String message : List.of("automacão", "o que é um chatbo?", "quero falar com humanno", "atendnete")) {
+            assertTrue(fuzzy.findBestIntent(message, index).isPresent(), message);
+        }
+        assertTrue(exact.findBestIntent("o que é um chatbo?", index).isEmpty());
+        assertEquals("humano", fuzzy.findBestIntent("quero falar com humanno", index).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldWeighExactHitsAboveCorrectedHits() {
+        ScoredIntent match = fuzzy.findBestMatch("chatbot", index).orElseThrow();
+        assertEquals(FuzzyMatching.DEFAULT_EXACT_WEIGHT, match.score());
+
+        // One exact "preço" outweighs one corrected "chatbo".
+        assertEquals("orcamento", fuzzy.findBestIntent("chatbo preço", index).orElseThrow().getIntent());
+        assertEquals(FuzzyMatching.DEFAULT_CORRECTED_WEIGHT, fuzzy.findBestMatch("chatbo", index).orElseThrow().score());
+    }
+
+    @Test
+    void shouldKeepExactRankingWhenNothingIsMisspelled() {
+        for (String message : List.of("chatbot preço preço", "automação chatbot", "falar com humano atendente", "oi")) {
+            assertEquals(exact.findBestIntent(message, index), fuzzy.findBestIntent(message, index), message);
+        }
+    }
+
+    @Test
+    void shouldLeaveShortAndNumericTokensAlone() {
+        IntentIndex numbers = IntentIndex.build(List.of(
+                new Intent("plano", List.of("plano 2024", "oi"), "r", 1)));
+
+        assertTrue(fuzzy.findBestIntent("ola", numbers).isEmpty());
+        assertTrue(fuzzy.findBestIntent("plano 2025", numbers).isEmpty());
+        assertTrue(fuzzy.findBestIntent("plamo 2024", numbers).isPresent());
+        // Short tokens accept a single edit only.
+        assertTrue(fuzzy.findBestIntent("chtbto", index).isEmpty());
+        assertTrue(fuzzy.findBestIntent("chtbot", index).isPresent());
+    }
+
+    @Test
+    void shouldScoreLikeSequentialScanWhenSharded() {
+        IntentMatcher parallel = new IntentMatcher(null, new ParallelScan(POOL, 2), FuzzyMatching.withMaxDistance(2));
+        String message = "chatbo preço falar com humanno automacao orcamnto atendente chatbot ".repeat(20);
+
+        assertEquals(fuzzy.findTopIntents(message, index, 3).stream().map(c -> c.intent().getIntent() + ":" + c.score()).toList(),
+                parallel.findTopIntents(message, index, 3).stream().map(c -> c.intent().getIntent() + ":" + c.score()).toList());
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatching.withMaxDistance(0));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatching.withMaxDistance(3));
+        assertThrows(IllegalArgumentException.class, () -> new FuzzyMatching(1, 1, 2));
+    }
+}
@@ -0,0 +1,149 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntentIndexTest {
+
+    @Test
+    void shouldRankEditedVersionsLikeARebuiltIndex() {
+        List<Intent> base = SyntheticKnowledgeBase.generate(300, 11);
+        List<Intent> pool = SyntheticKnowledgeBase.generate(300, 12);
+        List<String> queries = SyntheticKnowledgeBase.queries(pool, 60, 0.8, 13);
+        queries.addAll(SyntheticKnowledgeBase.queries(base, 60, 0.8, 14));
+
+        List<Intent> expected = new ArrayList<>(base);
+        IntentIndex index = IntentIndex.build(base);
+        IntentMatcher matcher = new IntentMatcher();
+        Random random = new Random(15);
+
+        for (int edit = 0; edit < 200; edit++) {
+            Intent donor = pool.get(random.nextInt(pool.size()));
+            int position = random.nextInt(expected.size());
+            Intent target = expected.get(position);
+            int action = random.nextInt(3);
+            if (action == 0 || target == null) {
+                Intent added = new Intent("novo_" + edit, donor.getKeywords(), "R" + edit, donor.getPriority());
+                index = index.withIntent(added);
+                expected.add(added);
+            } else if (action == 1) {
+                Intent updated = new Intent(target.getIntent(), donor.getKeywords(), "R" + edit, donor.getPriority());
+                index = index.withIntent(updated);
+                expected.set(position, updated);
+            } else {
+                index = index.withoutIntent(target.getIntent());
+                expected.set(position, null);
+            }
+
+            if (edit % 20 == 19) {
+                assertSameRanking(queries, matcher, IntentIndex.build(expected), index);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+    }
+
+    @Test
+    void shouldKeepFewLayersAndCompactOnceChangesGrow() {
+        List<Intent> base = SyntheticKnowledgeBase.generate(1000, 21);
+        IntentIndex index = IntentIndex.build(base);
+
+        for (int edit = 1; edit <= 200; edit++) {
+            Intent intent = base.get(edit);
+            index = index.withIntent(new Intent(intent.getIntent(), intent.getKeywords(), "R" + edit, 1));
+            // Base plus one layer per set bit of the change count.
+            assertTrue(index.layerCount() <= 1 + Integer.bitCount(edit), "edit " + edit);
+        }
+        assertTrue(index.isLayered());
+
+        for (int edit = 201; edit <= 250; edit++) {
+            index = index.withoutIntent(base.get(edit).getIntent());
+        }
+        assertFalse(index.isLayered(), "250 changes on 1000 intents are compacted");
+        assertEquals(1000, index.size());
+        assertNull(index.intentAt(250));
+        assertEquals("R200", index.intentAt(200).getResponse());
+    }
+
+    @Test
+    void shouldLeaveEarlierVersionsUnchanged() {
+        IntentIndex first = IntentIndex.build(List.of(
+                new Intent("orcamento", List.of("preco"), "r1", 1),
+                new Intent("horario", List.of("horario"), "r2", 1)));
+        IntentMatcher matcher = new IntentMatcher();
+
+        IntentIndex second = first.withIntent(new Intent("orcamento", List.of("valor"), "r3", 1));
+        IntentIndex third = second.withoutIntent("horario");
+
+        assertEquals("r1", matcher.findBestIntent("preco", first).orElseThrow().getResponse());
+        assertTrue(matcher.findBestIntent("preco", second).isEmpty());
+        assertEquals("r3", matcher.findBestIntent("valor", second).orElseThrow().getResponse());
+        assertEquals("r2", matcher.findBestIntent("horario", second).orElseThrow().getResponse());
+        assertTrue(matcher.findBestIntent("horario", third).isEmpty());
+        assertEquals(0, third.positionOf("orcamento"));
+        assertEquals(-1, third.positionOf("horario"));
+    }
+
+    @Test
+    void shouldKeepJsonOrderTieBreakOnUpdate() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("primeira", List.of("outro"), "r1", 1),
+                new Intent("segunda", List.of("preco"), "r2", 1)));
+
+        IntentIndex edited = index.withIntent(new Intent("primeira", List.of("preco"), "r3", 1));
+
+        List<IntentCandidate> top = new IntentMatcher().findTopIntents("preco", edited, 2);
+        assertEquals("primeira", top.get(0).intent().getIntent());
+        assertEquals(List.of("preco"), top.get(0).matchedKeywords());
+        assertEquals("segunda", top.get(1).intent().getIntent());
+    }
+
+    @Test
+    void shouldScoreFlattenedFormWithFuzzyAndBm25() {
+        List<Intent> base = SyntheticKnowledgeBase.generate(200, 31);
+        List<Intent> expected = new ArrayList<>(base);
+        IntentIndex index = IntentIndex.build(base);
+        for (int i = 0; i < 10; i++) {
+            Intent moved = base.get(100 + i);
+            Intent updated = new Intent(base.get(i).getIntent(), moved.getKeywords(), "R" + i, 5);
+            index = index.withIntent(updated);
+            expected.set(i, updated);
+        }
+        assertTrue(index.isLayered());
+
+        List<String> queries = SyntheticKnowledgeBase.queries(base, 80, 0.8, 32);
+        IntentIndex rebuilt = IntentIndex.build(expected);
+        assertSameRanking(queries, new IntentMatcher(null, null, FuzzyMatching.withMaxDistance(2)), rebuilt, index);
+        assertSameRanking(queries, new IntentMatcher(null, null, null, ScoringEngine.BM25), rebuilt, index);
+    }
+
+    @Test
+    void shouldRejectInvalidEdits() {
+        IntentIndex index = IntentIndex.build(List.of(new Intent("orcamento", List.of("preco"), "r1", 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> index.withoutIntent("horario"));
+        assertThrows(IllegalArgumentException.class, () -> index.withIntent(new Intent(null, List.of("a"), "r", 1)));
+        assertThrows(IllegalArgumentException.class, () -> index.withIntent(null));
+    }
+
+    private static void assertSameRanking(List<String> queries, IntentMatcher matcher, IntentIndex expected,
+                                          IntentIndex actual) {
+        for (String query : queries) {
+            assertEquals(describe(matcher.findTopIntents(query, expected, 5)),
+                    describe(matcher.findTopIntents(query, actual, 5)), query);
+        }
+    }
+
+    private static List<String> describe(List<IntentCandidate> candidates) {
+        List<String> described = new ArrayList<>();
+        for (IntentCandidate candidate : candidates) {
+            described.add(candidate.intent().getIntent() + ":" + candidate.score() + ":" + candidate.priority()
+                    + ":" + candidate.matchedKeywords());
+        }
+        return described;
+    }
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -65,6 +66,89 @@ class IntentLoaderTest {
         assertThrows(IllegalStateException.class, () -> loader.load(temp));
     }
 
+    @Test
+    void shouldStreamIntentsInJsonOrder() throws Exception {
+        IntentLoader loader = new IntentLoader(new ObjectMapper());
+        Path fixturePath = copyFixtureToTempFile();
+
+        List<String> names = new ArrayList<>();
+        int count = loader.stream(fixturePath, intent -> names.add(intent.getIntent()));
+
+        assertEquals(2, count);
+        assertEquals(List.of("orcamento", "agendamento"), names);
+    }
+
+    @Test
+    void shouldIndexWhileParsingLikeBuildFromList() throws Exception {
+        IntentLoader loader = new IntentLoader(new ObjectMapper());
+        IntentMatcher matcher = new IntentMatcher();
+        Path kb = Path.of("data", "intents.json");
+
+        IntentIndex streamed = loader.loadIndex(kb);
+        List<Intent> intents = loader.load(kb);
+        IntentIndex built = IntentIndex.build(intents);
+
+        assertEquals(built.size(), streamed.size());
+        for (Intent intent : intents) {
+            for (String keyword : intent.getKeywords()) {
+                assertEquals(matcher.findBestMatch(keyword, built).map(m -> m.intent().getIntent() + ":" + m.score()),
+                        matcher.findBestMatch(keyword, streamed).map(m -> m.intent().getIntent() + ":" + m.score()));
+            }
+        }
+    }
+
+    @Test
+    void shouldReportDuplicateIntentWithLineAndColumn() throws Exception {
+        String message = loadInvalid("""
+                [
+                  {"intent":"a","keywords":["x"],"response":"r"},
+                  {"intent":"a","keywords":["y"],"response":"r"}
+                ]
+                """);
+
+        assertTrue(message.contains("duplicate intent 'a'"), message);
+        assertTrue(message.contains("line 3, column 3"), message);
+        assertTrue(message.contains("first defined at line 2, column 3"), message);
+    }
+
+    @Test
+    void shouldReportMissingKeywords() throws Exception {
+        String message = loadInvalid("""
+                [{"intent":"a","keywords":["x"],"response":"r"},
+                 {"intent":"b","keywords":["  "],"response":"r"}]
+                """);
+
+        assertTrue(message.contains("intent 'b' has no keywords"), message);
+        assertTrue(message.contains("line 2, column 2"), message);
+    }
+
+    @Test
+    void shouldReportEmptyResponseAndMissingName() throws Exception {
+        assertTrue(loadInvalid("""
+                [{"intent":"a","keywords":["x"],"response":" "}]
+                """).contains("intent 'a' has an empty response"));
+        assertTrue(loadInvalid("""
+                [{"keywords":["x"],"response":"r"}]
+                """).contains("intent name is missing"));
+        assertTrue(loadInvalid("""
+                [null]
+                """).contains("expected an intent object"));
+        assertTrue(loadInvalid("""
+                {"intent":"a"}
+                """).contains("expected a JSON array"));
+    }
+
+    @Test
+    void shouldReportSyntaxErrorPosition() throws Exception {
+        String message = loadInvalid("""
+                [
+                  {"intent":"a","keywords":["x"] "response":"r"}
+                ]
+                """);
+
+        assertTrue(message.contains("line 2"), message);
+    }
+
     private static Path copyFixtureToTempFile() throws IOException {
         try (InputStream in = IntentLoaderTest.class.getClassLoader().getResourceAsStream("fixtures/intents.json")) {
             if (in == null) {
@@ -77,4 +161,13 @@ class IntentLoaderTest {
             return temp;
         }
     }
+
+    private static String loadInvalid(String json) throws IOException {
+        Path temp = Files.createTempFile("invalid-intents", ".json");
+        temp.toFile().deleteOnExit();
+        Files.writeString(temp, json);
+
+        IntentLoader loader = new IntentLoader(new ObjectMapper());
+        return assertThrows(IllegalStateException.class, () -> loader.load(temp)).getMessage();
+    }
 }
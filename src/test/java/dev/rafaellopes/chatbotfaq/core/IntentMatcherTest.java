@@ -9,7 +9,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -64,6 +67,236 @@ class IntentMatcherTest {
         );
     }
 
+    @Test
+    void shouldSelectSameIntentWithPrebuiltIndex() throws Exception {
+        List<Intent> intents = loadFixtureIntents();
+        IntentIndex index = IntentIndex.build(intents);
+
+        for (String message : List.of("QUERO ORÇAMENTO", "preciso agendar um horario", "nada a ver", "")) {
+            assertEquals(matcher.findBestIntent(message, intents), matcher.findBestIntent(message, index));
+        }
+    }
+
+    @Test
+    void shouldSeeChangesMadeToTheListBetweenCalls() {
+        List<Intent> intents = new ArrayList<>(List.of(
+                new Intent("orcamento", List.of("preco"), "r1", 1),
+                new Intent("agendamento", List.of("agendar"), "r2", 1)));
+        IntentIndex index = IntentIndex.build(intents);
+        assertEquals("orcamento", matcher.findBestIntent("preco", intents).orElseThrow().getIntent());
+
+        intents.set(0, new Intent("valores", List.of("valor"), "r3", 1));
+        assertTrue(matcher.findBestIntent("preco", intents).isEmpty());
+        assertEquals("valores", matcher.findBestIntent("valor", intents).orElseThrow().getIntent());
+
+        intents.add(new Intent("humano", List.of("atendente"), "r4", 1));
+        assertEquals("humano", matcher.findTopIntents("atendente", intents, 3).get(0).intent().getIntent());
+
+        // An index built earlier keeps its own copy of the list.
+        assertEquals("orcamento", matcher.findBestIntent("preco", index).orElseThrow().getIntent());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void shouldCountEveryKeywordPhraseSharingTheFirstToken() throws Exception {
+        String intentsJson = """
+                [
+                  {"intent":"humano","keywords":["falar com humano"],"response":"r1","priority":1},
+                  {"intent":"falar","keywords":["falar","falar com"],"response":"r2","priority":1}
+                ]
+                """;
+        List<Intent> intents = parseIntents(intentsJson);
+
+        // "falar" (1) + "falar com" (1) beats "falar com humano" (1)
+        assertEquals("falar", matcher.findBestIntent("falar com humano", intents).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldSkipMatchedTokensBeforeCountingTheSamePhraseAgain() throws Exception {
+        String intentsJson = """
+                [
+                  {"intent":"pair","keywords":["a a"],"response":"r1","priority":1},
+                  {"intent":"other","keywords":["c"],"response":"r2","priority":0}
+                ]
+                """;
+        List<Intent> intents = parseIntents(intentsJson);
+
+        // "a a a": pair counts once (tokens 0-1, then skips to 2) and loses to two "c"
+        assertEquals("other", matcher.findBestIntent("a a a c c", intents).orElseThrow().getIntent());
+        // "a a a a": pair counts twice (0-1, 2-3), ties with two "c" and wins on priority
+        assertEquals("pair", matcher.findBestIntent("a a a a c c", intents).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldReportScoreOfBestMatch() throws Exception {
+        IntentIndex index = IntentIndex.build(loadFixtureIntents());
+
+        ScoredIntent match = matcher.findBestMatch("orçamento: quanto custa?", index).orElseThrow();
+
+        assertEquals("orcamento", match.intent().getIntent());
+        assertEquals(2, match.score());
+        assertTrue(matcher.findBestMatch("nada a ver", index).isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyForEmptyIndex() {
+        assertTrue(matcher.findBestIntent("x", IntentIndex.build(List.of())).isEmpty());
+        assertTrue(matcher.findBestIntent("x", IntentIndex.build(null)).isEmpty());
+    }
+
+    @Test
+    void shouldAgreeWithPerIntentScanOnRandomKnowledgeBases() {
+        Random random = new Random(42);
+        String[] vocabulary = {"a", "b", "c", "d", "e"};
+
+        for (int round = 0; round < 300; round++) {
+            List<Intent> intents = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                List<String> keywords = new ArrayList<>();
+                for (int k = 0; k < 1 + random.nextInt(4); k++) {
+                    keywords.add(randomText(random, vocabulary, 1 + random.nextInt(3)));
+                }
+                intents.add(new Intent("i" + i, keywords, "r" + i, random.nextInt(3)));
+            }
+            IntentIndex index = IntentIndex.build(intents);
+
+            for (int q = 0; q < 20; q++) {
+                String message = randomText(random, vocabulary, random.nextInt(10));
+                assertEquals(referenceBestIntent(message, intents), matcher.findBestIntent(message, index),
+                        () -> "message: " + message);
+            }
+        }
+    }
+
+    @Test
+    void shouldRankTopCandidatesLikeFullSortOnRandomKnowledgeBases() {
+        Random random = new Random(11);
+        String[] vocabulary = {"a", "b", "c", "d", "e"};
+
+        for (int round = 0; round < 200; round++) {
+            List<Intent> intents = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(12); i++) {
+                List<String> keywords = new ArrayList<>();
+                for (int k = 0; k < 1 + random.nextInt(4); k++) {
+                    keywords.add(randomText(random, vocabulary, 1 + random.nextInt(2)));
+                }
+                intents.add(new Intent("i" + i, keywords, "r" + i, random.nextInt(3)));
+            }
+            IntentIndex index = IntentIndex.build(intents);
+
+            for (int q = 0; q < 10; q++) {
+                String message = randomText(random, vocabulary, random.nextInt(10));
+                int k = 1 + random.nextInt(5);
+
+                List<String> expected = referenceTopIntents(message, intents, k);
+                List<String> actual = matcher.findTopIntents(message, index, k).stream()
+                        .map(c -> c.intent().getIntent() + ":" + c.score())
+                        .toList();
+                assertEquals(expected, actual, () -> "message: " + message);
+                assertEquals(matcher.findBestMatch(message, index).map(m -> m.intent().getIntent() + ":" + m.score()),
+                        actual.stream().findFirst(), () -> "message: " + message);
+            }
+        }
+    }
+
+    @Test
+    void shouldReportScorePriorityAndMatchedKeywordsOfTopCandidates() {
+        IntentIndex index = IntentIndex.build(List.of(
+                new Intent("orcamento", List.of("preço", "quanto custa", "valor"), "r1", 1),
+                new Intent("agendamento", List.of("agendar", "valor da consulta"), "r2", 5),
+                new Intent("outro", List.of("nada"), "r3", 9)));
+
+        List<IntentCandidate> top = matcher.findTopIntents("Quanto custa? Qual o preço e o valor da consulta?", index, 5);
+
+        assertEquals(2, top.size());
+        assertEquals("orcamento", top.get(0).intent().getIntent());
+        assertEquals(3, top.get(0).score());
+        assertEquals(1, top.get(0).priority());
+        assertEquals(List.of("preço", "quanto custa", "valor"), top.get(0).matchedKeywords());
+        assertEquals("agendamento", top.get(1).intent().getIntent());
+        assertEquals(List.of("valor da consulta"), top.get(1).matchedKeywords());
+    }
+
+    @Test
+    void shouldRejectNonPositiveK() {
+        IntentIndex index = IntentIndex.build(List.of(new Intent("a", List.of("x"), "r", 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> matcher.findTopIntents("x", index, 0));
+        assertTrue(matcher.findTopIntents("y", index, 3).isEmpty());
+        assertTrue(matcher.findTopIntents("x", List.of(), 3).isEmpty());
+    }
+
+    /**
+     * Full sort of every intent's reference score; keeps those that score.
+     */
+    private static List<String> referenceTopIntents(String message, List<Intent> intents, int k) {
+        List<String> messageTokens = IntentMatcher.tokenize(message);
+        List<int[]> scored = new ArrayList<>();
+        for (int i = 0; i < intents.size(); i++) {
+            int score = 0;
+            for (String keyword : intents.get(i).getKeywords()) {
+                List<String> keywordTokens = IntentMatcher.tokenize(keyword);
+                int n = keywordTokens.size();
+                int t = 0;
+                while (n > 0 && t <= messageTokens.size() - n) {
+                    if (messageTokens.subList(t, t + n).equals(keywordTokens)) {
+                        score++;
+                        t += n;
+                    } else {
+                        t++;
+                    }
+                }
+            }
+            if (score > 0) {
+                scored.add(new int[]{score, intents.get(i).getPriority(), i});
+            }
+        }
+        scored.sort((x, y) -> x[0] != y[0] ? y[0] - x[0] : x[1] != y[1] ? y[1] - x[1] : x[2] - y[2]);
+        return scored.stream().limit(k).map(e -> intents.get(e[2]).getIntent() + ":" + e[0]).toList();
+    }
+
+    private static String randomText(Random random, String[] vocabulary, int tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < tokens; t++) {
+            sb.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Original matching rules: scan every intent and every keyword in JSON order.
+     */
+    private static Optional<Intent> referenceBestIntent(String message, List<Intent> intents) {
+        List<String> messageTokens = IntentMatcher.tokenize(message);
+        Intent best = null;
+        int bestScore = 0;
+        int bestPriority = Integer.MIN_VALUE;
+
+        for (Intent intent : intents) {
+            int score = 0;
+            for (String keyword : intent.getKeywords()) {
+                List<String> keywordTokens = IntentMatcher.tokenize(keyword);
+                int k = keywordTokens.size();
+                int i = 0;
+                while (k > 0 && i <= messageTokens.size() - k) {
+                    if (messageTokens.subList(i, i + k).equals(keywordTokens)) {
+                        score++;
+                        i += k;
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            if (score > bestScore || (score > 0 && score == bestScore && intent.getPriority() > bestPriority)) {
+                best = intent;
+                bestScore = score;
+                bestPriority = intent.getPriority();
+            }
+        }
+
+        return Optional.ofNullable(best);
+    }
+
     private static Stream<Arguments> matchingCases() {
         return Stream.of(
                 Arguments.of(
@@ -0,0 +1,51 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordAutomatonTest {
+
+    @Test
+    void shouldReportOverlappingAndNestedOccurrencesInEndOrder() {
+        // a = 0, b = 1
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of(
+                new int[]{0, 0},
+                new int[]{0},
+                new int[]{1, 0, 0}
+        ), 2);
+
+        List<String> hits = new ArrayList<>();
+        automaton.scan(new int[]{1, 0, 0, 0}, (patternId, start) -> hits.add(patternId + "@" + start));
+
+        assertEquals(List.of("1@1", "2@0", "0@1", "1@2", "0@2", "1@3"), hits);
+    }
+
+    @Test
+    void shouldFollowFailureLinksAcrossPartialMatches() {
+        // falar = 0, com = 1, humano = 2, atendente = 3
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of(
+                new int[]{0, 1, 2},
+                new int[]{1, 3}
+        ), 4);
+
+        List<String> hits = new ArrayList<>();
+        automaton.scan(new int[]{0, 1, 3, 0, 1, 2},
+                (patternId, start) -> hits.add(patternId + "@" + start));
+
+        assertEquals(List.of("1@1", "0@3"), hits);
+    }
+
+    @Test
+    void shouldRestartFromRootOnUnknownTokens() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.<int[]>of(new int[]{0, 1}), 2);
+
+        List<String> hits = new ArrayList<>();
+        automaton.scan(new int[]{0, TokenDictionary.UNKNOWN, 1, 0, 1}, (patternId, start) -> hits.add(patternId + "@" + start));
+
+        assertEquals(List.of("0@3"), hits);
+    }
+}
@@ -0,0 +1,159 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnowledgeBaseReloaderTest {
+
+    private static final String ORCAMENTO = """
+            [{"intent":"orcamento","keywords":["preco"],"response":"r1","priority":1}]
+            """;
+
+    private static final String AGENDAMENTO = """
+            [{"intent":"agendamento","keywords":["agendar"],"response":"r2","priority":1}]
+            """;
+
+    private final IntentLoader loader = new IntentLoader(new ObjectMapper());
+    private final IntentMatcher matcher = new IntentMatcher();
+
+    @Test
+    void shouldPublishNewSnapshotOnReload(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+        KnowledgeBaseSnapshot first = reloader.current();
+
+        Files.writeString(kb, AGENDAMENTO);
+        assertTrue(reloader.reload());
+
+        assertEquals(1, first.version());
+        assertEquals(2, reloader.current().version());
+        assertTrue(reloader.lastReload().success());
+        assertEquals("agendamento", matcher.findBestIntent("agendar", reloader.index()).orElseThrow().getIntent());
+        // A snapshot taken before the swap is untouched.
+        assertEquals("orcamento", matcher.findBestIntent("preco", first.index()).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldKeepPreviousSnapshotWhenFileIsInvalid(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+
+        Files.writeString(kb, "{ invalid json");
+        assertFalse(reloader.reload());
+
+        assertEquals(1, reloader.current().version());
+        assertFalse(reloader.lastReload().success());
+        assertNotNull(reloader.lastReload().error());
+        assertEquals("orcamento", matcher.findBestIntent("preco", reloader.index()).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldReloadWhenWatchedFileIsReplaced(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        try (KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb))) {
+            reloader.startWatching();
+
+            Path temp = Files.writeString(dir.resolve("intents.json.tmp"), AGENDAMENTO);
+            Files.move(temp, kb, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (reloader.current().version() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(2, reloader.current().version());
+            assertEquals(List.of("agendar"), reloader.index().intentAt(0).getKeywords());
+        }
+    }
+
+    @Test
+    void shouldPublishAVersionPerIntentEdit(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+        KnowledgeBaseSnapshot first = reloader.current();
+
+        reloader.addIntent(new Intent("agendamento", List.of("agendar"), "r2", 1));
+        reloader.updateIntent(new Intent("orcamento", List.of("valor"), "r3", 1));
+        KnowledgeBaseSnapshot last = reloader.removeIntent("agendamento");
+
+        assertEquals(4, last.version());
+        assertSame(last, reloader.current());
+        assertEquals("r3", matcher.findBestIntent("valor", reloader.index()).orElseThrow().getResponse());
+        assertTrue(matcher.findBestIntent("agendar", reloader.index()).isEmpty());
+        assertEquals("r1", matcher.findBestIntent("preco", first.index()).orElseThrow().getResponse());
+
+        // The file was not changed: a reload drops the edits.
+        assertTrue(reloader.reload());
+        assertEquals("r1", matcher.findBestIntent("preco", reloader.index()).orElseThrow().getResponse());
+    }
+
+    @Test
+    void shouldApplyConcurrentEditsOneAfterTheOther(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+        Set<Long> versions = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 40; i++) {
+                String name = "intent" + i;
+                executor.submit(() -> versions.add(
+                        reloader.addIntent(new Intent(name, List.of(name), "r", 1)).version()));
+            }
+        }
+
+        assertEquals(41, reloader.index().size());
+        assertEquals(41, reloader.current().version());
+        assertEquals(LongStream.rangeClosed(2, 41).boxed().collect(Collectors.toSet()), versions);
+        assertEquals("intent7", matcher.findBestIntent("intent7", reloader.index()).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldPrepareEveryVersionBeforePublishingIt(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+        List<IntentIndex> prepared = new ArrayList<>();
+        List<IntentIndex> publishedWhilePreparing = new ArrayList<>();
+        reloader.prepareWith(index -> {
+            prepared.add(index);
+            publishedWhilePreparing.add(reloader.index());
+        });
+
+        reloader.addIntent(new Intent("agendamento", List.of("agendar"), "r2", 1));
+        Files.writeString(kb, AGENDAMENTO);
+        assertTrue(reloader.reload());
+
+        assertEquals(3, prepared.size());
+        assertSame(reloader.index(), prepared.get(2));
+        // The current index is prepared in place; later versions before they replace the previous one.
+        assertSame(prepared.get(0), publishedWhilePreparing.get(1));
+        assertSame(prepared.get(1), publishedWhilePreparing.get(2));
+    }
+
+    @Test
+    void shouldRejectEditsThatDoNotApply(@TempDir Path dir) throws Exception {
+        Path kb = Files.writeString(dir.resolve("intents.json"), ORCAMENTO);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(kb, loader, loader.load(kb));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> reloader.addIntent(new Intent("orcamento", List.of("valor"), "r", 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> reloader.updateIntent(new Intent("agendamento", List.of("agendar"), "r", 1)));
+        assertThrows(IllegalArgumentException.class, () -> reloader.removeIntent("agendamento"));
+        assertEquals(1, reloader.current().version());
+    }
+}
@@ -0,0 +1,130 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnowledgeBaseSnapshotFileTest {
+
+    private final IntentLoader loader = new IntentLoader(new ObjectMapper());
+    private final IntentMatcher matcher = new IntentMatcher();
+
+    @Test
+    void shouldMatchLikeTheJsonIndexAfterRoundTrip(@TempDir Path dir) {
+        List<Intent> intents = new ArrayList<>();
+        intents.add(new Intent("orcamento", List.of("preço", "quanto custa"), "Orçamento", 2));
+        intents.add(null);
+        intents.add(new Intent("sem_keywords", null, "r", 1));
+        intents.add(new Intent("automacao", Arrays.asList("automação", null, "   ", "chatbot"), "Automação", 1));
+        intents.add(new Intent("empate", List.of("chatbot"), "Empate", 1));
+        IntentIndex built = IntentIndex.build(intents);
+
+        Path snapshot = dir.resolve("intents.kbsnap");
+        KnowledgeBaseSnapshotFile.write(built, snapshot);
+        IntentIndex restored = KnowledgeBaseSnapshotFile.read(snapshot);
+
+        assertEquals(built.size(), restored.size());
+        for (String message : List.of("Qual o preço?", "quanto custa a automação", "CHATBOT", "nada a ver", "")) {
+            assertEquals(matcher.findBestMatch(message, built).map(this::describe),
+                    matcher.findBestMatch(message, restored).map(this::describe), message);
+        }
+        assertEquals("Orçamento", matcher.findBestIntent("preco", restored).orElseThrow().getResponse());
+        assertEquals(describe(matcher.findTopIntents("quanto custa a automação chatbot", built, 3)),
+                describe(matcher.findTopIntents("quanto custa a automação chatbot", restored, 3)));
+    }
+
+    @Test
+    void shouldRoundTripShippedKnowledgeBase(@TempDir Path dir) {
+        List<Intent> intents = loader.load(Path.of("data", "intents.json"));
+        IntentIndex built = IntentIndex.build(intents);
+
+        Path snapshot = dir.resolve("intents.kbsnap");
+        KnowledgeBaseSnapshotFile.write(built, snapshot);
+        IntentIndex restored = KnowledgeBaseSnapshotFile.read(snapshot);
+
+        for (Intent intent : intents) {
+            for (String keyword : intent.getKeywords()) {
+                assertEquals(matcher.findBestMatch(keyword, built).map(this::describe),
+                        matcher.findBestMatch(keyword, restored).map(this::describe), keyword);
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectCorruptedPayload(@TempDir Path dir) throws Exception {
+        Path snapshot = writeSample(dir);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(snapshot, bytes);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> KnowledgeBaseSnapshotFile.read(snapshot));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void shouldRejectTruncatedFile(@TempDir Path dir) throws Exception {
+        Path snapshot = writeSample(dir);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IllegalStateException.class, () -> KnowledgeBaseSnapshotFile.read(snapshot));
+    }
+
+    @Test
+    void shouldRejectUnknownMagicAndVersion(@TempDir Path dir) throws Exception {
+        Path json = Files.writeString(dir.resolve("intents.kbsnap"), "[]");
+        assertThrows(IllegalStateException.class, () -> KnowledgeBaseSnapshotFile.read(json));
+
+        Path snapshot = writeSample(dir);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(snapshot, bytes);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> KnowledgeBaseSnapshotFile.read(snapshot));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    @Test
+    void shouldLoadSnapshotThroughReloader(@TempDir Path dir) {
+        Path snapshot = writeSample(dir);
+
+        IntentIndex index = KnowledgeBaseReloader.loadIndex(snapshot, loader);
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(snapshot, loader, index);
+
+        assertTrue(reloader.reload());
+        assertEquals("orcamento", matcher.findBestIntent("preco", reloader.index()).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldResolveSiblingPath() {
+        assertEquals(Path.of("data", "intents.kbsnap"), KnowledgeBaseSnapshotFile.siblingOf(Path.of("data", "intents.json")));
+        assertTrue(KnowledgeBaseSnapshotFile.isSnapshot(Path.of("x.kbsnap")));
+        assertFalse(KnowledgeBaseSnapshotFile.isSnapshot(Path.of("x.json")));
+    }
+
+    private Path writeSample(Path dir) {
+        Path snapshot = dir.resolve("sample.kbsnap");
+        KnowledgeBaseSnapshotFile.write(IntentIndex.build(List.of(
+                new Intent("orcamento", List.of("preco"), "r1", 1))), snapshot);
+        return snapshot;
+    }
+
+    private String describe(ScoredIntent match) {
+        return match.intent().getIntent() + ":" + match.score();
+    }
+
+    private List<String> describe(List<IntentCandidate> candidates) {
+        return candidates.stream()
+                .map(c -> c.intent().getIntent() + ":" + c.score() + ":" + c.priority() + ":" + c.matchedKeywords())
+                .toList();
+    }
+}
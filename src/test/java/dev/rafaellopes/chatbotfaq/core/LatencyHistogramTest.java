@@ -0,0 +1,71 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldKeepBucketsContiguousAndWithinPrecision() {
+        long previousUpper = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE) + 1; bucket++) {
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousUpper + 1), "bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper), "bucket " + bucket);
+            previousUpper = upper;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpper);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong(1, 10_000_000_000L);
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value && upper - value <= value / 16, String.valueOf(value));
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesMeanAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.maxNanos());
+        assertEquals(500_500.0, histogram.meanNanos());
+        assertEquals(500_000, histogram.percentileNanos(50), 500_000 / 16.0);
+        assertEquals(990_000, histogram.percentileNanos(99), 990_000 / 16.0);
+        assertEquals(1_000_000, histogram.percentileNanos(100));
+    }
+
+    @Test
+    void shouldReportZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileNanos(99));
+        assertEquals(0.0, histogram.meanNanos());
+    }
+
+    @Test
+    void shouldAddAnotherHistogram() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 1; i <= 500; i++) {
+            first.record(i * 1000L);
+            second.record((500 + i) * 1000L);
+        }
+
+        first.add(second);
+
+        assertEquals(1000, first.count());
+        assertEquals(1_000_000, first.maxNanos());
+        assertEquals(500_500.0, first.meanNanos());
+        assertEquals(990_000, first.percentileNanos(99), 990_000 / 16.0);
+        assertEquals(500, second.count());
+    }
+}
@@ -0,0 +1,81 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchStatsTest {
+
+    private final IntentIndex index = IntentIndex.build(List.of(
+            new Intent("orcamento", List.of("preco"), "r1", 1),
+            new Intent("agendamento", List.of("agendar"), "r2", 1)));
+
+    @Test
+    void shouldCountQueriesFallbacksAndHitsPerIntent() {
+        MatchStats stats = new MatchStats(1);
+        IntentMatcher matcher = new IntentMatcher(stats);
+
+        matcher.findBestIntent("preco", index);
+        matcher.findBestIntent("agendar", index);
+        matcher.findBestIntent("qual o preco?", index);
+        matcher.findBestIntent("nada", index);
+
+        assertEquals(4, stats.queries());
+        assertEquals(1, stats.fallbacks());
+        assertEquals(Map.of("orcamento", 2L, "agendamento", 1L), stats.intentHits());
+        assertEquals(List.of("orcamento", "agendamento"), List.copyOf(stats.intentHits().keySet()));
+        for (MatchStats.Stage stage : MatchStats.Stage.values()) {
+            assertEquals(4, stats.histogram(stage).count(), stage.name());
+        }
+    }
+
+    @Test
+    void shouldSampleTimingsButCountEveryQuery() {
+        MatchStats stats = new MatchStats(16);
+        IntentMatcher matcher = new IntentMatcher(stats);
+
+        for (int i = 0; i < 16_000; i++) {
+            matcher.findBestIntent("preco", index);
+        }
+
+        assertEquals(16_000, stats.queries());
+        long sampled = stats.histogram(MatchStats.Stage.TOTAL).count();
+        assertTrue(sampled > 500 && sampled < 1500, String.valueOf(sampled));
+    }
+
+    @Test
+    void shouldRecordCachedMatches() {
+        MatchStats stats = new MatchStats(1);
+        CachingIntentMatcher matcher = new CachingIntentMatcher(10, stats);
+
+        matcher.findBestIntent("preco", index);
+        matcher.findBestIntent("Preço!", index);
+
+        assertEquals(2, stats.queries());
+        assertEquals(Map.of("orcamento", 2L), stats.intentHits());
+        assertEquals(1, matcher.cacheStats().hits());
+    }
+
+    @Test
+    void shouldCountRankedQueriesByTheirFirstCandidate() {
+        MatchStats stats = new MatchStats(1);
+        IntentMatcher matcher = new IntentMatcher(stats);
+
+        matcher.findTopIntents("preco e agendar", index, 2);
+        matcher.findTopIntents("nada", index, 2);
+
+        assertEquals(2, stats.queries());
+        assertEquals(1, stats.fallbacks());
+        assertEquals(Map.of("orcamento", 1L), stats.intentHits());
+        assertEquals(2, stats.histogram(MatchStats.Stage.TOTAL).count());
+    }
+
+    @Test
+    void shouldRejectSampleRateThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MatchStats(3));
+        assertThrows(IllegalArgumentException.class, () -> new MatchStats(0));
+    }
+}
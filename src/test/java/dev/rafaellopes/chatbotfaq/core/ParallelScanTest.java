@@ -0,0 +1,95 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final IntentMatcher sequential = new IntentMatcher();
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    void shouldRankLikeSequentialSumsOnSharedKeywords() {
+        Random random = new Random(7);
+        String[] vocabulary = {"a", "b", "c", "d", "zz"};
+
+        for (int round = 0; round < 100; round++) {
+            List<Intent> intents = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(40); i++) {
+                List<String> keywords = new ArrayList<>();
+                for (int k = 0; k < 1 + random.nextInt(4); k++) {
+                    keywords.add(randomText(random, vocabulary, 1 + random.nextInt(2)));
+                }
+                intents.add(new Intent("i" + i, keywords, "r" + i, random.nextInt(3)));
+            }
+            IntentIndex index = IntentIndex.build(intents);
+            // Tiny thresholds put shard boundaries between the owners of every phrase.
+            ParallelScan scan = new ParallelScan(POOL, 2 + random.nextInt(8));
+            IntentMatcher parallel = new IntentMatcher(null, scan);
+            IntentMatcher parallelBm25 = new IntentMatcher(null, scan, null, ScoringEngine.BM25);
+            IntentMatcher sequentialBm25 = new IntentMatcher(null, null, null, ScoringEngine.BM25);
+
+            for (int q = 0; q < 20; q++) {
+                String message = randomText(random, vocabulary, random.nextInt(12));
+                assertEquals(describe(sequential.findTopIntents(message, index, 5)),
+                        describe(parallel.findTopIntents(message, index, 5)), () -> "message: " + message);
+                assertEquals(describe(sequentialBm25.findTopIntents(message, index, 5)),
+                        describe(parallelBm25.findTopIntents(message, index, 5)), () -> "message: " + message);
+            }
+        }
+    }
+
+    @Test
+    void shouldSumIntentOwningPhraseTwiceInOneShard() {
+        List<Intent> intents = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            intents.add(new Intent("i" + i, List.of("preco", "valor"), "r" + i, 1));
+        }
+        intents.add(new Intent("dupla", List.of("preco", "preco", "valor"), "r", 1));
+        IntentIndex index = IntentIndex.build(intents);
+        IntentMatcher parallel = new IntentMatcher(null, new ParallelScan(POOL, 2));
+
+        List<IntentCandidate> top = parallel.findTopIntents("preco e valor", index, 3);
+
+        assertEquals(describe(sequential.findTopIntents("preco e valor", index, 3)), describe(top));
+        assertEquals("dupla", top.get(0).intent().getIntent());
+        assertEquals(3, top.get(0).score());
+    }
+
+    @Test
+    void shouldOnlySplitWidelySharedKeywords() {
+        ParallelScan scan = new ParallelScan(POOL, 100);
+
+        assertFalse(scan.appliesTo(99));
+        assertTrue(scan.appliesTo(100));
+        try (ForkJoinPool single = new ForkJoinPool(1)) {
+            assertFalse(new ParallelScan(single, 100).appliesTo(1000));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelScan(POOL, 1));
+    }
+
+    private static String randomText(Random random, String[] vocabulary, int tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < tokens; t++) {
+            sb.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static List<String> describe(List<IntentCandidate> candidates) {
+        return candidates.stream().map(c -> c.intent().getIntent() + ":" + c.score()).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    private static final Intent PRICE = new Intent("preco", List.of("preço"), "Depende.", 10);
+    private static final Intent SCHEDULE = new Intent("agenda", List.of("agendar"), "Pelo site.", 5);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void shouldCountTurnsAndRememberTheLastTwoIntents() {
+        SessionStore sessions = new SessionStore(Duration.ofMinutes(30), 1000, now::get);
+
+        sessions.recordTurn("u1", Optional.of(PRICE));
+        sessions.recordTurn("u1", Optional.empty());
+        SessionStore.SessionState state = sessions.recordTurn("u1", Optional.of(SCHEDULE));
+
+        assertEquals(new SessionStore.SessionState(3, "agenda", null), state);
+        assertEquals(state, sessions.get("u1"));
+        assertEquals(new SessionStore.SessionState(0, null, null), sessions.get("u2"));
+        assertEquals(1, sessions.size());
+    }
+
+    @Test
+    void shouldForgetAClearedSession() {
+        SessionStore sessions = new SessionStore(Duration.ofMinutes(30), 1000, now::get);
+        sessions.recordTurn("u1", Optional.of(PRICE));
+
+        assertTrue(sessions.clear("u1"));
+        assertFalse(sessions.clear("u1"));
+        assertEquals(0, sessions.size());
+        assertEquals(1, sessions.recordTurn("u1", Optional.of(SCHEDULE)).turns());
+        assertEquals(0, sessions.evictions());
+    }
+
+    @Test
+    void shouldEvictSessionsIdleForTheTtl() {
+        Duration ttl = Duration.ofMinutes(30);
+        SessionStore sessions = new SessionStore(ttl, 1000, now::get);
+        sessions.recordTurn("idle", Optional.of(PRICE));
+        sessions.recordTurn("active", Optional.of(PRICE));
+
+        now.addAndGet(ttl.toNanos() / 2);
+        sessions.recordTurn("active", Optional.of(SCHEDULE));
+        now.addAndGet(ttl.toNanos() / 2 + ttl.toNanos() / 32);
+        sessions.evictExpired();
+
+        assertEquals(0, sessions.get("idle").turns());
+        assertEquals(2, sessions.get("active").turns());
+        assertEquals(1, sessions.size());
+        assertEquals(1, sessions.evictions());
+
+        // Far beyond a whole wheel lap: everything expires.
+        now.addAndGet(ttl.toNanos() * 10);
+        sessions.evictExpired();
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    void shouldNotEvictBeforeTheTtl() {
+        Duration ttl = Duration.ofSeconds(64);
+        SessionStore sessions = new SessionStore(ttl, 1000, now::get);
+        sessions.recordTurn("u1", Optional.empty());
+
+        now.addAndGet(ttl.toNanos() - 1);
+        sessions.evictExpired();
+
+        assertEquals(1, sessions.size());
+    }
+
+    @Test
+    void shouldEvictTheSessionClosestToExpiryWhenFull() {
+        SessionStore sessions = new SessionStore(Duration.ofMinutes(30), 1, now::get);
+        // One session per stripe: find two ids sharing a stripe by filling the store.
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; sessions.evictions() == 0; i++) {
+            String id = "user-" + i;
+            ids.add(id);
+            sessions.recordTurn(id, Optional.empty());
+            now.addAndGet(Duration.ofMinutes(1).toNanos());
+        }
+
+        assertTrue(sessions.size() <= SessionStore.STRIPES);
+        assertEquals(1, sessions.get(ids.get(ids.size() - 1)).turns());
+    }
+
+    @Test
+    void shouldKeepCountsExactUnderConcurrentTurns() throws Exception {
+        SessionStore sessions = new SessionStore(Duration.ofMinutes(30), 100_000, System::nanoTime);
+        int threads = 4;
+        int turns = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < turns; i++) {
+                    sessions.recordTurn("u" + (i % 100), Optional.of(PRICE));
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(100, sessions.size());
+        int total = 0;
+        for (int i = 0; i < 100; i++) {
+            total += sessions.get("u" + i).turns();
+        }
+        assertEquals(threads * turns, total);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticKnowledgeBaseTest {
+
+    @Test
+    void shouldBeReproducibleFromTheSeed() {
+        List<Intent> first = SyntheticKnowledgeBase.generate(200, 42);
+        List<Intent> second = SyntheticKnowledgeBase.generate(200, 42);
+        List<Intent> other = SyntheticKnowledgeBase.generate(200, 43);
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getKeywords(), second.get(i).getKeywords());
+        }
+        assertNotEquals(first.get(0).getKeywords(), other.get(0).getKeywords());
+        assertEquals(SyntheticKnowledgeBase.queries(first, 100, 0.3, 7),
+                SyntheticKnowledgeBase.queries(second, 100, 0.3, 7));
+    }
+
+    @Test
+    void shouldFollowTheShape() {
+        SyntheticKnowledgeBase.Shape shape = new SyntheticKnowledgeBase.Shape(new int[]{3}, new int[]{2});
+
+        for (Intent intent : SyntheticKnowledgeBase.generate(50, shape, 1)) {
+            assertEquals(3, intent.getKeywords().size());
+            for (String keyword : intent.getKeywords()) {
+                assertEquals(2, IntentMatcher.tokenize(keyword).size(), keyword);
+            }
+        }
+    }
+
+    @Test
+    void shouldMeasureTheShapeOfAKnowledgeBase() {
+        SyntheticKnowledgeBase.Shape shape = SyntheticKnowledgeBase.Shape.of(List.of(
+                new Intent("a", List.of("preco", "quanto custa"), "A", 1),
+                new Intent("b", List.of("o que e chatbot", " ", "ajuda", "horario"), "B", 1)
+        ));
+
+        assertArrayEquals(new int[]{2, 3}, shape.keywordCounts());
+        assertArrayEquals(new int[]{1, 2, 4, 1, 1}, shape.phraseLengths());
+        assertEquals(2.5, shape.averageKeywords());
+        assertEquals(5, shape.withKeywords(5).keywordCounts()[0]);
+        assertThrows(IllegalArgumentException.class, () -> shape.withKeywords(0));
+    }
+
+    @Test
+    void shouldGenerateTheRequestedShareOfHits() {
+        List<Intent> intents = SyntheticKnowledgeBase.generate(500, 42);
+        IntentIndex index = IntentIndex.build(intents);
+        IntentMatcher matcher = new IntentMatcher();
+
+        List<String> queries = SyntheticKnowledgeBase.queries(intents, 2000, 0.25, 7);
+        long hits = queries.stream().filter(q -> matcher.findBestIntent(q, index).isPresent()).count();
+        assertEquals(500, hits, 60);
+
+        assertTrue(SyntheticKnowledgeBase.queries(intents, 500, 0.0, 7).stream()
+                .noneMatch(q -> matcher.findBestIntent(q, index).isPresent()));
+        assertTrue(SyntheticKnowledgeBase.queries(intents, 500, 1.0, 7).stream()
+                .allMatch(q -> matcher.findBestIntent(q, index).isPresent()));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRegistryTest {
+
+    private static final IntentLoader LOADER = new IntentLoader(new ObjectMapper());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldShareTokenStringsBetweenTenants() {
+        TokenInterner shared = new TokenInterner();
+        IntentIndex a = IntentIndex.builder(shared)
+                .add(new Intent("preco", List.of("quanto custa", "preco"), "A", 1))
+                .build();
+        IntentIndex b = IntentIndex.builder(shared)
+                .add(new Intent("valores", List.of(new String("quanto custa"), "orcamento"), "B", 1))
+                .build();
+
+        String custa = a.dictionary().tokenOf(a.dictionary().idOf("custa"));
+        assertSame(custa, b.dictionary().tokenOf(b.dictionary().idOf("custa")));
+        assertSame(a.intentAt(0).getKeywords().get(0), b.intentAt(0).getKeywords().get(0));
+        assertTrue(shared.holds(custa));
+
+        // Sharing never changes matching.
+        IntentMatcher matcher = new IntentMatcher();
+        assertEquals("preco", matcher.findBestIntent("quanto custa?", a).orElseThrow().getIntent());
+        assertEquals("valores", matcher.findBestIntent("quanto custa?", b).orElseThrow().getIntent());
+    }
+
+    @Test
+    void shouldCountPooledStringsAsSharedMemory() {
+        Intent intent = new Intent("preco", List.of("quanto custa", "preco"), "Resposta", 1);
+        IntentIndex.MemoryUsage alone = IntentIndex.build(List.of(intent)).memoryUsage(null);
+
+        TokenInterner shared = new TokenInterner();
+        IntentIndex.MemoryUsage pooled = IntentIndex.builder(shared).add(intent).build().memoryUsage(shared);
+
+        assertEquals(0, alone.sharedBytes());
+        assertTrue(pooled.sharedBytes() > 0);
+        // Tokens, name and keywords: "quanto", "custa", "preco", "quanto custa" ("preco" is both).
+        assertEquals(4, pooled.sharedStrings());
+        assertTrue(pooled.privateBytes() < alone.privateBytes());
+        // The pool also pays for its table: one entry and one weak reference per string.
+        assertTrue(shared.estimatedBytes() > pooled.sharedBytes() + 4 * 64L);
+    }
+
+    @Test
+    void shouldReleaseWordsNoKnowledgeBaseUsesAnymore() throws Exception {
+        Path file = Files.writeString(dir.resolve("marca.json"),
+                "[{\"intent\":\"preco\",\"keywords\":[\"preco antigo\"],\"response\":\"R\",\"priority\":1}]");
+        TokenInterner shared = new TokenInterner();
+        KnowledgeBaseReloader reloader =
+                new KnowledgeBaseReloader(file, LOADER, KnowledgeBaseReloader.loadIndex(file, LOADER, shared), shared);
+        // "preco", "antigo" and "preco antigo".
+        assertEquals(3, shared.size());
+
+        Files.writeString(file, "[{\"intent\":\"preco\",\"keywords\":[\"preco\"],\"response\":\"R\",\"priority\":1}]");
+        assertTrue(reloader.reload());
+
+        for (int attempt = 0; attempt < 50 && shared.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, shared.size());
+        assertEquals("preco", reloader.index().intentAt(0).getKeywords().get(0));
+    }
+
+    @Test
+    void shouldKeepUsingThePoolOnReload() throws Exception {
+        Path file = Files.writeString(dir.resolve("marca.json"),
+                "[{\"intent\":\"preco\",\"keywords\":[\"preco\"],\"response\":\"R\",\"priority\":1}]");
+        TokenInterner shared = new TokenInterner();
+        KnowledgeBaseReloader reloader =
+                new KnowledgeBaseReloader(file, LOADER, KnowledgeBaseReloader.loadIndex(file, LOADER, shared), shared);
+
+        Files.writeString(file, "[{\"intent\":\"preco\",\"keywords\":[\"preco novo\"],\"response\":\"R\",\"priority\":1}]");
+        assertTrue(reloader.reload());
+
+        TokenDictionary dictionary = reloader.index().dictionary();
+        assertTrue(shared.holds(dictionary.tokenOf(dictionary.idOf("novo"))));
+    }
+
+    @Test
+    void shouldResolveDefaultTenant() {
+        TenantRegistry.Tenant a = tenant("a");
+        TenantRegistry.Tenant b = tenant("b");
+
+        assertSame(a, new TenantRegistry(List.of(a), null, null).defaultTenant());
+        assertNull(new TenantRegistry(List.of(a, b), null, null).defaultTenant());
+        assertSame(b, new TenantRegistry(List.of(a, b), null, "b").defaultTenant());
+
+        TenantRegistry registry = new TenantRegistry(List.of(a, b), null, null);
+        assertSame(a, registry.tenant("a"));
+        assertNull(registry.tenant("c"));
+        assertNull(registry.tenant(null));
+    }
+
+    @Test
+    void shouldRejectUnknownDefaultAndDuplicateTenants() {
+        TenantRegistry.Tenant a = tenant("a");
+
+        assertThrows(IllegalArgumentException.class, () -> new TenantRegistry(List.of(a), null, "b"));
+        assertThrows(IllegalArgumentException.class, () -> new TenantRegistry(List.of(a, tenant("a")), null, null));
+    }
+
+    @Test
+    void shouldRecomputeMemoryForANewSnapshot() throws Exception {
+        Path file = Files.writeString(dir.resolve("a.json"),
+                "[{\"intent\":\"preco\",\"keywords\":[\"preco\"],\"response\":\"R\",\"priority\":1}]");
+        KnowledgeBaseReloader reloader = new KnowledgeBaseReloader(file, LOADER, LOADER.loadIndex(file));
+        TenantRegistry registry = TenantRegistry.single("a", reloader, new IntentMatcher());
+        TenantRegistry.Tenant tenant = registry.defaultTenant();
+
+        long before = registry.memoryUsage(tenant).privateBytes();
+        assertSame(registry.memoryUsage(tenant), registry.memoryUsage(tenant));
+
+        Files.writeString(file, "[{\"intent\":\"preco\",\"keywords\":[\"preco\",\"quanto custa\",\"valor\"],"
+                + "\"response\":\"R\",\"priority\":1}]");
+        assertTrue(reloader.reload());
+        assertTrue(registry.memoryUsage(tenant).privateBytes() > before);
+    }
+
+    private static TenantRegistry.Tenant tenant(String id) {
+        return new TenantRegistry.Tenant(id,
+                new KnowledgeBaseReloader(Path.of(id + ".json"), LOADER, List.of()), new IntentMatcher());
+    }
+}
@@ -2,6 +2,12 @@ package dev.rafaellopes.chatbotfaq.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TextNormalizerTest {
@@ -60,4 +66,119 @@ class TextNormalizerTest {
         String normalizedTwice = TextNormalizer.normalize(normalized);
         assertEquals(normalized, normalizedTwice);
     }
+
+    @Test
+    void shouldTokenizeIntoReusableBuffer() {
+        TokenBuffer buffer = new TokenBuffer();
+
+        TextNormalizer.tokenize("Olá, QUERO um orçamento!", buffer);
+        assertEquals(List.of("ola", "quero", "um", "orcamento"), buffer.toList());
+
+        buffer.clear();
+        TextNormalizer.tokenize("a\u0301b-c", buffer);
+        assertEquals(List.of("ab", "c"), buffer.toList());
+    }
+
+    @Test
+    void shouldNormalizeEveryBmpCharLikeLegacyPipeline() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String text = "Ab" + (char) c + "C d\t" + (char) c;
+            assertEquals(legacyNormalize(text), TextNormalizer.normalize(text), () -> "char U+" + Integer.toHexString(text.charAt(2)));
+        }
+    }
+
+    @Test
+    void shouldTokenizeEveryBmpCharLikeLegacyPipeline() {
+        TokenBuffer buffer = new TokenBuffer();
+
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            for (String text : List.of(String.valueOf((char) c), "x" + (char) c + "Y", (char) c + "9" + (char) c)) {
+                buffer.clear();
+                TextNormalizer.tokenize(text, buffer);
+                assertEquals(legacyTokenize(text), buffer.toList(), () -> "char U+" + Integer.toHexString(text.charAt(0)));
+            }
+        }
+    }
+
+    @Test
+    void shouldTokenizeEverySupplementaryCodePointLikeLegacyPipeline() {
+        TokenBuffer buffer = new TokenBuffer();
+        StringBuilder block = new StringBuilder();
+
+        for (int cp = Character.MIN_SUPPLEMENTARY_CODE_POINT; cp <= Character.MAX_CODE_POINT; cp++) {
+            block.append('a').appendCodePoint(cp).append('b');
+            if ((cp & 0xFF) == 0xFF) {
+                String text = block.toString();
+                buffer.clear();
+                TextNormalizer.tokenize(text, buffer);
+                assertEquals(legacyTokenize(text), buffer.toList(), "block ending at U+" + Integer.toHexString(cp));
+                block.setLength(0);
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchLegacyPipelineOnRandomMixedText() {
+        Random random = new Random(7);
+        String alphabet = "aZ09 \t\n\u000B\f\r\u0000\u001F!?-_áÉçÇñÑü\u0301\u0327\u0130\u212A\u03A3\u00DF\uD835\uDC00\uD800\uDC00";
+        TokenBuffer buffer = new TokenBuffer();
+
+        for (int round = 0; round < 20_000; round++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < random.nextInt(24); i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = sb.toString();
+
+            assertEquals(legacyNormalize(text), TextNormalizer.normalize(text), () -> "text: " + text);
+            buffer.clear();
+            TextNormalizer.tokenize(text, buffer);
+            assertEquals(legacyTokenize(text), buffer.toList(), () -> "text: " + text);
+        }
+    }
+
+    /**
+     * Normalization as originally implemented (regex based), kept as the reference.
+     */
+    private static String legacyNormalize(String text) {
+        String accented = "áàãâäéèêëíìîïóòõôöúùûüçñÁÀÃÂÄÉÈÊËÍÌÎÏÓÒÕÔÖÚÙÛÜÇÑ";
+        String unaccented = "aaaaaeeeeiiiiooooouuuucnAAAAAEEEEIIIIOOOOOUUUUCN";
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{M}+", "");
+
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            int index = accented.indexOf(c);
+            sb.append(index >= 0 ? unaccented.charAt(index) : c);
+        }
+
+        return sb.toString().trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Matcher tokenization as originally implemented: legacy normalize, non-[a-z0-9] to spaces, split.
+     */
+    private static List<String> legacyTokenize(String text) {
+        String normalized = legacyNormalize(text);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+
+        return tokens;
+    }
 }
@@ -0,0 +1,88 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCorrectorTest {
+
+    @Test
+    void shouldComputeOptimalStringAlignmentDistance() {
+        assertEquals(0, TokenCorrector.distance("chatbot", "chatbot", 2));
+        assertEquals(1, TokenCorrector.distance("chatbo", "chatbot", 2));
+        assertEquals(1, TokenCorrector.distance("humanno", "humano", 2));
+        assertEquals(1, TokenCorrector.distance("agnedar", "agendar", 2));
+        assertEquals(2, TokenCorrector.distance("orcamnto", "orcamento2", 2));
+        assertTrue(TokenCorrector.distance("preco", "horario", 2) > 2);
+    }
+
+    @Test
+    void shouldGenerateDeletesUpToDistance() {
+        assertEquals(Set.of("abc", "bc", "ac", "ab"), TokenCorrector.deletesOf("abc", 1));
+        assertEquals(Set.of("abc", "bc", "ac", "ab", "a", "b", "c"), TokenCorrector.deletesOf("abc", 2));
+    }
+
+    @Test
+    void shouldCorrectToClosestTokenPreferringLowestIdOnTies() {
+        TokenCorrector corrector = TokenCorrector.build(dictionary("chatbot", "humano", "automacao", "chatbots"), 2);
+
+        assertEquals(0, corrector.correct("chatbo", 2));
+        assertEquals(0, corrector.correct("chatbott", 2));
+        assertEquals(1, corrector.correct("humanno", 1));
+        assertEquals(2, corrector.correct("automcao", 1));
+        assertEquals(2, corrector.correct("atomacaao", 2));
+        assertEquals(TokenDictionary.UNKNOWN, corrector.correct("atomacaao", 1));
+        assertEquals(TokenDictionary.UNKNOWN, corrector.correct("preco", 2));
+    }
+
+    @Test
+    void shouldAgreeWithBruteForceOnRandomVocabularies() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            String[] tokens = new String[5 + random.nextInt(40)];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = randomWord(random, 3 + random.nextInt(6));
+            }
+            TokenDictionary dictionary = dictionary(tokens);
+            TokenCorrector corrector = TokenCorrector.build(dictionary, 2);
+
+            for (int q = 0; q < 100; q++) {
+                String query = randomWord(random, 3 + random.nextInt(6));
+                int distance = 1 + random.nextInt(2);
+                assertEquals(bruteForce(dictionary, query, distance), corrector.correct(query, distance), query);
+            }
+        }
+    }
+
+    private static int bruteForce(TokenDictionary dictionary, String query, int distance) {
+        int bestId = TokenDictionary.UNKNOWN;
+        int bestDistance = distance + 1;
+        for (int id = 0; id < dictionary.size(); id++) {
+            int d = TokenCorrector.distance(query, dictionary.tokenOf(id), Integer.MAX_VALUE);
+            if (d < bestDistance) {
+                bestDistance = d;
+                bestId = id;
+            }
+        }
+        return bestId;
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static TokenDictionary dictionary(String... tokens) {
+        TokenDictionary.Builder builder = TokenDictionary.builder();
+        for (String token : tokens) {
+            builder.intern(token);
+        }
+        return builder.build();
+    }
+}
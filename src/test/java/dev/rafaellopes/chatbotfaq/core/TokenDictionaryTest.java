@@ -0,0 +1,48 @@
+package dev.rafaellopes.chatbotfaq.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDictionaryTest {
+
+    @Test
+    void shouldAssignDenseIdsInFirstSeenOrder() {
+        TokenDictionary.Builder builder = TokenDictionary.builder();
+
+        assertArrayEquals(new int[]{0, 1, 2}, builder.internAll(List.of("o", "que", "e")));
+        assertArrayEquals(new int[]{0, 1, 3}, builder.internAll(List.of("o", "que", "chatbot")));
+
+        TokenDictionary dictionary = builder.build();
+        assertEquals(4, dictionary.size());
+        assertEquals(3, dictionary.idOf("chatbot"));
+        assertEquals("chatbot", dictionary.tokenOf(3));
+    }
+
+    @Test
+    void shouldMapUnknownTokensToSentinel() {
+        TokenDictionary.Builder builder = TokenDictionary.builder();
+        builder.intern("chatbot");
+        TokenDictionary dictionary = builder.build();
+
+        assertArrayEquals(new int[]{TokenDictionary.UNKNOWN, 0}, dictionary.encode(List.of("um", "chatbot")));
+        assertEquals(TokenDictionary.UNKNOWN, dictionary.idOf(null));
+        assertEquals(TokenDictionary.UNKNOWN, TokenDictionary.builder().build().idOf("x"));
+    }
+
+    @Test
+    void shouldFindEveryTokenOfALargeVocabulary() {
+        TokenDictionary.Builder builder = TokenDictionary.builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.intern("t" + i);
+        }
+        TokenDictionary dictionary = builder.build();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.idOf("t" + i));
+        }
+        assertEquals(TokenDictionary.UNKNOWN, dictionary.idOf("t10000"));
+    }
+}